@@ -12,7 +12,6 @@ package org.eclipse.recommenders.apidocs;
 
 import static com.google.common.base.Optional.*;
 import static org.eclipse.recommenders.utils.Constants.DOT_JSON;
-import static org.eclipse.recommenders.utils.Zips.*;
 
 import java.io.File;
 import java.io.IOException;
@@ -26,6 +25,7 @@ import java.util.zip.ZipFile;
 import org.eclipse.recommenders.models.IInputStreamTransformer;
 import org.eclipse.recommenders.models.IModelProvider;
 import org.eclipse.recommenders.models.IUniqueName;
+import org.eclipse.recommenders.models.SharedZipFiles;
 import org.eclipse.recommenders.models.UniqueTypeName;
 import org.eclipse.recommenders.utils.IOUtils;
 import org.eclipse.recommenders.utils.Openable;
@@ -49,6 +49,7 @@ public class SingleZipMethodSelfCallsModelProvider implements
 
     private final File models;
     private final Map<String, IInputStreamTransformer> transformers;
+    private SharedZipFiles.Handle handle;
     private ZipFile zip;
 
     public SingleZipMethodSelfCallsModelProvider(File models, Map<String, IInputStreamTransformer> transformers) {
@@ -58,13 +59,13 @@ public class SingleZipMethodSelfCallsModelProvider implements
 
     @Override
     public void open() throws IOException {
-        readFully(models);
-        zip = new ZipFile(models);
+        handle = SharedZipFiles.getInstance().acquire(models);
+        zip = handle.getZipFile();
     }
 
     @Override
     public void close() throws IOException {
-        closeQuietly(zip);
+        IOUtils.closeQuietly(handle);
     }
 
     public Set<ITypeName> acquireableTypes() {
@@ -56,6 +56,7 @@ import org.eclipse.recommenders.utils.Recommendation;
 import org.eclipse.recommenders.utils.Recommendations;
 import org.eclipse.recommenders.utils.Result;
 import org.eclipse.recommenders.utils.names.IMethodName;
+import org.eclipse.recommenders.utils.names.SelectorIndex;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
@@ -86,6 +87,9 @@ public class CallCompletionSessionProcessor extends SessionProcessor {
 
     private Map<Recommendation<IMethodName>, Integer> recommendationsIndex;
 
+    // built once per session so that processing a proposal is a lookup rather than a search
+    private SelectorIndex<Recommendation<IMethodName>> recommendationsBySelector;
+    private SelectorIndex<IMethodName> observedCallsBySelector;
 
     @Inject
     public CallCompletionSessionProcessor(IProjectCoordinateProvider pcProvider, ICallModelProvider modelProvider,
@@ -158,15 +162,16 @@ public class CallCompletionSessionProcessor extends SessionProcessor {
         model.setObservedCalls(observedCalls);
 
         // read
-        recommendations = model.recommendCalls();
-        // filter void methods if needed:
+        double minRelevance = max(prefs.minProposalPercentage, 0.01) / 100;
         if (ctx.getExpectedTypeSignature().isPresent()) {
-            recommendations = Recommendations.filterVoid(recommendations);
+            // void methods must be filtered before the top proposals are taken
+            recommendations = top(Recommendations.filterVoid(model.recommendCalls()), prefs.maxNumberOfProposals,
+                    minRelevance);
+        } else {
+            recommendations = model.recommendCalls(prefs.maxNumberOfProposals, minRelevance);
         }
-
-        recommendations = top(recommendations, prefs.maxNumberOfProposals,
-                max(prefs.minProposalPercentage, 0.01) / 100);
         calculateProposalRelevanceBoostMap();
+        indexBySelector();
 
         return !isEmpty(recommendations) || !observedCalls.isEmpty();
     }
@@ -187,6 +192,17 @@ public class CallCompletionSessionProcessor extends SessionProcessor {
         }
     }
 
+    private void indexBySelector() {
+        recommendationsBySelector = SelectorIndex.create();
+        for (Recommendation<IMethodName> r : recommendations) {
+            recommendationsBySelector.put(r.getProposal(), r);
+        }
+        observedCallsBySelector = SelectorIndex.create();
+        for (IMethodName observed : observedCalls) {
+            observedCallsBySelector.put(observed, observed);
+        }
+    }
+
     private void releaseModel() {
         if (model != null) {
             modelProvider.releaseModel(model);
@@ -205,61 +221,52 @@ public class CallCompletionSessionProcessor extends SessionProcessor {
                 return;
             }
 
-            final ProposalMatcher matcher = new ProposalMatcher(proposedMethod);
-            if (prefs.highlightUsedProposals && handleAlreadyUsedProposal(proposal, matcher)) {
+            if (prefs.highlightUsedProposals && handleAlreadyUsedProposal(proposal, proposedMethod)) {
                 return;
             }
-            handleRecommendation(proposal, matcher);
+            handleRecommendation(proposal, proposedMethod);
         }
     }
 
-    private boolean handleAlreadyUsedProposal(IProcessableProposal proposal, ProposalMatcher matcher) {
-        for (IMethodName observed : observedCalls) {
-            if (matcher.match(observed)) {
-                final int boost = prefs.changeProposalRelevance ? 1 : 0;
-                final String label = prefs.decorateProposalText ? Messages.PROPOSAL_LABEL_USED : ""; //$NON-NLS-1$
-                ProposalProcessorManager manager = proposal.getProposalProcessorManager();
-                manager.addProcessor(new SimpleProposalProcessor(boost, label));
-
-                if (prefs.decorateProposalIcon) {
-                    manager.addProcessor(overlayProcessor);
-                }
-                return true;
-            }
+    private boolean handleAlreadyUsedProposal(IProcessableProposal proposal, IMethodName proposedMethod) {
+        if (!observedCallsBySelector.contains(proposedMethod)) {
+            return false;
         }
-        return false;
-    }
+        final int boost = prefs.changeProposalRelevance ? 1 : 0;
+        final String label = prefs.decorateProposalText ? Messages.PROPOSAL_LABEL_USED : ""; //$NON-NLS-1$
+        ProposalProcessorManager manager = proposal.getProposalProcessorManager();
+        manager.addProcessor(new SimpleProposalProcessor(boost, label));
 
-    private void handleRecommendation(IProcessableProposal proposal, ProposalMatcher matcher) {
-        for (final Recommendation<IMethodName> call : recommendations) {
-            final IMethodName crMethod = call.getProposal();
-            if (!matcher.match(crMethod)) {
-                continue;
-            }
+        if (prefs.decorateProposalIcon) {
+            manager.addProcessor(overlayProcessor);
+        }
+        return true;
+    }
 
-            Integer score = recommendationsIndex.get(call);
-            final int boost = prefs.changeProposalRelevance ? 200 + score : 0;
-            if (boost > 0) {
-                proposal.setTag(RECOMMENDERS_SCORE, score);
-            }
+    private void handleRecommendation(IProcessableProposal proposal, IMethodName proposedMethod) {
+        final Recommendation<IMethodName> call = recommendationsBySelector.get(proposedMethod);
+        if (call == null) {
+            return;
+        }
 
-            String label = ""; //$NON-NLS-1$
-            if (prefs.decorateProposalText) {
-                double relevance = call.getRelevance();
-                String format = relevance < 0.01d ? Messages.PROPOSAL_LABEL_PROMILLE
-                        : Messages.PROPOSAL_LABEL_PERCENTAGE;
-                label = format(format, relevance);
-            }
+        Integer score = recommendationsIndex.get(call);
+        final int boost = prefs.changeProposalRelevance ? 200 + score : 0;
+        if (boost > 0) {
+            proposal.setTag(RECOMMENDERS_SCORE, score);
+        }
 
-            ProposalProcessorManager mgr = proposal.getProposalProcessorManager();
-            mgr.addProcessor(new SimpleProposalProcessor(boost, label));
+        String label = ""; //$NON-NLS-1$
+        if (prefs.decorateProposalText) {
+            double relevance = call.getRelevance();
+            String format = relevance < 0.01d ? Messages.PROPOSAL_LABEL_PROMILLE : Messages.PROPOSAL_LABEL_PERCENTAGE;
+            label = format(format, relevance);
+        }
 
-            if (prefs.decorateProposalIcon) {
-                mgr.addProcessor(overlayProcessor);
-            }
+        ProposalProcessorManager mgr = proposal.getProposalProcessorManager();
+        mgr.addProcessor(new SimpleProposalProcessor(boost, label));
 
-            // we found the proposal we are looking for. So quit.
-            return;
+        if (prefs.decorateProposalIcon) {
+            mgr.addProcessor(overlayProcessor);
         }
     }
 
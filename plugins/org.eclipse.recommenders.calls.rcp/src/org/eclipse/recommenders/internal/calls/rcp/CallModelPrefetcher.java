@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.internal.calls.rcp;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.recommenders.calls.ICallModel;
+import org.eclipse.recommenders.calls.ICallModelProvider;
+import org.eclipse.recommenders.internal.models.rcp.PrefetchModelsJob;
+import org.eclipse.recommenders.models.rcp.IProjectCoordinateProvider;
+import org.eclipse.recommenders.models.rcp.ModelEvents.ModelRepositoryOpenedEvent;
+import org.eclipse.recommenders.rcp.IRcpService;
+import org.eclipse.recommenders.rcp.JavaElementSelectionEvent;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Prefetches the call models of the types used by the compilation units open in editors, so that code completion does
+ * not have to wait for model archives to be downloaded and networks to be compiled.
+ */
+public class CallModelPrefetcher implements IRcpService {
+
+    // the job moreover stops once the model provider's pool is half full
+    private static final int MAX_MODELS_PER_COMPILATION_UNIT = 20;
+
+    private final PrefetchModelsJob<ICallModel> job;
+
+    private ICompilationUnit lastPrefetched;
+
+    @Inject
+    public CallModelPrefetcher(IProjectCoordinateProvider pcProvider, ICallModelProvider modelProvider) {
+        job = new PrefetchModelsJob<ICallModel>(pcProvider, modelProvider, MAX_MODELS_PER_COMPILATION_UNIT);
+    }
+
+    @PostConstruct
+    public void open() {
+        job.prefetchWorkingCopies();
+    }
+
+    @PreDestroy
+    public void close() {
+        job.cancel();
+    }
+
+    @Subscribe
+    public void onEvent(JavaElementSelectionEvent e) {
+        ICompilationUnit cu = (ICompilationUnit) e.getElement().getAncestor(IJavaElement.COMPILATION_UNIT);
+        // selection events are sent whenever the caret moves; only react to another editor becoming active
+        if (cu != null && !cu.equals(lastPrefetched)) {
+            lastPrefetched = cu;
+            job.prefetch(cu);
+        }
+    }
+
+    @Subscribe
+    public void onEvent(ModelRepositoryOpenedEvent e) {
+        job.reset();
+        lastPrefetched = null;
+        job.prefetchWorkingCopies();
+    }
+}
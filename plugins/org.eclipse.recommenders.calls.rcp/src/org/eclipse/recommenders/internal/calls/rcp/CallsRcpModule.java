@@ -35,6 +35,7 @@ public class CallsRcpModule extends AbstractModule implements Module {
     @Override
     protected void configure() {
         bind(ICallModelProvider.class).to(RcpCallModelProvider.class).in(Scopes.SINGLETON);
+        bind(CallModelPrefetcher.class).asEagerSingleton();
 
         MapBinder<CompletionContextKey, ICompletionContextFunction> functions = MapBinder.newMapBinder(binder(),
                 CompletionContextKey.class, ICompletionContextFunction.class);
@@ -23,6 +23,8 @@ import org.eclipse.recommenders.calls.PoolingCallModelProvider;
 import org.eclipse.recommenders.models.IInputStreamTransformer;
 import org.eclipse.recommenders.models.IModelArchiveCoordinateAdvisor;
 import org.eclipse.recommenders.models.IModelRepository;
+import org.eclipse.recommenders.models.IPoolingModelProvider;
+import org.eclipse.recommenders.models.ModelPoolStatistics;
 import org.eclipse.recommenders.models.UniqueTypeName;
 import org.eclipse.recommenders.models.rcp.ModelEvents.ModelRepositoryClosedEvent;
 import org.eclipse.recommenders.models.rcp.ModelEvents.ModelRepositoryOpenedEvent;
@@ -31,13 +33,14 @@ import org.eclipse.recommenders.rcp.IRcpService;
 import com.google.common.base.Optional;
 import com.google.common.eventbus.Subscribe;
 
-public class RcpCallModelProvider implements ICallModelProvider, IRcpService {
+public class RcpCallModelProvider implements ICallModelProvider, IPoolingModelProvider<UniqueTypeName, ICallModel>,
+        IRcpService {
 
     private final IModelRepository repository;
     private final IModelArchiveCoordinateAdvisor index;
     private final Map<String, IInputStreamTransformer> transformers;
 
-    private ICallModelProvider delegate;
+    private PoolingCallModelProvider delegate;
 
     @Inject
     public RcpCallModelProvider(IModelRepository repository, IModelArchiveCoordinateAdvisor index,
@@ -70,6 +73,11 @@ public class RcpCallModelProvider implements ICallModelProvider, IRcpService {
         delegate.releaseModel(value);
     }
 
+    @Override
+    public ModelPoolStatistics getPoolStatistics() {
+        return delegate.getPoolStatistics();
+    }
+
     @Subscribe
     public void onEvent(ModelRepositoryOpenedEvent e) throws IOException {
         open();
@@ -16,7 +16,6 @@ import static org.eclipse.recommenders.internal.calls.rcp.CallCompletionContextF
 import static org.eclipse.recommenders.internal.calls.rcp.Constants.TEMPLATES_CATEGORY_ID;
 import static org.eclipse.recommenders.internal.calls.rcp.l10n.LogMessages.*;
 import static org.eclipse.recommenders.utils.Logs.log;
-import static org.eclipse.recommenders.utils.Recommendations.top;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -222,7 +221,7 @@ public class TemplatesCompletionProposalComputer implements IJavaCompletionPropo
             String patternId = p.getProposal();
             model.setObservedPattern(patternId);
             Collection<IMethodName> calls = Sets.newTreeSet();
-            for (Recommendation<IMethodName> r : top(model.recommendCalls(), 100, 0.1d)) {
+            for (Recommendation<IMethodName> r : model.recommendCalls(100, 0.1d)) {
                 calls.add(r.getProposal());
             }
             // patterns with less than two calls are no patterns :)
@@ -274,7 +273,7 @@ public class TemplatesCompletionProposalComputer implements IJavaCompletionPropo
         boolean constructorAdded = false;
 
         TreeSet<IMethodName> calls = Sets.newTreeSet();
-        List<Recommendation<IMethodName>> rec = Recommendations.top(model.recommendCalls(), 100, 0.1d);
+        List<Recommendation<IMethodName>> rec = model.recommendCalls(100, 0.1d);
         if (rec.isEmpty()) {
             return Lists.newLinkedList();
         }
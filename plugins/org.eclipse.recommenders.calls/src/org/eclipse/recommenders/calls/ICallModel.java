@@ -162,6 +162,15 @@ public interface ICallModel {
      */
     List<Recommendation<IMethodName>> recommendCalls();
 
+    /**
+     * Returns the at most {@code k} most relevant method calls with a relevance of at least {@code minProbability},
+     * sorted by relevance in descending order.
+     * <p>
+     * This is equivalent to {@code Recommendations.top(recommendCalls(), k, minProbability)}, but implementations may
+     * compute it without creating recommendations for all calls.
+     */
+    List<Recommendation<IMethodName>> recommendCalls(int k, double minProbability);
+
     /**
      * Specifies how the variable under examination was defined (field, parameter, by method return...).
      */
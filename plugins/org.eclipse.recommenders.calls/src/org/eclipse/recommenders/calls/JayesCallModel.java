@@ -16,28 +16,41 @@ import static com.google.common.collect.ImmutableSet.copyOf;
 import static org.eclipse.recommenders.utils.Constants.*;
 import static org.eclipse.recommenders.utils.Recommendation.newRecommendation;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import org.eclipse.recommenders.commons.bayesnet.BayesianNetwork;
 import org.eclipse.recommenders.jayes.BayesNet;
 import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.factor.FactorFactory;
+import org.eclipse.recommenders.jayes.inference.AbstractInferrer;
+import org.eclipse.recommenders.jayes.inference.NaiveBayesInferrer;
+import org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree;
 import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm;
 import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeBuilder;
 import org.eclipse.recommenders.jayes.io.IBayesNetReader;
+import org.eclipse.recommenders.jayes.io.jbif.JayesBif2Reader;
+import org.eclipse.recommenders.jayes.io.jbif.JayesBif2Writer;
 import org.eclipse.recommenders.jayes.io.jbif.JayesBifReader;
 import org.eclipse.recommenders.jayes.util.triangulation.MinDegree;
 import org.eclipse.recommenders.utils.Constants;
 import org.eclipse.recommenders.utils.IOUtils;
 import org.eclipse.recommenders.utils.Nullable;
 import org.eclipse.recommenders.utils.Recommendation;
+import org.eclipse.recommenders.utils.Recommendations;
 import org.eclipse.recommenders.utils.names.IFieldName;
 import org.eclipse.recommenders.utils.names.IMethodName;
 import org.eclipse.recommenders.utils.names.ITypeName;
@@ -49,6 +62,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
 
 /**
  * A thin wrapper around a {@link BayesianNetwork} for recommending method calls.
@@ -93,8 +107,110 @@ import com.google.common.collect.Lists;
 public class JayesCallModel implements ICallModel {
 
     public static ICallModel load(InputStream is, ITypeName type) throws IOException {
-        BayesNet net = getModel(is, type);
-        return new JayesCallModel(type, net);
+        return new JayesCallModel(type, prepare(is, type));
+    }
+
+    /**
+     * A network ready for inference, which can be shared by any number of call models, also across threads. Naive
+     * Bayes networks are queried directly; only other networks are compiled into a junction tree.
+     *
+     * @see JayesCallModel#JayesCallModel(ITypeName, SharedNetwork)
+     */
+    public static final class SharedNetwork {
+
+        private final BayesNet net;
+        @Nullable
+        private final CompiledJunctionTree junctionTree;
+
+        private SharedNetwork(BayesNet net, @Nullable CompiledJunctionTree junctionTree) {
+            this.net = net;
+            this.junctionTree = junctionTree;
+        }
+
+        private static SharedNetwork of(BayesNet net) {
+            return new SharedNetwork(net, NaiveBayesInferrer.isNaiveBayes(net) ? null : compile(net));
+        }
+
+        private static SharedNetwork of(CompiledJunctionTree junctionTree) {
+            return new SharedNetwork(junctionTree.getNetwork(), junctionTree);
+        }
+
+        public BayesNet getNetwork() {
+            return net;
+        }
+
+        /**
+         * @return whether inference on the network needs a junction tree, i.e., whether it is not a naive Bayes network
+         */
+        public boolean isCompiled() {
+            return junctionTree != null;
+        }
+    }
+
+    /**
+     * Reads a network in the JBIF or the precompiled JBIF2 format; networks in JBIF are compiled only if they are not
+     * naive Bayes networks.
+     */
+    public static SharedNetwork prepare(InputStream is, ITypeName type) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(is);
+        if (JayesBif2Reader.isCompiledFormat(in)) {
+            return SharedNetwork.of(getCompiledModel(in));
+        }
+        return SharedNetwork.of(getModel(in, type));
+    }
+
+    /**
+     * Writes a network in the form {@link #prepare(ByteBuffer)} reads fastest: naive Bayes networks are copied as they
+     * are, other networks are compiled and written in the JBIF2 format.
+     */
+    public static void writePrepared(InputStream is, OutputStream out) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(is);
+        if (JayesBif2Reader.isCompiledFormat(in)) {
+            ByteStreams.copy(in, out);
+            return;
+        }
+        byte[] content = ByteStreams.toByteArray(in);
+        BayesNet net = getModel(new ByteArrayInputStream(content), null);
+        if (NaiveBayesInferrer.isNaiveBayes(net)) {
+            out.write(content);
+        } else {
+            new JayesBif2Writer(out).write(compile(net));
+        }
+    }
+
+    /**
+     * Reads a network in the JBIF or JBIF2 format in place; the probability tables of the result are views of the
+     * buffer.
+     */
+    public static SharedNetwork prepare(ByteBuffer buffer) throws IOException {
+        if (JayesBif2Reader.isCompiledFormat(buffer)) {
+            JayesBif2Reader rdr = new JayesBif2Reader(buffer);
+            try {
+                return SharedNetwork.of(rdr.read());
+            } finally {
+                IOUtils.closeQuietly(rdr);
+            }
+        }
+        IBayesNetReader rdr = new JayesBifReader(buffer);
+        try {
+            return SharedNetwork.of(rdr.read());
+        } finally {
+            IOUtils.closeQuietly(rdr);
+        }
+    }
+
+    private static CompiledJunctionTree compile(BayesNet net) {
+        return CompiledJunctionTree.compile(net, JunctionTreeBuilder.forHeuristic(new MinDegree()),
+                FactorFactory.defaultFactory());
+    }
+
+    private static CompiledJunctionTree getCompiledModel(InputStream is) throws IOException {
+        JayesBif2Reader rdr = new JayesBif2Reader(is);
+        try {
+            return rdr.read();
+        } finally {
+            IOUtils.closeQuietly(rdr);
+        }
     }
 
     private static BayesNet getModel(InputStream is, ITypeName type) throws IOException {
@@ -119,22 +235,36 @@ public class JayesCallModel implements ICallModel {
     private final BayesNode overridesNode;
     private final BayesNode definedByNode;
     private final BayesNode defKindNode;
-    private final JunctionTreeAlgorithm junctionTree;
+    private final AbstractInferrer inferrer;
 
     private final ITypeName typeName;
     private final Map<IMethodName, BayesNode> callNodes;
+    // the call nodes in a fixed order, for querying all of them at once
+    private IMethodName[] callMethodArray;
+    private BayesNode[] callNodeArray;
+    private int[] trueOutcomes;
 
     private static final List<String> SPECIAL_NODES = Arrays.asList(N_NODEID_CONTEXT, N_NODEID_CALL_GROUPS,
             N_NODEID_DEF_KIND, N_NODEID_DEF);
 
+    /**
+     * Naive Bayes networks, i.e. call group nodes with conditionally independent children, are queried directly;
+     * other networks are compiled into a junction tree first.
+     */
     public JayesCallModel(final ITypeName name, final BayesNet net) {
+        this(name, SharedNetwork.of(net));
+    }
+
+    public JayesCallModel(final ITypeName name, final SharedNetwork sharedNet) {
+        this(name, sharedNet.net, sharedNet.isCompiled() ? createJunctionTreeAlgorithm(sharedNet.junctionTree)
+                : createNaiveBayesInferrer(sharedNet.net));
+    }
+
+    private JayesCallModel(final ITypeName name, final BayesNet net, final AbstractInferrer inferrer) {
         this.net = net;
         this.typeName = name;
         this.callNodes = new HashMap<IMethodName, BayesNode>();
-        this.junctionTree = new JunctionTreeAlgorithm();
-
-        junctionTree.setJunctionTreeBuilder(JunctionTreeBuilder.forHeuristic(new MinDegree()));
-        junctionTree.setNetwork(net);
+        this.inferrer = inferrer;
 
         overridesNode = net.getNode(N_NODEID_CONTEXT);
         callgroupNode = net.getNode(N_NODEID_CALL_GROUPS);
@@ -144,6 +274,19 @@ public class JayesCallModel implements ICallModel {
         setCallNodes(net);
     }
 
+    private static AbstractInferrer createNaiveBayesInferrer(BayesNet net) {
+        NaiveBayesInferrer inferrer = new NaiveBayesInferrer();
+        inferrer.setNetwork(net);
+        return inferrer;
+    }
+
+    private static AbstractInferrer createJunctionTreeAlgorithm(CompiledJunctionTree compiledNet) {
+        JunctionTreeAlgorithm junctionTree = new JunctionTreeAlgorithm();
+        junctionTree.setUseIncrementalUpdates(true);
+        junctionTree.setCompiledJunctionTree(compiledNet);
+        return junctionTree;
+    }
+
     private void setCallNodes(BayesNet net) {
         for (BayesNode bayesNode : net.getNodes()) {
             String name = bayesNode.getName();
@@ -152,10 +295,17 @@ public class JayesCallModel implements ICallModel {
                 callNodes.put(vmMethodName, bayesNode);
             }
         }
+        callMethodArray = callNodes.keySet().toArray(new IMethodName[callNodes.size()]);
+        callNodeArray = new BayesNode[callMethodArray.length];
+        trueOutcomes = new int[callMethodArray.length];
+        for (int i = 0; i < callMethodArray.length; i++) {
+            callNodeArray[i] = callNodes.get(callMethodArray[i]);
+            trueOutcomes[i] = callNodeArray[i].getOutcomeIndex(N_STATE_TRUE);
+        }
     }
 
     private Optional<IMethodName> computeMethodNameFromState(final BayesNode node) {
-        String stateId = junctionTree.getEvidence().get(node);
+        String stateId = inferrer.getEvidence().get(node);
         if (stateId == null) {
             return absent();
         }
@@ -196,7 +346,7 @@ public class JayesCallModel implements ICallModel {
     @Override
     public ImmutableSet<IMethodName> getObservedCalls() {
         Builder<IMethodName> builder = ImmutableSet.<IMethodName>builder();
-        Map<BayesNode, String> evidence = junctionTree.getEvidence();
+        Map<BayesNode, String> evidence = inferrer.getEvidence();
         for (Entry<IMethodName, BayesNode> pair : callNodes.entrySet()) {
             BayesNode node = pair.getValue();
             IMethodName method = pair.getKey();
@@ -222,7 +372,7 @@ public class JayesCallModel implements ICallModel {
 
     @Override
     public Optional<DefinitionKind> getObservedDefinitionKind() {
-        String stateId = junctionTree.getEvidence().get(defKindNode);
+        String stateId = inferrer.getEvidence().get(defKindNode);
         if (stateId == null) {
             return absent();
         }
@@ -235,10 +385,10 @@ public class JayesCallModel implements ICallModel {
         for (Entry<IMethodName, BayesNode> entry : callNodes.entrySet()) {
             IMethodName method = entry.getKey();
             BayesNode bayesNode = entry.getValue();
-            boolean isAlreadyUsedAsEvidence = junctionTree.getEvidence().containsKey(bayesNode);
+            boolean isAlreadyUsedAsEvidence = inferrer.getEvidence().containsKey(bayesNode);
             if (!isAlreadyUsedAsEvidence) {
                 int indexForTrue = bayesNode.getOutcomeIndex(N_STATE_TRUE);
-                double[] probabilities = junctionTree.getBeliefs(bayesNode);
+                double[] probabilities = inferrer.getBeliefs(bayesNode);
                 double probability = probabilities[indexForTrue];
                 recs.add(newRecommendation(method, probability));
             }
@@ -246,10 +396,39 @@ public class JayesCallModel implements ICallModel {
         return recs;
     }
 
+    /**
+     * Computes the probabilities of all calls in one query and keeps only the best {@code k} of them in a bounded
+     * heap, so recommendations are only created for calls that may be among the top {@code k}.
+     */
+    @Override
+    public List<Recommendation<IMethodName>> recommendCalls(int k, double minProbability) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        Map<BayesNode, String> evidence = inferrer.getEvidence();
+        double[] probabilities = inferrer.getBeliefs(callNodeArray, trueOutcomes);
+        PriorityQueue<Recommendation<IMethodName>> top = new PriorityQueue<Recommendation<IMethodName>>(k,
+                Recommendations.C_BY_RELEVANCE);
+        for (int i = 0; i < callNodeArray.length; i++) {
+            double probability = probabilities[i];
+            if (probability < minProbability || evidence.containsKey(callNodeArray[i])) {
+                continue;
+            }
+            if (top.size() == k && probability < top.peek().getRelevance()) {
+                continue;
+            }
+            top.add(newRecommendation(callMethodArray[i], probability));
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        return Recommendations.top(top, k);
+    }
+
     @Override
     public List<Recommendation<IMethodName>> recommendDefinitions() {
         List<Recommendation<IMethodName>> recs = Lists.newLinkedList();
-        double[] beliefs = junctionTree.getBeliefs(definedByNode);
+        double[] beliefs = inferrer.getBeliefs(definedByNode);
         for (int i = definedByNode.getOutcomeCount(); i-- > 0;) {
             if (beliefs[i] > 0.01d) {
                 String outcomeName = definedByNode.getOutcomeName(i);
@@ -270,7 +449,7 @@ public class JayesCallModel implements ICallModel {
     @Override
     public List<Recommendation<String>> recommendPatterns() {
         List<Recommendation<String>> recs = Lists.newLinkedList();
-        double[] probs = junctionTree.getBeliefs(callgroupNode);
+        double[] probs = inferrer.getBeliefs(callgroupNode);
         for (String outcome : callgroupNode.getOutcomes()) {
             int probIndex = callgroupNode.getOutcomeIndex(outcome);
             double p = probs[probIndex];
@@ -286,7 +465,7 @@ public class JayesCallModel implements ICallModel {
 
     @Override
     public void reset() {
-        junctionTree.getEvidence().clear();
+        inferrer.getEvidence().clear();
     }
 
     @Override
@@ -312,14 +491,14 @@ public class JayesCallModel implements ICallModel {
     @Override
     public boolean setObservedDefiningMethod(@Nullable final IMethodName newDefinition) {
         if (newDefinition == null) {
-            junctionTree.removeEvidence(definedByNode);
+            inferrer.removeEvidence(definedByNode);
             return true;
         }
         // else:
         String identifier = newDefinition.getIdentifier();
         boolean contains = definedByNode.getOutcomes().contains(identifier);
         if (contains) {
-            junctionTree.addEvidence(definedByNode, identifier);
+            inferrer.addEvidence(definedByNode, identifier);
         }
         return contains;
     }
@@ -327,14 +506,14 @@ public class JayesCallModel implements ICallModel {
     @Override
     public boolean setObservedOverrideContext(@Nullable final IMethodName newEnclosingMethod) {
         if (newEnclosingMethod == null) {
-            junctionTree.removeEvidence(overridesNode);
+            inferrer.removeEvidence(overridesNode);
             return true;
         }
         // else:
         String id = newEnclosingMethod.getIdentifier();
         boolean contains = overridesNode.getOutcomes().contains(id);
         if (contains) {
-            junctionTree.addEvidence(overridesNode, id);
+            inferrer.addEvidence(overridesNode, id);
         }
         return contains;
     }
@@ -342,14 +521,14 @@ public class JayesCallModel implements ICallModel {
     @Override
     public boolean setObservedDefinitionKind(@Nullable final DefinitionKind newDef) {
         if (newDef == null) {
-            junctionTree.removeEvidence(defKindNode);
+            inferrer.removeEvidence(defKindNode);
             return true;
         }
         // else:
         String identifier = newDef.toString();
         boolean contains = defKindNode.getOutcomes().contains(identifier);
         if (contains) {
-            junctionTree.addEvidence(defKindNode, identifier);
+            inferrer.addEvidence(defKindNode, identifier);
         }
         return contains;
     }
@@ -357,13 +536,13 @@ public class JayesCallModel implements ICallModel {
     @Override
     public boolean setObservedPattern(@Nullable final String patternName) {
         if (patternName == null) {
-            junctionTree.removeEvidence(callgroupNode);
+            inferrer.removeEvidence(callgroupNode);
             return true;
         }
         // else:
         boolean contains = callgroupNode.getOutcomes().contains(patternName);
         if (contains) {
-            junctionTree.addEvidence(callgroupNode, patternName);
+            inferrer.addEvidence(callgroupNode, patternName);
         }
         return contains;
     }
@@ -376,9 +555,9 @@ public class JayesCallModel implements ICallModel {
         }
 
         if (state == null) {
-            junctionTree.removeEvidence(node);
+            inferrer.removeEvidence(node);
         } else {
-            junctionTree.addEvidence(node, state);
+            inferrer.addEvidence(node, state);
         }
         return true;
     }
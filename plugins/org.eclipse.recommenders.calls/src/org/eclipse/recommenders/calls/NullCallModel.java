@@ -124,6 +124,11 @@ public final class NullCallModel implements ICallModel {
         return Collections.emptyList();
     }
 
+    @Override
+    public List<Recommendation<IMethodName>> recommendCalls(int k, double minProbability) {
+        return Collections.emptyList();
+    }
+
     @Override
     public ITypeName getReceiverType() {
         return Constants.NULL_TYPE;
@@ -10,12 +10,19 @@
  */
 package org.eclipse.recommenders.calls;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.eclipse.recommenders.utils.Constants.*;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import org.eclipse.recommenders.calls.JayesCallModel.SharedNetwork;
+import org.eclipse.recommenders.models.ICachedModelFormat;
 import org.eclipse.recommenders.models.IInputStreamTransformer;
 import org.eclipse.recommenders.models.IModelArchiveCoordinateAdvisor;
 import org.eclipse.recommenders.models.IModelRepository;
@@ -23,12 +30,25 @@ import org.eclipse.recommenders.models.PoolingModelProvider;
 import org.eclipse.recommenders.models.UniqueTypeName;
 import org.eclipse.recommenders.utils.Zips;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public class PoolingCallModelProvider extends PoolingModelProvider<UniqueTypeName, ICallModel> implements
         ICallModelProvider {
 
+    // pooled models of the same type share one network; only their inference state is per model
+    private final Cache<UniqueTypeName, SharedNetwork> sharedNets;
+
     public PoolingCallModelProvider(IModelRepository repo, IModelArchiveCoordinateAdvisor index,
             Map<String, IInputStreamTransformer> transformers) {
-        super(repo, index, CLASS_CALL_MODELS, transformers);
+        this(repo, index, transformers, CacheBuilder.newBuilder().maximumSize(30).expireAfterAccess(5, MINUTES)
+                .<UniqueTypeName, SharedNetwork>build());
+    }
+
+    private PoolingCallModelProvider(IModelRepository repo, IModelArchiveCoordinateAdvisor index,
+            Map<String, IInputStreamTransformer> transformers, Cache<UniqueTypeName, SharedNetwork> sharedNets) {
+        super(repo, index, CLASS_CALL_MODELS, transformers, new CachedCallModelFormat(sharedNets));
+        this.sharedNets = sharedNets;
     }
 
     @Override
@@ -37,12 +57,68 @@ public class PoolingCallModelProvider extends PoolingModelProvider<UniqueTypeNam
     }
 
     @Override
-    protected ICallModel loadModel(InputStream in, UniqueTypeName key) throws IOException {
-        return JayesCallModel.load(in, key.getName());
+    protected boolean isCheapToCreate() {
+        return true;
+    }
+
+    @Override
+    protected ICallModel loadModel(final InputStream in, final UniqueTypeName key) throws IOException {
+        try {
+            SharedNetwork sharedNet = sharedNets.get(key, new Callable<SharedNetwork>() {
+
+                @Override
+                public SharedNetwork call() throws IOException {
+                    return JayesCallModel.prepare(in, key.getName());
+                }
+            });
+            return new JayesCallModel(key.getName(), sharedNet);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        sharedNets.invalidateAll();
     }
 
     @Override
     protected String getBasePath(UniqueTypeName key) {
         return Zips.path(key.getName(), DOT_JBIF);
     }
+
+    /**
+     * Caches networks in the form {@link JayesCallModel#prepare(ByteBuffer)} reads fastest. Like networks read from the
+     * archive, they are shared by all pooled models of a type.
+     */
+    private static final class CachedCallModelFormat implements ICachedModelFormat<UniqueTypeName, ICallModel> {
+
+        private final Cache<UniqueTypeName, SharedNetwork> sharedNets;
+
+        private CachedCallModelFormat(Cache<UniqueTypeName, SharedNetwork> sharedNets) {
+            this.sharedNets = sharedNets;
+        }
+
+        @Override
+        public void write(InputStream in, UniqueTypeName key, OutputStream out) throws IOException {
+            JayesCallModel.writePrepared(in, out);
+        }
+
+        @Override
+        public ICallModel read(final ByteBuffer buffer, UniqueTypeName key) throws IOException {
+            try {
+                SharedNetwork sharedNet = sharedNets.get(key, new Callable<SharedNetwork>() {
+
+                    @Override
+                    public SharedNetwork call() throws IOException {
+                        return JayesCallModel.prepare(buffer);
+                    }
+                });
+                return new JayesCallModel(key.getName(), sharedNet);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+    }
 }
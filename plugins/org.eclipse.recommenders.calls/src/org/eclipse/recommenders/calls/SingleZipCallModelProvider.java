@@ -12,11 +12,12 @@ package org.eclipse.recommenders.calls;
 
 import static com.google.common.base.Optional.of;
 import static org.eclipse.recommenders.utils.Constants.*;
-import static org.eclipse.recommenders.utils.Zips.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -26,8 +27,11 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.eclipse.recommenders.models.IInputStreamTransformer;
+import org.eclipse.recommenders.models.PersistentModelCache;
+import org.eclipse.recommenders.models.SharedZipFiles;
 import org.eclipse.recommenders.models.UniqueTypeName;
 import org.eclipse.recommenders.utils.IOUtils;
+import org.eclipse.recommenders.utils.Nullable;
 import org.eclipse.recommenders.utils.Openable;
 import org.eclipse.recommenders.utils.Zips;
 import org.eclipse.recommenders.utils.names.ITypeName;
@@ -58,23 +62,38 @@ public class SingleZipCallModelProvider implements ICallModelProvider, Openable
             .expireAfterAccess(3, TimeUnit.MINUTES).maximumSize(CACHE_SIZE).build(new CallNetCacheLoader());
     private final File models;
     private final Map<String, IInputStreamTransformer> transformers;
+    @Nullable
+    private final PersistentModelCache persistentCache;
 
+    private SharedZipFiles.Handle handle;
     private ZipFile zip;
 
     public SingleZipCallModelProvider(File models, Map<String, IInputStreamTransformer> transformers) {
+        this(models, transformers, false);
+    }
+
+    /**
+     * @param persistentCache
+     *            whether to keep the models in a {@link PersistentModelCache} next to the zip file, so that they are
+     *            mapped instead of read (and, unless they are naive Bayes networks, compiled) again after they were
+     *            evicted or in later sessions
+     */
+    public SingleZipCallModelProvider(File models, Map<String, IInputStreamTransformer> transformers,
+            boolean persistentCache) {
         this.models = models;
         this.transformers = transformers;
+        this.persistentCache = persistentCache ? new PersistentModelCache(models) : null;
     }
 
     @Override
     public void open() throws IOException {
-        readFully(models);
-        zip = new ZipFile(models);
+        handle = SharedZipFiles.getInstance().acquire(models);
+        zip = handle.getZipFile();
     }
 
     @Override
     public void close() throws IOException {
-        closeQuietly(zip);
+        IOUtils.closeQuietly(handle);
     }
 
     @Override
@@ -110,11 +129,17 @@ public class SingleZipCallModelProvider implements ICallModelProvider, Openable
             InputStream in = null;
             try {
                 String path = Zips.path(type, DOT_JBIF);
+                if (persistentCache != null) {
+                    ICallModel cached = loadFromCache(path, type);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
                 in = getInputStream(zip, path).orNull();
                 ICallModel model = null;
 
                 if (in != null) {
-                    model = JayesCallModel.load(in, type);
+                    model = persistentCache != null ? loadAndCache(in, path, type) : JayesCallModel.load(in, type);
                 }
 
                 if (model == null) {
@@ -126,6 +151,31 @@ public class SingleZipCallModelProvider implements ICallModelProvider, Openable
             }
         }
 
+        private ICallModel loadFromCache(String path, ITypeName type) {
+            try {
+                ByteBuffer buffer = persistentCache.get(path).orNull();
+                return buffer == null ? null : new JayesCallModel(type, JayesCallModel.prepare(buffer));
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Discarding unreadable cached model " + path, e);
+                persistentCache.invalidate(path);
+                return null;
+            }
+        }
+
+        private ICallModel loadAndCache(InputStream in, String path, ITypeName type) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JayesCallModel.writePrepared(in, out);
+            byte[] content = out.toByteArray();
+            ByteBuffer buffer = null;
+            try {
+                persistentCache.put(path, content);
+                buffer = persistentCache.get(path).orNull();
+            } catch (IOException e) {
+                LOG.warn("Could not write cached model " + path, e);
+            }
+            return new JayesCallModel(type, JayesCallModel.prepare(buffer == null ? ByteBuffer.wrap(content) : buffer));
+        }
+
         private Optional<InputStream> getInputStream(ZipFile zip, String path) throws IOException {
             for (Entry<String, IInputStreamTransformer> transformer : transformers.entrySet()) {
                 ZipEntry toTransform = zip.getEntry(path + "." + transformer.getKey()); //$NON-NLS-1$
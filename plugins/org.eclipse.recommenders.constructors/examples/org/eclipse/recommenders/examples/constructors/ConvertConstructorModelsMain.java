@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.examples.constructors;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.eclipse.recommenders.constructors.ConstructorModelFormat;
+import org.eclipse.recommenders.utils.IOUtils;
+
+/**
+ * Converts a single {@code .json} constructor model or every {@code .json} entry of a model archive into the binary
+ * format of {@link ConstructorModelFormat}, keeping the entry names.
+ */
+public class ConvertConstructorModelsMain {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ConvertConstructorModelsMain <input .json or .zip> <output>");
+            System.exit(1);
+        }
+        File in = new File(args[0]);
+        File out = new File(args[1]);
+        if (in.getName().endsWith(".zip")) {
+            ConstructorModelFormat.convertArchive(in, out);
+        } else {
+            InputStream fileIn = new FileInputStream(in);
+            OutputStream fileOut = new FileOutputStream(out);
+            try {
+                ConstructorModelFormat.convert(fileIn, fileOut);
+            } finally {
+                IOUtils.closeQuietly(fileIn);
+                IOUtils.closeQuietly(fileOut);
+            }
+        }
+    }
+}
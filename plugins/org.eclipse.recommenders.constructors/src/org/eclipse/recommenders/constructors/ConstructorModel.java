@@ -10,50 +10,118 @@
  */
 package org.eclipse.recommenders.constructors;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.eclipse.recommenders.utils.names.IMethodName;
 import org.eclipse.recommenders.utils.names.ITypeName;
+import org.eclipse.recommenders.utils.names.VmMethodName;
 
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 import com.google.gson.annotations.SerializedName;
 
+/**
+ * The constructor call counts of one type. Counts are looked up by method identifier in a sorted table of primitive
+ * counts, so neither reading a model in the binary format (see {@link ConstructorModelFormat}) nor querying it creates
+ * method names.
+ */
 public final class ConstructorModel {
 
     @SerializedName("type")
     private ITypeName type;
 
+    // set when created from a map or read from JSON; created on demand for models read from the binary format
     @SerializedName("calls")
-    private Multiset<IMethodName> calls = HashMultiset.create();
+    private Multiset<IMethodName> calls;
+
+    private transient volatile CountTable table;
 
     public ConstructorModel() {
+        calls = HashMultiset.create();
     }
 
     public ConstructorModel(ITypeName type, Map<IMethodName, Integer> callFrequencies) {
         this.type = type;
+        this.calls = HashMultiset.create();
         for (Entry<IMethodName, Integer> entry : callFrequencies.entrySet()) {
             calls.add(entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * @param identifiers
+     *            the identifiers of the called constructors in ascending order, without duplicates
+     * @param counts
+     *            the positive call counts of the constructors, in the same order
+     */
+    ConstructorModel(ITypeName type, String[] identifiers, int[] counts) {
+        this.type = type;
+        this.table = new CountTable(identifiers, counts);
+    }
+
     public ITypeName getExpectedType() {
         return type;
     }
 
     public int getConstructorCallCount(IMethodName method) {
-        return calls.count(method);
+        CountTable table = getTable();
+        int index = Arrays.binarySearch(table.identifiers, method.getIdentifier());
+        return index < 0 ? 0 : table.counts[index];
     }
 
     public int getConstructorCallTotal() {
-        return calls.size();
+        return getTable().total;
     }
 
     public Set<IMethodName> getEntries() {
-        return calls.elementSet();
+        return getCalls().elementSet();
+    }
+
+    /**
+     * Returns the identifiers of the called constructors in ascending order; see {@link #getCounts()} for their counts.
+     */
+    String[] getIdentifiers() {
+        return getTable().identifiers;
+    }
+
+    int[] getCounts() {
+        return getTable().counts;
+    }
+
+    private CountTable getTable() {
+        CountTable result = table;
+        if (result == null) {
+            SortedMap<String, Integer> sorted = new TreeMap<>();
+            for (Multiset.Entry<IMethodName> entry : calls.entrySet()) {
+                sorted.put(entry.getElement().getIdentifier(), entry.getCount());
+            }
+            String[] identifiers = sorted.keySet().toArray(new String[sorted.size()]);
+            int[] counts = new int[identifiers.length];
+            for (int i = 0; i < identifiers.length; i++) {
+                counts[i] = sorted.get(identifiers[i]);
+            }
+            result = new CountTable(identifiers, counts);
+            table = result;
+        }
+        return result;
+    }
+
+    private synchronized Multiset<IMethodName> getCalls() {
+        if (calls == null) {
+            Multiset<IMethodName> result = HashMultiset.create();
+            CountTable table = getTable();
+            for (int i = 0; i < table.identifiers.length; i++) {
+                result.add(VmMethodName.get(table.identifiers[i]), table.counts[i]);
+            }
+            calls = result;
+        }
+        return calls;
     }
 
     @Override
@@ -68,11 +136,29 @@ public final class ConstructorModel {
             return false;
         }
         ConstructorModel that = (ConstructorModel) other;
-        return Objects.equals(this.type, that.type) && Objects.equals(this.calls, that.calls);
+        return Objects.equals(this.type, that.type) && Arrays.equals(this.getIdentifiers(), that.getIdentifiers())
+                && Arrays.equals(this.getCounts(), that.getCounts());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, calls);
+        return Objects.hash(type, Arrays.hashCode(getIdentifiers()), Arrays.hashCode(getCounts()));
+    }
+
+    private static final class CountTable {
+
+        private final String[] identifiers;
+        private final int[] counts;
+        private final int total;
+
+        private CountTable(String[] identifiers, int[] counts) {
+            this.identifiers = identifiers;
+            this.counts = counts;
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            this.total = total;
+        }
     }
 }
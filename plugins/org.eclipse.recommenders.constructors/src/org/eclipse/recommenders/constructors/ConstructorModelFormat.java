@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.constructors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.recommenders.utils.IOUtils;
+import org.eclipse.recommenders.utils.names.VmTypeName;
+
+import com.google.common.io.ByteStreams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads and writes constructor models in a compact binary format and converts models from JSON into it.
+ * <p>
+ * The format is columnar: after a header of magic number, version, number of constructors and call total follow the
+ * call counts as a column of {@code int}s and then the type and the constructor identifiers as a table of
+ * length-prefixed UTF-8 strings, in the ascending order {@link ConstructorModel} looks them up in. All numbers are big
+ * endian.
+ */
+public final class ConstructorModelFormat {
+
+    private static final int MAGIC_NUMBER = 0x43544F52; // "CTOR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private static final String JSON_EXTENSION = ".json";
+
+    private ConstructorModelFormat() {
+    }
+
+    /**
+     * @param in
+     *            a stream that {@link InputStream#markSupported() supports mark}. Its position is left unchanged.
+     * @return whether the stream starts with the header of the binary format
+     */
+    public static boolean isBinaryFormat(InputStream in) throws IOException {
+        in.mark(8);
+        try {
+            DataInputStream header = new DataInputStream(in);
+            return header.readInt() == MAGIC_NUMBER && header.readInt() == VERSION;
+        } catch (EOFException e) {
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Reads a model in either format.
+     */
+    public static ConstructorModel read(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        if (isBinaryFormat(buffered)) {
+            return read(ByteBuffer.wrap(ByteStreams.toByteArray(buffered)));
+        }
+        return readJson(buffered);
+    }
+
+    /**
+     * Reads a model in the binary format, e.g. from a memory-mapped file. The buffer's position is left unchanged.
+     */
+    public static ConstructorModel read(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.slice();
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC_NUMBER || in.getInt() != VERSION) {
+            throw new IOException("Not a constructor model in the binary format");
+        }
+        int size = in.getInt();
+        in.getInt(); // the total is recomputed from the counts
+        int[] counts = new int[size];
+        in.asIntBuffer().get(counts);
+        in.position(in.position() + 4 * size);
+        String type = readString(in);
+        String[] identifiers = new String[size];
+        for (int i = 0; i < size; i++) {
+            identifiers[i] = readString(in);
+        }
+        return new ConstructorModel(type.isEmpty() ? null : VmTypeName.get(type), identifiers, counts);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Reads a model from JSON without creating method names for the constructors.
+     */
+    public static ConstructorModel readJson(InputStream in) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, UTF_8));
+        String type = null;
+        SortedMap<String, Integer> calls = new TreeMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("type".equals(name) && reader.peek() == JsonToken.STRING) { //$NON-NLS-1$
+                type = reader.nextString();
+            } else if ("calls".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) { //$NON-NLS-1$
+                readCalls(reader, calls);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        String[] identifiers = new String[calls.size()];
+        int[] counts = new int[calls.size()];
+        int size = 0;
+        for (SortedMap.Entry<String, Integer> call : calls.entrySet()) {
+            if (call.getValue() > 0) {
+                identifiers[size] = call.getKey();
+                counts[size] = call.getValue();
+                size++;
+            }
+        }
+        return new ConstructorModel(type == null ? null : VmTypeName.get(type), Arrays.copyOf(identifiers, size),
+                Arrays.copyOf(counts, size));
+    }
+
+    private static void readCalls(JsonReader reader, SortedMap<String, Integer> calls) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String id = null;
+            int count = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("id".equals(name)) { //$NON-NLS-1$
+                    id = reader.nextString();
+                } else if ("count".equals(name)) { //$NON-NLS-1$
+                    count = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (id != null) {
+                Integer previous = calls.get(id);
+                calls.put(id, previous == null ? count : previous + count);
+            }
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Writes a model in the binary format. The stream is not closed.
+     */
+    public static void write(ConstructorModel model, OutputStream out) throws IOException {
+        String[] identifiers = model.getIdentifiers();
+        int[] counts = model.getCounts();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC_NUMBER);
+        data.writeInt(VERSION);
+        data.writeInt(identifiers.length);
+        data.writeInt(model.getConstructorCallTotal());
+        for (int count : counts) {
+            data.writeInt(count);
+        }
+        writeString(model.getExpectedType() == null ? "" : model.getExpectedType().getIdentifier(), data); //$NON-NLS-1$
+        for (String identifier : identifiers) {
+            writeString(identifier, data);
+        }
+        data.flush();
+    }
+
+    private static void writeString(String string, DataOutputStream out) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Identifier too long: " + string);
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a model in either format from {@code in} and writes it to {@code out} in the binary format. Neither stream
+     * is closed.
+     */
+    public static void convert(InputStream in, OutputStream out) throws IOException {
+        write(read(in), out);
+    }
+
+    /**
+     * Converts every {@code .json} entry of the given archive and copies all other entries unchanged.
+     */
+    public static void convertArchive(File in, File out) throws IOException {
+        ZipFile zip = new ZipFile(in);
+        ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(out));
+        try {
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+                ZipEntry entry = entries.nextElement();
+                zipOut.putNextEntry(new ZipEntry(entry.getName()));
+                InputStream entryIn = zip.getInputStream(entry);
+                try {
+                    if (entry.getName().endsWith(JSON_EXTENSION)) {
+                        convert(entryIn, zipOut);
+                    } else {
+                        ByteStreams.copy(entryIn, zipOut);
+                    }
+                } finally {
+                    IOUtils.closeQuietly(entryIn);
+                }
+                zipOut.closeEntry();
+            }
+        } finally {
+            IOUtils.closeQuietly(zipOut);
+            zip.close();
+        }
+    }
+}
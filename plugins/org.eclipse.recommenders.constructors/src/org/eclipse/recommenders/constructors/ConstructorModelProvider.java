@@ -14,31 +14,47 @@ import static org.eclipse.recommenders.utils.Constants.*;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
+import org.eclipse.recommenders.models.ICachedModelFormat;
 import org.eclipse.recommenders.models.IInputStreamTransformer;
 import org.eclipse.recommenders.models.IModelArchiveCoordinateAdvisor;
 import org.eclipse.recommenders.models.IModelRepository;
 import org.eclipse.recommenders.models.PoolingModelProvider;
 import org.eclipse.recommenders.models.UniqueTypeName;
 import org.eclipse.recommenders.utils.Zips;
-import org.eclipse.recommenders.utils.gson.GsonUtil;
 
 public class ConstructorModelProvider extends PoolingModelProvider<UniqueTypeName, ConstructorModel> implements
         IConstructorModelProvider {
 
     public ConstructorModelProvider(IModelRepository repository, IModelArchiveCoordinateAdvisor index,
             Map<String, IInputStreamTransformer> transformers) {
-        super(repository, index, CLASS_CTOR_MODEL, transformers);
+        super(repository, index, CLASS_CTOR_MODEL, transformers, new CachedConstructorModelFormat());
     }
 
     @Override
     protected ConstructorModel loadModel(InputStream in, UniqueTypeName key) throws IOException {
-        return GsonUtil.deserialize(in, ConstructorModel.class);
+        return ConstructorModelFormat.read(in);
     }
 
     @Override
     protected String getBasePath(UniqueTypeName key) {
         return Zips.path(key.getName(), DOT_JSON);
     }
+
+    private static final class CachedConstructorModelFormat implements
+            ICachedModelFormat<UniqueTypeName, ConstructorModel> {
+
+        @Override
+        public void write(InputStream in, UniqueTypeName key, OutputStream out) throws IOException {
+            ConstructorModelFormat.convert(in, out);
+        }
+
+        @Override
+        public ConstructorModel read(ByteBuffer buffer, UniqueTypeName key) throws IOException {
+            return ConstructorModelFormat.read(buffer);
+        }
+    }
 }
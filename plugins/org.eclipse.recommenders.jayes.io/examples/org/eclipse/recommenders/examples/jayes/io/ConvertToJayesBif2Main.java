@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.examples.jayes.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.recommenders.jayes.factor.FactorFactory;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeBuilder;
+import org.eclipse.recommenders.jayes.io.jbif.JayesBif2Converter;
+import org.eclipse.recommenders.jayes.util.triangulation.MinDegree;
+
+/**
+ * Converts a single {@code .jbif} file or every {@code .jbif} entry of a model archive into JBIF2, keeping the entry
+ * names. Networks are compiled with min-degree triangulation and the default factor factory, the same settings the
+ * call models compile with.
+ */
+public class ConvertToJayesBif2Main {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ConvertToJayesBif2Main <input .jbif or .zip> <output>");
+            System.exit(1);
+        }
+        File in = new File(args[0]);
+        File out = new File(args[1]);
+        JayesBif2Converter converter = new JayesBif2Converter(JunctionTreeBuilder.forHeuristic(new MinDegree()),
+                FactorFactory.defaultFactory());
+        if (in.getName().endsWith(".zip")) {
+            converter.convertArchive(in, out);
+        } else {
+            InputStream fileIn = new FileInputStream(in);
+            OutputStream fileOut = new FileOutputStream(out);
+            try {
+                converter.convert(fileIn, fileOut);
+            } finally {
+                IOUtils.closeQuietly(fileIn);
+                IOUtils.closeQuietly(fileOut);
+            }
+        }
+    }
+}
@@ -18,4 +18,8 @@ public final class Constants {
 
     public static final int MAGIC_NUMBER = 0xBA7E5B1F;
     public static final int FORMAT_VERSION = 1;
+    /**
+     * format version of JBIF2, which adds a compiled junction tree to the network
+     */
+    public static final int COMPILED_FORMAT_VERSION = 2;
 }
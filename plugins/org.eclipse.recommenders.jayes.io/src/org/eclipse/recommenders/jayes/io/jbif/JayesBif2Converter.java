@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.recommenders.jayes.io.jbif;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.factor.FactorFactory;
+import org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeBuilder;
+
+/**
+ * Converts networks in the Jayes Binary Interchange Format (JBIF) into JBIF2, which adds the compiled junction tree.
+ */
+public final class JayesBif2Converter {
+
+    private static final String JBIF_EXTENSION = ".jbif";
+
+    private final JunctionTreeBuilder junctionTreeBuilder;
+    private final FactorFactory factory;
+
+    /**
+     * @param junctionTreeBuilder
+     *            the triangulation to compile with
+     * @param factory
+     *            decides on the factor types and scale of the stored potentials
+     */
+    public JayesBif2Converter(JunctionTreeBuilder junctionTreeBuilder, FactorFactory factory) {
+        this.junctionTreeBuilder = junctionTreeBuilder;
+        this.factory = factory;
+    }
+
+    /**
+     * Reads a JBIF network from {@code in} and writes it to {@code out} as JBIF2. Networks already in JBIF2 are copied
+     * unchanged. Neither stream is closed.
+     */
+    public void convert(InputStream in, OutputStream out) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        if (JayesBif2Reader.isCompiledFormat(buffered)) {
+            IOUtils.copy(buffered, out);
+            return;
+        }
+        BayesNet net = new JayesBifReader(buffered).read();
+        CompiledJunctionTree compiled = CompiledJunctionTree.compile(net, junctionTreeBuilder, factory);
+        new JayesBif2Writer(out).write(compiled);
+    }
+
+    /**
+     * Converts every {@code .jbif} entry of the given archive and copies all other entries unchanged.
+     */
+    public void convertArchive(File in, File out) throws IOException {
+        ZipFile zip = new ZipFile(in);
+        ZipOutputStream zipOut = new ZipOutputStream(new FileOutputStream(out));
+        try {
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+                ZipEntry entry = entries.nextElement();
+                zipOut.putNextEntry(new ZipEntry(entry.getName()));
+                InputStream entryIn = zip.getInputStream(entry);
+                try {
+                    if (entry.getName().endsWith(JBIF_EXTENSION)) {
+                        convert(entryIn, zipOut);
+                    } else {
+                        IOUtils.copy(entryIn, zipOut);
+                    }
+                } finally {
+                    IOUtils.closeQuietly(entryIn);
+                }
+                zipOut.closeEntry();
+            }
+        } finally {
+            IOUtils.closeQuietly(zipOut);
+            zip.close();
+        }
+    }
+}
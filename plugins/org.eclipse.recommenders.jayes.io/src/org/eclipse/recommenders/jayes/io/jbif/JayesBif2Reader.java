@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.recommenders.jayes.io.jbif;
+
+import static org.eclipse.recommenders.jayes.io.jbif.Constants.*;
+import static org.eclipse.recommenders.jayes.io.jbif.JayesBif2Writer.*;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.factor.AbstractFactor;
+import org.eclipse.recommenders.jayes.factor.DenseFactor;
+import org.eclipse.recommenders.jayes.factor.IndexMap;
+import org.eclipse.recommenders.jayes.factor.SparseFactor;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.DoubleArrayWrapper;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.FloatArrayWrapper;
+import org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree;
+
+/**
+ * Reader for JBIF2, the Jayes Binary Interchange Format with a compiled junction tree, as written by
+ * {@link JayesBif2Writer}. Reading runs no graph algorithms and no propagation; the result is ready to answer queries
+ * through {@link CompiledJunctionTree#newInferrer()}.
+ * <p>
+ * Like {@link JayesBifReader}, a reader created for a {@link ByteBuffer} leaves the conditional probability tables of
+ * the network as views into the buffer. The potentials of the junction tree are always copied into arrays, as
+ * inference reads them often.
+ */
+public class JayesBif2Reader implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+
+    private InputStream in;
+    private ByteBuffer mapped;
+
+    public JayesBif2Reader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @param buffer
+     *            the JBIF2 data, from the buffer's current position on. It must not be modified while the network read
+     *            from it is in use.
+     */
+    public JayesBif2Reader(ByteBuffer buffer) {
+        mapped = buffer;
+    }
+
+    /**
+     * @return a reader for the memory-mapped content of the given file
+     */
+    public static JayesBif2Reader map(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping stays valid after the file is closed
+            return new JayesBif2Reader(raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * @param in
+     *            a stream that {@link InputStream#markSupported() supports mark}. Its position is left unchanged.
+     * @return whether the stream starts with a JBIF2 header, as opposed to a JBIF header or something else entirely
+     */
+    public static boolean isCompiledFormat(InputStream in) throws IOException {
+        in.mark(HEADER_BYTES);
+        try {
+            DataInputStream header = new DataInputStream(in);
+            return header.readInt() == MAGIC_NUMBER && header.readInt() == COMPILED_FORMAT_VERSION;
+        } catch (EOFException e) {
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * @return whether the buffer starts with a JBIF2 header at its current position, which is left unchanged
+     */
+    public static boolean isCompiledFormat(ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_BYTES && buffer.getInt(buffer.position()) == MAGIC_NUMBER
+                && buffer.getInt(buffer.position() + 4) == COMPILED_FORMAT_VERSION;
+    }
+
+    public CompiledJunctionTree read() throws IOException {
+        ByteBuffer buffer = mapped != null ? mapped.slice() : ByteBuffer.wrap(IOUtils.toByteArray(in));
+        try {
+            JayesBifReader.readHeader(buffer, COMPILED_FORMAT_VERSION);
+            BayesNet bayesNet = new JayesBifReader(buffer, mapped != null).readNetwork(buffer);
+            return readCompiledJunctionTree(bayesNet, buffer);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed data", e);
+        }
+    }
+
+    private CompiledJunctionTree readCompiledJunctionTree(BayesNet bayesNet, ByteBuffer buffer) throws IOException {
+        AbstractFactor[] clusters = new AbstractFactor[buffer.getInt()];
+        for (int i = 0; i < clusters.length; i++) {
+            clusters[i] = readFactor(buffer);
+        }
+
+        AbstractFactor[] sepSets = new AbstractFactor[buffer.getInt()];
+        int[] edgeSources = new int[2 * sepSets.length];
+        int[] edgeTargets = new int[2 * sepSets.length];
+        for (int sepSet = 0; sepSet < sepSets.length; sepSet++) {
+            int source = buffer.getInt();
+            int target = buffer.getInt();
+            edgeSources[2 * sepSet] = source;
+            edgeTargets[2 * sepSet] = target;
+            edgeSources[2 * sepSet + 1] = target;
+            edgeTargets[2 * sepSet + 1] = source;
+            sepSets[sepSet] = readFactor(buffer);
+        }
+
+        IndexMap[] indexMaps = new IndexMap[buffer.getInt()];
+        for (int i = 0; i < indexMaps.length; i++) {
+            indexMaps[i] = readIndexMap(buffer);
+        }
+
+        IndexMap[] preparedMultiplications = new IndexMap[edgeSources.length];
+        for (int edge = 0; edge < preparedMultiplications.length; edge++) {
+            preparedMultiplications[edge] = indexMaps[buffer.getInt()];
+        }
+        int nodeCount = bayesNet.getNodes().size();
+        int[] queryClusters = readInts(buffer, nodeCount);
+        IndexMap[] preparedQueries = new IndexMap[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            preparedQueries[node] = indexMaps[buffer.getInt()];
+        }
+
+        return CompiledJunctionTree.restore(bayesNet, clusters, sepSets, edgeSources, edgeTargets,
+                preparedMultiplications, queryClusters, preparedQueries);
+    }
+
+    private AbstractFactor readFactor(ByteBuffer buffer) throws IOException {
+        byte kind = buffer.get();
+        boolean isLogScale = buffer.get() != 0;
+        int dimensionCount = buffer.getInt();
+        int[] dimensionIds = readInts(buffer, dimensionCount);
+        int[] dimensions = readInts(buffer, dimensionCount);
+
+        AbstractFactor factor;
+        if (kind == SPARSE_FACTOR) {
+            SparseFactor sparse = new SparseFactor();
+            sparse.setDimensionIDs(dimensionIds);
+            sparse.setDimensions(dimensions);
+            int blockSize = buffer.getInt();
+            sparse.setBlockStructure(blockSize, readInts(buffer, buffer.getInt()));
+            factor = sparse;
+        } else if (kind == DENSE_FACTOR) {
+            factor = new DenseFactor();
+            factor.setDimensionIDs(dimensionIds);
+            factor.setDimensions(dimensions);
+        } else {
+            throw new IOException("Unknown factor kind: " + kind);
+        }
+        factor.setLogScale(isLogScale);
+
+        byte bytesPerValue = buffer.get();
+        int valueCount = buffer.getInt();
+        if (bytesPerValue == 4) {
+            float[] values = new float[valueCount];
+            buffer.asFloatBuffer().get(values);
+            buffer.position(buffer.position() + valueCount * 4);
+            factor.setValues(new FloatArrayWrapper(values));
+        } else if (bytesPerValue == 8) {
+            double[] values = new double[valueCount];
+            buffer.asDoubleBuffer().get(values);
+            buffer.position(buffer.position() + valueCount * 8);
+            factor.setValues(new DoubleArrayWrapper(values));
+        } else {
+            throw new IOException("Unsupported value size: " + bytesPerValue);
+        }
+        return factor;
+    }
+
+    private IndexMap readIndexMap(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        byte kind = buffer.get();
+        if (kind == RUN_ENCODED) {
+            int runCount = buffer.getInt();
+            int[] runStarts = new int[runCount];
+            int[] offsets = new int[runCount];
+            int[] strides = new int[runCount];
+            for (int run = 0; run < runCount; run++) {
+                runStarts[run] = buffer.getInt();
+                offsets[run] = buffer.getInt();
+                strides[run] = buffer.getInt();
+            }
+            return IndexMap.fromRuns(length, runStarts, offsets, strides);
+        } else if (kind == EXPLICIT) {
+            byte bytesPerPosition = buffer.get();
+            int[] positions = new int[length];
+            for (int i = 0; i < length; i++) {
+                if (bytesPerPosition == 1) {
+                    positions[i] = buffer.get() & 0xFF;
+                } else if (bytesPerPosition == 2) {
+                    positions[i] = buffer.getShort() & 0xFFFF;
+                } else {
+                    positions[i] = buffer.getInt();
+                }
+            }
+            return IndexMap.encode(positions);
+        } else {
+            throw new IOException("Unknown index map kind: " + kind);
+        }
+    }
+
+    private int[] readInts(ByteBuffer buffer, int count) {
+        int[] ints = new int[count];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + count * 4);
+        return ints;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+}
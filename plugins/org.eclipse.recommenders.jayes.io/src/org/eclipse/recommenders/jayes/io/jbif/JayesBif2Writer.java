@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.recommenders.jayes.io.jbif;
+
+import static org.eclipse.recommenders.jayes.io.jbif.Constants.*;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.factor.AbstractFactor;
+import org.eclipse.recommenders.jayes.factor.DenseFactor;
+import org.eclipse.recommenders.jayes.factor.IndexMap;
+import org.eclipse.recommenders.jayes.factor.SparseFactor;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.IArrayWrapper;
+import org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree;
+
+/**
+ * Writer for JBIF2, which extends the Jayes Binary Interchange Format by the {@link CompiledJunctionTree} of the
+ * network, so that readers can answer queries without triangulating and calibrating the network first.
+ *
+ * JBIF2 conforms to the following grammar, in addition to the one of {@link JayesBifWriter JBIF}:
+ *
+ * <dl>
+ * <dt><var>JBIF2</var></dt>
+ * <dd><var>Header</var> <var>BayesNet</var> <var>CompiledJunctionTree</var></dd>
+ * <dt><var>Header<var></dt>
+ * <dd>(magicNumber: 0xBA7E5B1F) (formatVersion: 2)</dd>
+ * <dt><var>CompiledJunctionTree</var></dt>
+ * <dd>(clusterCount: <code>int</code>) <var>Factor</var>* (sepSetCount: <code>int</code>) <var>SepSet</var>*
+ * (indexMapCount: <code>int</code>) <var>IndexMap</var>* (preparedMultiplications: <code>int</code>...)
+ * (queryClusters: <code>int</code>...) (preparedQueries: <code>int</code>...)</dd>
+ * <dt><var>SepSet</var></dt>
+ * <dd>(sourceCluster: <code>int</code>) (targetCluster: <code>int</code>) <var>Factor</var></dd>
+ * <dt><var>Factor</var></dt>
+ * <dd>(kind: <code>byte</code>, 0 = dense, 1 = sparse) (logScale: <code>byte</code>) (dimensionCount:
+ * <code>int</code>) (dimensionIds: <code>int</code>...) (dimensions: <code>int</code>...) <var>BlockStructure</var>?
+ * (bytesPerValue: <code>byte</code>, 4 or 8) (valueCount: <code>int</code>) (values: <code>float</code>... or
+ * <code>double</code>...)</dd>
+ * <dt><var>BlockStructure</var> (sparse factors only)</dt>
+ * <dd>(blockSize: <code>int</code>) (blockCount: <code>int</code>) (relativeBlockPointers: <code>int</code>...)</dd>
+ * <dt><var>IndexMap</var></dt>
+ * <dd>(length: <code>int</code>) (kind: <code>byte</code>, 0 = runs, 1 = explicit) (<var>Runs</var> |
+ * <var>Positions</var>)</dd>
+ * <dt><var>Runs</var></dt>
+ * <dd>(runCount: <code>int</code>) (runStart: <code>int</code>, offset: <code>int</code>, stride: <code>int</code>)...
+ * </dd>
+ * <dt><var>Positions</var></dt>
+ * <dd>(bytesPerPosition: <code>byte</code>, 1, 2 or 4) (positions: unsigned <code>byte</code>..., unsigned
+ * <code>short</code>... or <code>int</code>...)</dd>
+ * </dl>
+ *
+ * The index maps are stored once each; the prepared multiplications (one per directed edge, see
+ * {@link CompiledJunctionTree#getEdgeSources()}) and the prepared queries (one per node) refer to them by index. The
+ * directed edges {@code 2s} and {@code 2s + 1} are the two directions of sepset {@code s}.
+ *
+ * Multi-byte primitive types are serialized in network byte-order.
+ */
+public class JayesBif2Writer implements Closeable {
+
+    static final byte DENSE_FACTOR = 0;
+    static final byte SPARSE_FACTOR = 1;
+    static final byte RUN_ENCODED = 0;
+    static final byte EXPLICIT = 1;
+
+    private OutputStream out;
+
+    public JayesBif2Writer(OutputStream out) {
+        this.out = out;
+    }
+
+    public void write(CompiledJunctionTree compiled) throws IOException {
+        BayesNet bayesNet = compiled.getNetwork();
+        ByteBuffer buffer = ByteBuffer.allocate(JayesBifWriter.HEADER_BYTES
+                + JayesBifWriter.estimateNetworkSize(bayesNet));
+        JayesBifWriter.putHeader(buffer, COMPILED_FORMAT_VERSION);
+        JayesBifWriter.putBayesNet(bayesNet, buffer);
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(buffer.array(), 0, buffer.position());
+        putCompiledJunctionTree(compiled, data);
+        data.flush();
+    }
+
+    private void putCompiledJunctionTree(CompiledJunctionTree compiled, DataOutputStream data) throws IOException {
+        AbstractFactor[] clusters = compiled.getClusters();
+        data.writeInt(clusters.length);
+        for (AbstractFactor cluster : clusters) {
+            putFactor(cluster, data);
+        }
+
+        AbstractFactor[] sepSets = compiled.getSepSets();
+        int[] edgeSources = compiled.getEdgeSources();
+        int[] edgeTargets = compiled.getEdgeTargets();
+        data.writeInt(sepSets.length);
+        for (int sepSet = 0; sepSet < sepSets.length; sepSet++) {
+            data.writeInt(edgeSources[2 * sepSet]);
+            data.writeInt(edgeTargets[2 * sepSet]);
+            putFactor(sepSets[sepSet], data);
+        }
+
+        IndexMap[] preparedMultiplications = compiled.getPreparedMultiplications();
+        IndexMap[] preparedQueries = compiled.getPreparedQueries();
+        Map<IndexMap, Integer> indexMapIds = new IdentityHashMap<IndexMap, Integer>();
+        List<IndexMap> indexMaps = new ArrayList<IndexMap>();
+        collectIndexMaps(preparedMultiplications, indexMapIds, indexMaps);
+        collectIndexMaps(preparedQueries, indexMapIds, indexMaps);
+        data.writeInt(indexMaps.size());
+        for (IndexMap indexMap : indexMaps) {
+            putIndexMap(indexMap, data);
+        }
+
+        for (IndexMap preparedMultiplication : preparedMultiplications) {
+            data.writeInt(indexMapIds.get(preparedMultiplication));
+        }
+        for (int queryCluster : compiled.getQueryClusters()) {
+            data.writeInt(queryCluster);
+        }
+        for (IndexMap preparedQuery : preparedQueries) {
+            data.writeInt(indexMapIds.get(preparedQuery));
+        }
+    }
+
+    private void collectIndexMaps(IndexMap[] indexMaps, Map<IndexMap, Integer> ids, List<IndexMap> distinct) {
+        for (IndexMap indexMap : indexMaps) {
+            if (!ids.containsKey(indexMap)) {
+                ids.put(indexMap, distinct.size());
+                distinct.add(indexMap);
+            }
+        }
+    }
+
+    private void putFactor(AbstractFactor factor, DataOutputStream data) throws IOException {
+        if (factor instanceof SparseFactor) {
+            data.writeByte(SPARSE_FACTOR);
+        } else if (factor instanceof DenseFactor) {
+            data.writeByte(DENSE_FACTOR);
+        } else {
+            throw new IllegalArgumentException("Unsupported factor type: " + factor.getClass());
+        }
+        data.writeBoolean(factor.isLogScale());
+
+        data.writeInt(factor.getDimensions().length);
+        putInts(factor.getDimensionIDs(), data);
+        putInts(factor.getDimensions(), data);
+
+        if (factor instanceof SparseFactor) {
+            SparseFactor sparse = (SparseFactor) factor;
+            data.writeInt(sparse.getBlockSize());
+            int[] relativeBlockPointers = sparse.getRelativeBlockPointers();
+            data.writeInt(relativeBlockPointers.length);
+            putInts(relativeBlockPointers, data);
+        }
+
+        IArrayWrapper values = factor.getValues();
+        data.writeByte(values.sizeOfElement());
+        data.writeInt(values.length());
+        for (int i = 0; i < values.length(); i++) {
+            if (values.sizeOfElement() == 4) {
+                data.writeFloat(values.getFloat(i));
+            } else {
+                data.writeDouble(values.getDouble(i));
+            }
+        }
+    }
+
+    private void putIndexMap(IndexMap indexMap, DataOutputStream data) throws IOException {
+        data.writeInt(indexMap.length());
+        if (indexMap.isRunEncoded()) {
+            data.writeByte(RUN_ENCODED);
+            data.writeInt(indexMap.getRunCount());
+            for (int run = 0; run < indexMap.getRunCount(); run++) {
+                data.writeInt(indexMap.getRunStart(run));
+                data.writeInt(indexMap.getRunOffset(run));
+                data.writeInt(indexMap.getRunStride(run));
+            }
+        } else {
+            data.writeByte(EXPLICIT);
+            int[] positions = indexMap.toPositions();
+            int max = 0;
+            for (int position : positions) {
+                max = Math.max(max, position);
+            }
+            int bytesPerPosition = max < 1 << Byte.SIZE ? 1 : max < 1 << Short.SIZE ? 2 : 4;
+            data.writeByte(bytesPerPosition);
+            for (int position : positions) {
+                if (bytesPerPosition == 1) {
+                    data.writeByte(position);
+                } else if (bytesPerPosition == 2) {
+                    data.writeShort(position);
+                } else {
+                    data.writeInt(position);
+                }
+            }
+        }
+    }
+
+    private void putInts(int[] ints, DataOutputStream data) throws IOException {
+        for (int i : ints) {
+            data.writeInt(i);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -12,16 +12,22 @@ package org.eclipse.recommenders.jayes.io.jbif;
 
 import static org.eclipse.recommenders.jayes.io.jbif.Constants.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.eclipse.recommenders.jayes.BayesNet;
 import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.DirectDoubleArrayWrapper;
 import org.eclipse.recommenders.jayes.io.IBayesNetReader;
+import org.eclipse.recommenders.jayes.util.MathUtils;
 
 import com.google.common.base.Charsets;
 import com.google.common.primitives.Doubles;
@@ -29,22 +35,57 @@ import com.google.common.primitives.Ints;
 
 /**
  * Reader for the Jayes Binary Interchange Format (JBIF) written by {@link JayesBifWriter}.
+ * <p>
+ * A reader created for a {@link ByteBuffer}, e.g. a memory-mapped file, decodes the network in place. Its conditional
+ * probability tables are not copied, but remain read-only views into the buffer.
  */
 public class JayesBifReader implements IBayesNetReader {
 
     private InputStream in;
+    private ByteBuffer mapped;
+    private final boolean useViews;
 
     public JayesBifReader(InputStream str) {
         in = str;
+        useViews = false;
+    }
+
+    /**
+     * @param buffer
+     *            the JBIF data, from the buffer's current position on. It must not be modified while the network read
+     *            from it is in use.
+     */
+    public JayesBifReader(ByteBuffer buffer) {
+        this(buffer, true);
+    }
+
+    JayesBifReader(ByteBuffer buffer, boolean useViews) {
+        mapped = buffer;
+        this.useViews = useViews;
+    }
+
+    /**
+     * @return a reader for the memory-mapped content of the given file
+     */
+    public static JayesBifReader map(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping stays valid after the file is closed
+            return new JayesBifReader(raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length()));
+        } finally {
+            raf.close();
+        }
     }
 
     @Override
     public BayesNet read() throws IOException {
-        return read(IOUtils.toByteArray(in));
+        if (mapped != null) {
+            return read(mapped.slice());
+        }
+        return read(ByteBuffer.wrap(IOUtils.toByteArray(in)));
     }
 
-    private BayesNet read(byte[] array) throws IOException {
-        ByteBuffer buffer = ByteBuffer.wrap(array);
+    private BayesNet read(ByteBuffer buffer) throws IOException {
         try {
             return readBayesNet(buffer);
         } catch (RuntimeException e) {
@@ -53,9 +94,16 @@ public class JayesBifReader implements IBayesNetReader {
     }
 
     private BayesNet readBayesNet(ByteBuffer buffer) throws IOException {
-        BayesNet bayesNet = new BayesNet();
+        readHeader(buffer, FORMAT_VERSION);
 
-        readHeader(buffer);
+        return readNetwork(buffer);
+    }
+
+    /**
+     * reads a network without the header, leaving the buffer positioned behind it
+     */
+    BayesNet readNetwork(ByteBuffer buffer) throws IOException {
+        BayesNet bayesNet = new BayesNet();
 
         bayesNet.setName(readName(buffer));
 
@@ -72,14 +120,14 @@ public class JayesBifReader implements IBayesNetReader {
         return bayesNet;
     }
 
-    private void readHeader(ByteBuffer buffer) throws IOException {
+    static void readHeader(ByteBuffer buffer, int expectedFormatVersion) throws IOException {
         int magicNumber = buffer.getInt();
         if (magicNumber != MAGIC_NUMBER) {
             throw new IOException("Wrong magic number: " + Integer.toHexString(magicNumber).toUpperCase());
         }
 
         int formatVersion = buffer.getInt();
-        if (formatVersion != FORMAT_VERSION) {
+        if (formatVersion != expectedFormatVersion) {
             throw new IOException("Wrong JBIF format version: " + formatVersion);
         }
     }
@@ -107,7 +155,11 @@ public class JayesBifReader implements IBayesNetReader {
     private void readNodeDefinition(BayesNet bayesNet, BayesNode node, ByteBuffer buffer) throws IOException {
         node.setParents(readParents(bayesNet, buffer));
 
-        node.setProbabilities(readCpt(buffer));
+        if (useViews) {
+            readCptView(node, buffer);
+        } else {
+            node.setProbabilities(readCpt(buffer));
+        }
     }
 
     private List<BayesNode> readParents(BayesNet bayesNet, ByteBuffer buffer) throws IOException {
@@ -135,8 +187,23 @@ public class JayesBifReader implements IBayesNetReader {
         return probabilities;
     }
 
+    private void readCptView(BayesNode node, ByteBuffer buffer) throws IOException {
+        int entryCount = buffer.getInt();
+        if (entryCount != MathUtils.product(node.getFactor().getDimensions())) {
+            throw new IOException("Wrong number of probabilities for node " + node.getName() + ": " + entryCount);
+        }
+
+        ByteBuffer cpt = buffer.slice();
+        cpt.limit(entryCount * Doubles.BYTES);
+        DoubleBuffer view = cpt.asReadOnlyBuffer().order(buffer.order()).asDoubleBuffer();
+        node.getFactor().setValues(new DirectDoubleArrayWrapper(view));
+        buffer.position(buffer.position() + entryCount * Doubles.BYTES);
+    }
+
     @Override
     public void close() throws IOException {
-        in.close();
+        if (in != null) {
+            in.close();
+        }
     }
 }
@@ -58,7 +58,7 @@ import com.google.common.primitives.Shorts;
  */
 public class JayesBifWriter implements IBayesNetWriter {
 
-    private static final int HEADER_BYTES = 2 * Ints.BYTES;
+    static final int HEADER_BYTES = 2 * Ints.BYTES;
 
     private OutputStream out;
 
@@ -73,7 +73,7 @@ public class JayesBifWriter implements IBayesNetWriter {
 
     private byte[] writeToArray(BayesNet bayesNet) {
         ByteBuffer buffer = ByteBuffer.allocate(estimateBinarySize(bayesNet));
-        putHeader(buffer);
+        putHeader(buffer, FORMAT_VERSION);
         putBayesNet(bayesNet, buffer);
         byte[] out = new byte[buffer.position()];
         System.arraycopy(buffer.array(), 0, out, 0, buffer.position());
@@ -85,9 +85,14 @@ public class JayesBifWriter implements IBayesNetWriter {
      * guaranteed to never under-estimate.
      */
     private int estimateBinarySize(BayesNet bayesNet) {
-        int size = HEADER_BYTES;
+        return HEADER_BYTES + estimateNetworkSize(bayesNet);
+    }
 
-        size += estimateBinarySize(bayesNet.getName());
+    /**
+     * @see #estimateBinarySize(BayesNet)
+     */
+    static int estimateNetworkSize(BayesNet bayesNet) {
+        int size = estimateBinarySize(bayesNet.getName());
 
         size += Ints.BYTES;
         for (BayesNode node : bayesNet.getNodes()) {
@@ -96,11 +101,11 @@ public class JayesBifWriter implements IBayesNetWriter {
         return size;
     }
 
-    private int estimateBinarySize(String string) {
+    private static int estimateBinarySize(String string) {
         return Shorts.BYTES + string.length() * 4;
     }
 
-    private int estimateBinarySize(BayesNode node) {
+    private static int estimateBinarySize(BayesNode node) {
         int size = 0;
 
         size += estimateBinarySize(node.getName());
@@ -117,13 +122,13 @@ public class JayesBifWriter implements IBayesNetWriter {
         return size;
     }
 
-    private void putHeader(ByteBuffer buffer) {
+    static void putHeader(ByteBuffer buffer, int formatVersion) {
         buffer.putInt(MAGIC_NUMBER);
 
-        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(formatVersion);
     }
 
-    private void putBayesNet(BayesNet bayesNet, ByteBuffer buffer) {
+    static void putBayesNet(BayesNet bayesNet, ByteBuffer buffer) {
         putName(bayesNet.getName(), buffer);
 
         buffer.putInt(bayesNet.getNodes().size());
@@ -137,7 +142,7 @@ public class JayesBifWriter implements IBayesNetWriter {
         }
     }
 
-    private void putName(String string, ByteBuffer buffer) {
+    private static void putName(String string, ByteBuffer buffer) {
         final byte[] utf8 = string.getBytes(Charsets.UTF_8);
         Preconditions.checkArgument(utf8.length < 2 << Short.SIZE);
         final short byteCount = (short) utf8.length;
@@ -146,7 +151,7 @@ public class JayesBifWriter implements IBayesNetWriter {
         buffer.put(utf8);
     }
 
-    private void putNodeDeclaration(BayesNode node, ByteBuffer buffer) {
+    private static void putNodeDeclaration(BayesNode node, ByteBuffer buffer) {
         putName(node.getName(), buffer);
 
         buffer.putInt(node.getOutcomeCount());
@@ -156,13 +161,13 @@ public class JayesBifWriter implements IBayesNetWriter {
         }
     }
 
-    private void putNodeDefinition(BayesNode node, ByteBuffer buffer) {
+    private static void putNodeDefinition(BayesNode node, ByteBuffer buffer) {
         putParents(node, buffer);
 
         putCpt(node, buffer);
     }
 
-    private void putParents(BayesNode node, ByteBuffer buffer) {
+    private static void putParents(BayesNode node, ByteBuffer buffer) {
         final int parentCount = node.getParents().size();
         Preconditions.checkArgument(parentCount < 2 << Byte.SIZE);
         buffer.put((byte) parentCount);
@@ -172,7 +177,7 @@ public class JayesBifWriter implements IBayesNetWriter {
         }
     }
 
-    private void putCpt(BayesNode node, ByteBuffer buffer) {
+    private static void putCpt(BayesNode node, ByteBuffer buffer) {
         buffer.putInt(node.getProbabilities().length);
 
         DoubleBuffer asDoubleBuffer = buffer.asDoubleBuffer();
@@ -267,6 +267,106 @@ public abstract class AbstractFactor implements Cloneable {
         }
     }
 
+    /**
+     * like {@link #multiplyPrepared(IArrayWrapper, int[])}, but with the prepared operation encoded as an
+     * {@link IndexMap}
+     */
+    public void multiplyPrepared(IArrayWrapper compatibleValues, IndexMap positions) {
+        validateCut();
+        multiplyPrepared(cut, 0, compatibleValues, positions);
+    }
+
+    private void multiplyPrepared(Cut cut, int offset, IArrayWrapper compatibleValues, IndexMap positions) {
+        if (cut.getSubCut() == null) {
+            multiplyRange(cut.getStart() + offset, cut.getEnd() + offset, cut.getStepSize(), compatibleValues,
+                    positions);
+        } else {
+            Cut c = cut.getSubCut();
+            for (int i = 0; i < cut.getLength(); i += cut.getSubtreeStepsize()) {
+                multiplyPrepared(c, offset + i, compatibleValues, positions);
+            }
+        }
+    }
+
+    /**
+     * multiplies the values at the virtual positions {@code from, from + step, ...} below {@code to} with their
+     * counterparts in the compatible factor (adds them, for log-scale factors)
+     */
+    protected void multiplyRange(int from, int to, int step, IArrayWrapper compatibleValues, IndexMap positions) {
+        int run = 0;
+        for (int i = from; i < to; i += step) {
+            int j = getRealPosition(i);
+            run = positions.findRun(j, run);
+            if (!isLogScale) {
+                values.mulAssign(j, compatibleValues, positions.get(j, run));
+            } else {
+                values.addAssign(j, compatibleValues, positions.get(j, run));
+            }
+        }
+    }
+
+    /**
+     * like {@link #sumPrepared(IArrayWrapper, int[])}, but with the prepared operation encoded as an {@link IndexMap}
+     */
+    public void sumPrepared(IArrayWrapper compatibleFactorValues, IndexMap positions) {
+        validateCut();
+
+        compatibleFactorValues.fill(0);
+
+        if (!isLogScale) {
+            sumPrepared(cut, 0, compatibleFactorValues, positions);
+        } else {
+            double max = findMax(cut, 0, 0);
+            sumPreparedLog(cut, 0, compatibleFactorValues, positions, max);
+            for (int i = 0; i < compatibleFactorValues.length(); i++) {
+                compatibleFactorValues.set(i, Math.log(compatibleFactorValues.getDouble(i)) + max);
+            }
+        }
+    }
+
+    private void sumPrepared(Cut cut, int offset, IArrayWrapper compatibleFactorValues, IndexMap positions) {
+        if (cut.getSubCut() == null) {
+            sumRange(cut.getStart() + offset, cut.getEnd() + offset, cut.getStepSize(), compatibleFactorValues,
+                    positions);
+        } else {
+            Cut c = cut.getSubCut();
+            for (int i = 0; i < cut.getLength(); i += cut.getSubtreeStepsize()) {
+                sumPrepared(c, offset + i, compatibleFactorValues, positions);
+            }
+        }
+    }
+
+    private void sumPreparedLog(Cut cut, int offset, IArrayWrapper compatibleFactorValues, IndexMap positions,
+            double max) {
+        if (cut.getSubCut() == null) {
+            int run = 0;
+            int last = cut.getEnd() + offset;
+            for (int i = cut.getStart() + offset; i < last; i += cut.getStepSize()) {
+                int j = getRealPosition(i);
+                run = positions.findRun(j, run);
+                compatibleFactorValues.addAssign(positions.get(j, run), Math.exp(values.getDouble(j) - max));
+            }
+        } else {
+            Cut c = cut.getSubCut();
+            for (int i = 0; i < cut.getLength(); i += cut.getSubtreeStepsize()) {
+                sumPreparedLog(c, offset + i, compatibleFactorValues, positions, max);
+            }
+        }
+    }
+
+    /**
+     * adds the values at the virtual positions {@code from, from + step, ...} below {@code to} to their counterparts
+     * in the compatible factor
+     */
+    protected void sumRange(int from, int to, int step, IArrayWrapper compatibleFactorValues, IndexMap positions) {
+        int run = 0;
+        for (int i = from; i < to; i += step) {
+            int j = getRealPosition(i);
+            run = positions.findRun(j, run);
+            compatibleFactorValues.addAssign(positions.get(j, run), values, j);
+        }
+    }
+
     protected void validateCut() {
         if (!isCutValid) {
             cut.initialize();
@@ -276,6 +376,14 @@ public abstract class AbstractFactor implements Cloneable {
 
     @Override
     public AbstractFactor clone() {
+        return cloneWithValues(values.clone());
+    }
+
+    /**
+     * @return a copy of this factor that uses the given values instead of a copy of its own. They must have the same
+     *         length.
+     */
+    public AbstractFactor cloneWithValues(IArrayWrapper values) {
         AbstractFactor f = null;
         try {
             f = (AbstractFactor) super.clone();
@@ -283,7 +391,7 @@ public abstract class AbstractFactor implements Cloneable {
             // should not be possible to happen
             throw new RuntimeException(x);
         }
-        f.values = values.clone();
+        f.values = values;
         f.selections = selections.clone();
         f.cut = new Cut(f);
         f.isCutValid = false;
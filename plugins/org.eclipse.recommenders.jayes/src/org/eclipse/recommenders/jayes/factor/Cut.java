@@ -33,6 +33,8 @@ public class Cut implements Cloneable {
     // the subtree(s); only one because of the inherent regularities of the
     // decision tree
     private Cut subCut;
+    // kept across re-initializations, so that changing the selections does not allocate
+    private Cut spareSubCut;
 
     public Cut(AbstractFactor factor) {
         this.factor = factor;
@@ -58,12 +60,24 @@ public class Cut implements Cloneable {
     @Override
     public Cut clone() {
         try {
-            return (Cut) super.clone();
+            Cut clone = (Cut) super.clone();
+            clone.spareSubCut = null;
+            return clone;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError(e);
         }
     }
 
+    private void copyPositionTo(Cut other) {
+        other.start = start;
+        other.stepSize = stepSize;
+        other.length = length;
+        other.subtreeStepsize = subtreeStepsize;
+        other.rootDimension = rootDimension;
+        other.leafDimension = leafDimension;
+        other.subCut = null;
+    }
+
     private void rootCut() {
         while (rootDimension < leafDimension && this.factor.selections[rootDimension] != -1) {
             descendSelectedDimension();
@@ -98,8 +112,11 @@ public class Cut implements Cloneable {
 
     private void createSubcut() {
         if (needsSplit()) {
-            subCut = null; // avoid circularity in object graph
-            subCut = clone();
+            if (spareSubCut == null) {
+                spareSubCut = new Cut(factor);
+            }
+            copyPositionTo(spareSubCut);
+            subCut = spareSubCut;
             subCut.descendUnselectedDimension();
             subCut.length = subtreeStepsize;
             subCut.rootCut(); // no leaf cut
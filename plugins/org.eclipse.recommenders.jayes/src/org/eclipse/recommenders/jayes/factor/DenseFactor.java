@@ -7,6 +7,8 @@
 package org.eclipse.recommenders.jayes.factor;
 
 import org.eclipse.recommenders.internal.jayes.util.AddressCalc;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.DoubleArrayWrapper;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.FloatArrayWrapper;
 import org.eclipse.recommenders.jayes.factor.arraywrapper.IArrayWrapper;
 import org.eclipse.recommenders.jayes.util.MathUtils;
 
@@ -46,6 +48,38 @@ public class DenseFactor extends AbstractFactor {
         return positions;
     }
 
+    @Override
+    protected void multiplyRange(int from, int to, int step, IArrayWrapper compatibleValues, IndexMap positions) {
+        if (values instanceof DoubleArrayWrapper && compatibleValues instanceof DoubleArrayWrapper) {
+            if (isLogScale()) {
+                PreparedKernels.add(values.toDoubleArray(), from, to, step, compatibleValues.toDoubleArray(),
+                        positions);
+            } else {
+                PreparedKernels.multiply(values.toDoubleArray(), from, to, step, compatibleValues.toDoubleArray(),
+                        positions);
+            }
+        } else if (values instanceof FloatArrayWrapper && compatibleValues instanceof FloatArrayWrapper
+                && !isLogScale()) {
+            PreparedKernels.multiply(values.toFloatArray(), from, to, step, compatibleValues.toFloatArray(),
+                    positions);
+        } else {
+            super.multiplyRange(from, to, step, compatibleValues, positions);
+        }
+    }
+
+    @Override
+    protected void sumRange(int from, int to, int step, IArrayWrapper compatibleFactorValues, IndexMap positions) {
+        if (values instanceof DoubleArrayWrapper && compatibleFactorValues instanceof DoubleArrayWrapper) {
+            PreparedKernels.sum(values.toDoubleArray(), from, to, step, compatibleFactorValues.toDoubleArray(),
+                    positions);
+        } else if (values instanceof FloatArrayWrapper && compatibleFactorValues instanceof FloatArrayWrapper) {
+            PreparedKernels.sum(values.toFloatArray(), from, to, step, compatibleFactorValues.toFloatArray(),
+                    positions);
+        } else {
+            super.sumRange(from, to, step, compatibleFactorValues, positions);
+        }
+    }
+
     @Override
     public void copyValues(IArrayWrapper arrayWrapper) {
         validateCut();
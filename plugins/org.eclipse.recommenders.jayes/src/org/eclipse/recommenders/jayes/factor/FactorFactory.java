@@ -15,6 +15,8 @@ import java.util.List;
 
 import org.eclipse.recommenders.internal.jayes.util.ArrayUtils;
 import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.DirectDoubleArrayWrapper;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.DirectFloatArrayWrapper;
 import org.eclipse.recommenders.jayes.factor.arraywrapper.DoubleArrayWrapper;
 import org.eclipse.recommenders.jayes.factor.arraywrapper.FloatArrayWrapper;
 import org.eclipse.recommenders.jayes.factor.arraywrapper.IArrayWrapper;
@@ -24,6 +26,8 @@ public class FactorFactory {
 
     private BayesNet net;
     private boolean useLogScale = false;
+    private boolean useFloat = false;
+    private boolean useDirectMemory = false;
     private IArrayWrapper prototype = new DoubleArrayWrapper(0.0); // TODO is a length of 1 here still necessary?
 
     /**
@@ -34,14 +38,44 @@ public class FactorFactory {
      */
     public void setFloatingPointType(Class<?> contentType) {
         if (contentType == double.class || contentType == Double.class) {
-            prototype = new DoubleArrayWrapper(0.0);
+            useFloat = false;
         } else if (contentType == float.class || contentType == Float.class) {
-            prototype = new FloatArrayWrapper(0.0f);
+            useFloat = true;
         } else {
             throw new IllegalArgumentException("wrong type, expected double, Double, float or Float, but got: "
                     + contentType);
         }
+        prototype = createPrototype();
+    }
+
+    /**
+     * stores the values of created factors in direct buffers, outside of the Java heap. Inferrers keep their working
+     * copies of such factors on the heap, so this is mainly useful for potentials that are kept around for a long time,
+     * like the templates of a {@link org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree}.
+     */
+    public void setUseDirectMemory(boolean useDirectMemory) {
+        this.useDirectMemory = useDirectMemory;
+        prototype = createPrototype();
+    }
+
+    public boolean getUseDirectMemory() {
+        return useDirectMemory;
+    }
+
+    private IArrayWrapper createPrototype() {
+        if (useDirectMemory) {
+            return useFloat ? new DirectFloatArrayWrapper(0.0f) : new DirectDoubleArrayWrapper(0.0);
+        }
+        return useFloat ? new FloatArrayWrapper(0.0f) : new DoubleArrayWrapper(0.0);
+    }
 
+    /**
+     * @return a copy of the given values, stored the way this factory stores the values of the factors it creates
+     */
+    public IArrayWrapper copyValues(IArrayWrapper values) {
+        IArrayWrapper copy = prototype.clone();
+        copy.copy(values);
+        return copy;
     }
 
     public void setReferenceNetwork(BayesNet net) {
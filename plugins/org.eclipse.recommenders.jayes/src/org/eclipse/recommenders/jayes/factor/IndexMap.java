@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.factor;
+
+import java.util.Arrays;
+
+/**
+ * A prepared operation as computed by {@link AbstractFactor#prepareMultiplication(AbstractFactor)}, i.e. a mapping from
+ * the positions in a factor's value array to the positions in a compatible factor's value array.
+ * <p>
+ * Instead of one entry per position, the mapping is stored as runs of consecutive positions whose images form an
+ * arithmetic progression. As the images along the last dimension of a factor always do, a run covers at least a whole
+ * row of the factor, and typically many more. The kernels in {@link PreparedKernels} process one run at a time.
+ * <p>
+ * Where the runs are too short to pay off, the images are stored explicitly instead, in the narrowest of
+ * {@code byte[]}, {@code short[]} and {@code int[]} that can hold them.
+ */
+public final class IndexMap {
+
+    private static final int BYTE_RANGE = 1 << 8;
+    private static final int SHORT_RANGE = 1 << 16;
+
+    private final int length;
+    // run encoding, null if the images are stored explicitly
+    // run r maps the positions runStarts[r] (inclusive) to runStarts[r + 1] (exclusive); the last entry is length
+    final int[] runStarts;
+    // the image of the first position of a run
+    final int[] offsets;
+    // the difference between the images of two consecutive positions of a run
+    final int[] strides;
+
+    // explicit encoding, at most one of them is non-null; bytes and shorts hold unsigned values
+    private final byte[] bytes;
+    private final short[] shorts;
+    private final int[] ints;
+
+    private IndexMap(int length, int[] runStarts, int[] offsets, int[] strides) {
+        this.length = length;
+        this.runStarts = runStarts;
+        this.offsets = offsets;
+        this.strides = strides;
+        this.bytes = null;
+        this.shorts = null;
+        this.ints = null;
+    }
+
+    private IndexMap(int length, byte[] bytes, short[] shorts, int[] ints) {
+        this.length = length;
+        this.runStarts = null;
+        this.offsets = null;
+        this.strides = null;
+        this.bytes = bytes;
+        this.shorts = shorts;
+        this.ints = ints;
+    }
+
+    /**
+     * @return the smaller of the run encoding and the explicit encoding of the given positions
+     */
+    public static IndexMap encode(int[] positions) {
+        IndexMap runEncoded = encodeRuns(positions);
+        int max = 0;
+        for (int position : positions) {
+            max = Math.max(max, position);
+        }
+        int bytesPerPosition = max < BYTE_RANGE ? 1 : max < SHORT_RANGE ? 2 : 4;
+        int runBytes = 4 * (3 * runEncoded.getRunCount() + 1);
+        if (positions.length * bytesPerPosition >= runBytes) {
+            return runEncoded;
+        }
+        return encodeExplicitly(positions, bytesPerPosition);
+    }
+
+    private static IndexMap encodeExplicitly(int[] positions, int bytesPerPosition) {
+        switch (bytesPerPosition) {
+        case 1:
+            byte[] bytes = new byte[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                bytes[i] = (byte) positions[i];
+            }
+            return new IndexMap(positions.length, bytes, null, null);
+        case 2:
+            short[] shorts = new short[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                shorts[i] = (short) positions[i];
+            }
+            return new IndexMap(positions.length, null, shorts, null);
+        default:
+            return new IndexMap(positions.length, (byte[]) null, null, positions.clone());
+        }
+    }
+
+    /**
+     * @param runStarts
+     *            the first position of each run, starting with 0 and in ascending order
+     * @param offsets
+     *            the image of the first position of each run
+     * @param strides
+     *            the difference between the images of consecutive positions of each run
+     * @return the index map with the given runs, as described by {@link #getRunStart(int)},
+     *         {@link #getRunOffset(int)} and {@link #getRunStride(int)}
+     */
+    public static IndexMap fromRuns(int length, int[] runStarts, int[] offsets, int[] strides) {
+        if (runStarts.length != offsets.length || runStarts.length != strides.length) {
+            throw new IllegalArgumentException("run descriptions differ in length");
+        }
+        int[] starts = Arrays.copyOf(runStarts, runStarts.length + 1);
+        starts[runStarts.length] = length;
+        return new IndexMap(length, starts, offsets.clone(), strides.clone());
+    }
+
+    /**
+     * @return the run encoding of the given positions
+     */
+    public static IndexMap encodeRuns(int[] positions) {
+        int[] runStarts = new int[positions.length + 1];
+        int[] offsets = new int[positions.length];
+        int[] strides = new int[positions.length];
+        int runCount = 0;
+        int start = 0;
+        while (start < positions.length) {
+            int stride = start + 1 < positions.length ? positions[start + 1] - positions[start] : 0;
+            int end = start + 1;
+            while (end < positions.length && positions[end] - positions[end - 1] == stride) {
+                end++;
+            }
+            runStarts[runCount] = start;
+            offsets[runCount] = positions[start];
+            strides[runCount] = stride;
+            runCount++;
+            start = end;
+        }
+        runStarts[runCount] = positions.length;
+        return new IndexMap(positions.length, Arrays.copyOf(runStarts, runCount + 1), Arrays.copyOf(offsets,
+                runCount), Arrays.copyOf(strides, runCount));
+    }
+
+    /**
+     * @return the number of mapped positions
+     */
+    public int length() {
+        return length;
+    }
+
+    public boolean isRunEncoded() {
+        return runStarts != null;
+    }
+
+    /**
+     * @return the number of runs, or 0 if the images are stored explicitly
+     */
+    public int getRunCount() {
+        return isRunEncoded() ? offsets.length : 0;
+    }
+
+    public int getRunStart(int run) {
+        return runStarts[run];
+    }
+
+    public int getRunOffset(int run) {
+        return offsets[run];
+    }
+
+    public int getRunStride(int run) {
+        return strides[run];
+    }
+
+    public int get(int position) {
+        return get(position, findRun(position));
+    }
+
+    /**
+     * @return the image of the given position, which must lie within the given run
+     */
+    int get(int position, int run) {
+        if (!isRunEncoded()) {
+            return getExplicit(position);
+        }
+        return offsets[run] + (position - runStarts[run]) * strides[run];
+    }
+
+    /**
+     * @return the image of the given position, for explicitly stored images only
+     */
+    int getExplicit(int position) {
+        if (bytes != null) {
+            return bytes[position] & 0xFF;
+        }
+        if (shorts != null) {
+            return shorts[position] & 0xFFFF;
+        }
+        return ints[position];
+    }
+
+    /**
+     * @return the run containing the given position, or 0 if the images are stored explicitly
+     */
+    int findRun(int position) {
+        if (!isRunEncoded()) {
+            return 0;
+        }
+        int run = Arrays.binarySearch(runStarts, 0, offsets.length, position);
+        return run >= 0 ? run : -run - 2;
+    }
+
+    /**
+     * @param hint
+     *            a run near the position, e.g. the run of the position visited before
+     * @return the run containing the given position
+     */
+    int findRun(int position, int hint) {
+        if (!isRunEncoded()) {
+            return 0;
+        }
+        if (position >= runStarts[hint] && position < runStarts[hint + 1]) {
+            return hint;
+        }
+        if (hint + 2 < runStarts.length && position >= runStarts[hint + 1] && position < runStarts[hint + 2]) {
+            return hint + 1;
+        }
+        return findRun(position);
+    }
+
+    public int[] toPositions() {
+        int[] positions = new int[length];
+        if (!isRunEncoded()) {
+            for (int i = 0; i < length; i++) {
+                positions[i] = getExplicit(i);
+            }
+            return positions;
+        }
+        for (int run = 0; run < offsets.length; run++) {
+            for (int i = runStarts[run]; i < runStarts[run + 1]; i++) {
+                positions[i] = get(i, run);
+            }
+        }
+        return positions;
+    }
+}
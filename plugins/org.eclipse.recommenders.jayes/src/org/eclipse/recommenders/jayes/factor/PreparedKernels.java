@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.factor;
+
+/**
+ * Prepared operations on the raw value arrays of dense factors, for the positions {@code from, from + step, ...} below
+ * {@code to} of one leaf of a {@link Cut}.
+ * <p>
+ * The positions are processed one {@link IndexMap} run at a time. Within a run, the image is either constant or
+ * advances with a fixed stride, so that the common cases (stride 0 and stride 1 with step 1) become plain counted loops
+ * without indirection, which the JIT compiler can unroll and vectorize. Explicitly stored images are looked up one
+ * position at a time.
+ */
+final class PreparedKernels {
+
+    private PreparedKernels() {
+    }
+
+    static void multiply(double[] values, int from, int to, int step, double[] factors, IndexMap map) {
+        if (!map.isRunEncoded()) {
+            for (int i = from; i < to; i += step) {
+                values[i] *= factors[map.getExplicit(i)];
+            }
+            return;
+        }
+        int run = map.findRun(from);
+        int i = from;
+        while (i < to) {
+            final int runEnd = Math.min(map.runStarts[run + 1], to);
+            final int stride = map.strides[run];
+            int position = map.get(i, run);
+            if (stride == 0) {
+                final double factor = factors[position];
+                for (; i < runEnd; i += step) {
+                    values[i] *= factor;
+                }
+            } else if (stride == 1 && step == 1) {
+                final int shift = position - i;
+                for (; i < runEnd; i++) {
+                    values[i] *= factors[i + shift];
+                }
+            } else {
+                final int positionStep = stride * step;
+                for (; i < runEnd; i += step, position += positionStep) {
+                    values[i] *= factors[position];
+                }
+            }
+            if (i < to) {
+                run = map.findRun(i, run);
+            }
+        }
+    }
+
+    static void multiply(float[] values, int from, int to, int step, float[] factors, IndexMap map) {
+        if (!map.isRunEncoded()) {
+            for (int i = from; i < to; i += step) {
+                values[i] *= factors[map.getExplicit(i)];
+            }
+            return;
+        }
+        int run = map.findRun(from);
+        int i = from;
+        while (i < to) {
+            final int runEnd = Math.min(map.runStarts[run + 1], to);
+            final int stride = map.strides[run];
+            int position = map.get(i, run);
+            if (stride == 0) {
+                final float factor = factors[position];
+                for (; i < runEnd; i += step) {
+                    values[i] *= factor;
+                }
+            } else if (stride == 1 && step == 1) {
+                final int shift = position - i;
+                for (; i < runEnd; i++) {
+                    values[i] *= factors[i + shift];
+                }
+            } else {
+                final int positionStep = stride * step;
+                for (; i < runEnd; i += step, position += positionStep) {
+                    values[i] *= factors[position];
+                }
+            }
+            if (i < to) {
+                run = map.findRun(i, run);
+            }
+        }
+    }
+
+    /**
+     * multiplication of log-scale values
+     */
+    static void add(double[] values, int from, int to, int step, double[] summands, IndexMap map) {
+        if (!map.isRunEncoded()) {
+            for (int i = from; i < to; i += step) {
+                values[i] += summands[map.getExplicit(i)];
+            }
+            return;
+        }
+        int run = map.findRun(from);
+        int i = from;
+        while (i < to) {
+            final int runEnd = Math.min(map.runStarts[run + 1], to);
+            final int stride = map.strides[run];
+            int position = map.get(i, run);
+            if (stride == 0) {
+                final double summand = summands[position];
+                for (; i < runEnd; i += step) {
+                    values[i] += summand;
+                }
+            } else if (stride == 1 && step == 1) {
+                final int shift = position - i;
+                for (; i < runEnd; i++) {
+                    values[i] += summands[i + shift];
+                }
+            } else {
+                final int positionStep = stride * step;
+                for (; i < runEnd; i += step, position += positionStep) {
+                    values[i] += summands[position];
+                }
+            }
+            if (i < to) {
+                run = map.findRun(i, run);
+            }
+        }
+    }
+
+    static void sum(double[] values, int from, int to, int step, double[] sums, IndexMap map) {
+        if (!map.isRunEncoded()) {
+            for (int i = from; i < to; i += step) {
+                sums[map.getExplicit(i)] += values[i];
+            }
+            return;
+        }
+        int run = map.findRun(from);
+        int i = from;
+        while (i < to) {
+            final int runEnd = Math.min(map.runStarts[run + 1], to);
+            final int stride = map.strides[run];
+            int position = map.get(i, run);
+            if (stride == 0) {
+                double sum = 0;
+                for (; i < runEnd; i += step) {
+                    sum += values[i];
+                }
+                sums[position] += sum;
+            } else if (stride == 1 && step == 1) {
+                final int shift = position - i;
+                for (; i < runEnd; i++) {
+                    sums[i + shift] += values[i];
+                }
+            } else {
+                final int positionStep = stride * step;
+                for (; i < runEnd; i += step, position += positionStep) {
+                    sums[position] += values[i];
+                }
+            }
+            if (i < to) {
+                run = map.findRun(i, run);
+            }
+        }
+    }
+
+    static void sum(float[] values, int from, int to, int step, float[] sums, IndexMap map) {
+        if (!map.isRunEncoded()) {
+            for (int i = from; i < to; i += step) {
+                sums[map.getExplicit(i)] += values[i];
+            }
+            return;
+        }
+        int run = map.findRun(from);
+        int i = from;
+        while (i < to) {
+            final int runEnd = Math.min(map.runStarts[run + 1], to);
+            final int stride = map.strides[run];
+            int position = map.get(i, run);
+            if (stride == 0) {
+                float sum = 0;
+                for (; i < runEnd; i += step) {
+                    sum += values[i];
+                }
+                sums[position] += sum;
+            } else if (stride == 1 && step == 1) {
+                final int shift = position - i;
+                for (; i < runEnd; i++) {
+                    sums[i + shift] += values[i];
+                }
+            } else {
+                final int positionStep = stride * step;
+                for (; i < runEnd; i += step, position += positionStep) {
+                    sums[position] += values[i];
+                }
+            }
+            if (i < to) {
+                run = map.findRun(i, run);
+            }
+        }
+    }
+}
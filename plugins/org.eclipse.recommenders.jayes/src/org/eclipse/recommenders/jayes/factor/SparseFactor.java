@@ -127,6 +127,25 @@ public class SparseFactor extends AbstractFactor implements Cloneable {
         createSparseValueArray();
     }
 
+    /**
+     * Restores the block structure that {@link #sparsify(AbstractFactor...)} computed for a factor with the same
+     * dimensions, e.g. when reading a serialized factor. The same rules as for {@link #sparsify(AbstractFactor...)}
+     * apply, but the value array is not created; set it with {@link #setValues(IArrayWrapper)}.
+     */
+    public void setBlockStructure(int blockSize, int[] relativeBlockPointers) {
+        this.blockSize = blockSize;
+        this.relativeBlockPointers = relativeBlockPointers.clone();
+        divCache = new DivisionCache(blockSize);
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int[] getRelativeBlockPointers() {
+        return relativeBlockPointers.clone();
+    }
+
     private void initializeBlockPointers(AbstractFactor... compatible) {
         int length = computeDenseLength();
         relativeBlockPointers = new int[(int) Math.ceil((double) length / blockSize)];
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.factor.arraywrapper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.recommenders.internal.jayes.util.ArrayUtils;
+
+/**
+ * Stores doubles in a direct {@link DoubleBuffer}, outside of the Java heap.
+ */
+public class DirectDoubleArrayWrapper implements IDirectArrayWrapper {
+
+    private DoubleBuffer buffer;
+
+    public DirectDoubleArrayWrapper(double... array) {
+        setArray(array);
+    }
+
+    /**
+     * Wraps the remaining content of the given buffer without copying it, e.g. a view of a memory-mapped file. If the
+     * buffer is read-only, so is the wrapper.
+     */
+    public DirectDoubleArrayWrapper(DoubleBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    private static DoubleBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * 8).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    @Override
+    public void setArray(double... array) {
+        buffer = allocate(array.length);
+        buffer.duplicate().put(array);
+    }
+
+    @Override
+    public void setArray(float... array) {
+        setArray(ArrayUtils.toDoubleArray(array));
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+        double[] array = new double[length()];
+        buffer.duplicate().get(array);
+        return array;
+    }
+
+    @Override
+    public float[] toFloatArray() {
+        return ArrayUtils.toFloatArray(toDoubleArray());
+    }
+
+    @Override
+    public void set(int index, double d) {
+        buffer.put(index, d);
+    }
+
+    @Override
+    public void set(int index, float d) {
+        buffer.put(index, d);
+    }
+
+    @Override
+    public void mulAssign(int index, double d) {
+        buffer.put(index, buffer.get(index) * d);
+    }
+
+    @Override
+    public void mulAssign(int index, float d) {
+        buffer.put(index, buffer.get(index) * d);
+    }
+
+    @Override
+    public void mulAssign(int index, IArrayWrapper arg, int argIndex) {
+        buffer.put(index, buffer.get(index) * arg.getDouble(argIndex));
+    }
+
+    @Override
+    public void addAssign(int index, double d) {
+        buffer.put(index, buffer.get(index) + d);
+    }
+
+    @Override
+    public void addAssign(int index, float d) {
+        buffer.put(index, buffer.get(index) + d);
+    }
+
+    @Override
+    public void addAssign(int index, IArrayWrapper arg, int argIndex) {
+        buffer.put(index, buffer.get(index) + arg.getDouble(argIndex));
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return buffer.get(index);
+    }
+
+    @Override
+    public float getFloat(int index) {
+        return (float) buffer.get(index);
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public void copy(double... array) {
+        setArray(array);
+    }
+
+    @Override
+    public void copy(float... array) {
+        setArray(array);
+    }
+
+    @Override
+    public void copy(IArrayWrapper array) {
+        if (array instanceof DirectDoubleArrayWrapper) {
+            buffer = copyOf(((DirectDoubleArrayWrapper) array).buffer);
+        } else {
+            setArray(array.toDoubleArray());
+        }
+    }
+
+    private static DoubleBuffer copyOf(DoubleBuffer buffer) {
+        DoubleBuffer copy = allocate(buffer.limit());
+        copy.duplicate().put(buffer.duplicate());
+        return copy;
+    }
+
+    @Override
+    public void fill(double d) {
+        for (int i = 0; i < length(); i++) {
+            buffer.put(i, d);
+        }
+    }
+
+    @Override
+    public void fill(float d) {
+        fill((double) d);
+    }
+
+    @Override
+    public void arrayCopy(IArrayWrapper src, int srcOffset, int destOffset, int length) {
+        if (src instanceof DoubleArrayWrapper) {
+            DoubleBuffer dest = buffer.duplicate();
+            dest.position(destOffset);
+            dest.put(src.toDoubleArray(), srcOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer.put(destOffset + i, src.getDouble(srcOffset + i));
+            }
+        }
+    }
+
+    @Override
+    public void newArray(int capacity) {
+        buffer = allocate(capacity);
+    }
+
+    @Override
+    public DirectDoubleArrayWrapper clone() {
+        DirectDoubleArrayWrapper clone;
+        try {
+            clone = (DirectDoubleArrayWrapper) super.clone();
+            clone.buffer = copyOf(buffer);
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    public DoubleArrayWrapper copyToHeap() {
+        return new DoubleArrayWrapper(toDoubleArray());
+    }
+
+    @Override
+    public void copyTo(int srcOffset, double[] dest, int destOffset, int length) {
+        DoubleBuffer src = buffer.duplicate();
+        src.position(srcOffset);
+        src.get(dest, destOffset, length);
+    }
+
+    @Override
+    public void copyTo(int srcOffset, float[] dest, int destOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[destOffset + i] = (float) buffer.get(srcOffset + i);
+        }
+    }
+
+    @Override
+    public int sizeOfElement() {
+        return 8;
+    }
+
+    @Override
+    public Iterator<Number> iterator() {
+        return new Iterator<Number>() {
+
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < length();
+            }
+
+            @Override
+            public Number next() {
+                if (index >= length()) {
+                    throw new NoSuchElementException();
+                }
+
+                return buffer.get(index++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
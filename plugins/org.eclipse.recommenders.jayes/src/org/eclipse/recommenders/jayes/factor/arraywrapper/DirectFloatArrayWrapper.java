@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.factor.arraywrapper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.eclipse.recommenders.internal.jayes.util.ArrayUtils;
+
+/**
+ * Stores floats in a direct {@link FloatBuffer}, outside of the Java heap.
+ */
+public class DirectFloatArrayWrapper implements IDirectArrayWrapper {
+
+    private FloatBuffer buffer;
+
+    public DirectFloatArrayWrapper(float... array) {
+        setArray(array);
+    }
+
+    /**
+     * Wraps the remaining content of the given buffer without copying it, e.g. a view of a memory-mapped file. If the
+     * buffer is read-only, so is the wrapper.
+     */
+    public DirectFloatArrayWrapper(FloatBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    private static FloatBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    @Override
+    public void setArray(double... array) {
+        setArray(ArrayUtils.toFloatArray(array));
+    }
+
+    @Override
+    public void setArray(float... array) {
+        buffer = allocate(array.length);
+        buffer.duplicate().put(array);
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+        return ArrayUtils.toDoubleArray(toFloatArray());
+    }
+
+    @Override
+    public float[] toFloatArray() {
+        float[] array = new float[length()];
+        buffer.duplicate().get(array);
+        return array;
+    }
+
+    @Override
+    public void set(int index, double d) {
+        buffer.put(index, (float) d);
+    }
+
+    @Override
+    public void set(int index, float d) {
+        buffer.put(index, d);
+    }
+
+    @Override
+    public void mulAssign(int index, double d) {
+        buffer.put(index, buffer.get(index) * (float) d);
+    }
+
+    @Override
+    public void mulAssign(int index, float d) {
+        buffer.put(index, buffer.get(index) * d);
+    }
+
+    @Override
+    public void mulAssign(int index, IArrayWrapper arg, int argIndex) {
+        buffer.put(index, buffer.get(index) * arg.getFloat(argIndex));
+    }
+
+    @Override
+    public void addAssign(int index, double d) {
+        buffer.put(index, buffer.get(index) + (float) d);
+    }
+
+    @Override
+    public void addAssign(int index, float d) {
+        buffer.put(index, buffer.get(index) + d);
+    }
+
+    @Override
+    public void addAssign(int index, IArrayWrapper arg, int argIndex) {
+        buffer.put(index, buffer.get(index) + arg.getFloat(argIndex));
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return buffer.get(index);
+    }
+
+    @Override
+    public float getFloat(int index) {
+        return buffer.get(index);
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public void copy(double... array) {
+        setArray(array);
+    }
+
+    @Override
+    public void copy(float... array) {
+        setArray(array);
+    }
+
+    @Override
+    public void copy(IArrayWrapper array) {
+        if (array instanceof DirectFloatArrayWrapper) {
+            buffer = copyOf(((DirectFloatArrayWrapper) array).buffer);
+        } else {
+            setArray(array.toFloatArray());
+        }
+    }
+
+    private static FloatBuffer copyOf(FloatBuffer buffer) {
+        FloatBuffer copy = allocate(buffer.limit());
+        copy.duplicate().put(buffer.duplicate());
+        return copy;
+    }
+
+    @Override
+    public void fill(double d) {
+        fill((float) d);
+    }
+
+    @Override
+    public void fill(float d) {
+        for (int i = 0; i < length(); i++) {
+            buffer.put(i, d);
+        }
+    }
+
+    @Override
+    public void arrayCopy(IArrayWrapper src, int srcOffset, int destOffset, int length) {
+        if (src instanceof FloatArrayWrapper) {
+            FloatBuffer dest = buffer.duplicate();
+            dest.position(destOffset);
+            dest.put(src.toFloatArray(), srcOffset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer.put(destOffset + i, src.getFloat(srcOffset + i));
+            }
+        }
+    }
+
+    @Override
+    public void newArray(int capacity) {
+        buffer = allocate(capacity);
+    }
+
+    @Override
+    public DirectFloatArrayWrapper clone() {
+        DirectFloatArrayWrapper clone;
+        try {
+            clone = (DirectFloatArrayWrapper) super.clone();
+            clone.buffer = copyOf(buffer);
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    public FloatArrayWrapper copyToHeap() {
+        return new FloatArrayWrapper(toFloatArray());
+    }
+
+    @Override
+    public void copyTo(int srcOffset, double[] dest, int destOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[destOffset + i] = buffer.get(srcOffset + i);
+        }
+    }
+
+    @Override
+    public void copyTo(int srcOffset, float[] dest, int destOffset, int length) {
+        FloatBuffer src = buffer.duplicate();
+        src.position(srcOffset);
+        src.get(dest, destOffset, length);
+    }
+
+    @Override
+    public int sizeOfElement() {
+        return 4;
+    }
+
+    @Override
+    public Iterator<Number> iterator() {
+        return new Iterator<Number>() {
+
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < length();
+            }
+
+            @Override
+            public Number next() {
+                if (index >= length()) {
+                    throw new NoSuchElementException();
+                }
+
+                return buffer.get(index++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -126,7 +126,11 @@ public class FloatArrayWrapper implements IArrayWrapper {
 
     @Override
     public void arrayCopy(IArrayWrapper src, int srcOffset, int destOffset, int length) {
-        System.arraycopy(src.toFloatArray(), srcOffset, array, destOffset, length);
+        if (src instanceof IDirectArrayWrapper) {
+            ((IDirectArrayWrapper) src).copyTo(srcOffset, array, destOffset, length);
+        } else {
+            System.arraycopy(src.toFloatArray(), srcOffset, array, destOffset, length);
+        }
     }
 
     @Override
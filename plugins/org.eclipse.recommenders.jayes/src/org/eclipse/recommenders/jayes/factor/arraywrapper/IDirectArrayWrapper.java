@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.factor.arraywrapper;
+
+/**
+ * An array wrapper whose values live outside of the Java heap, e.g. in a direct or memory-mapped buffer.
+ * <p>
+ * {@link #toDoubleArray()} and {@link #toFloatArray()} return copies of the values for such wrappers, so changing the
+ * returned array does not change the wrapper.
+ */
+public interface IDirectArrayWrapper extends IArrayWrapper {
+
+    /**
+     * @return an on-heap array wrapper of the same floating point type with a copy of the values
+     */
+    IArrayWrapper copyToHeap();
+
+    void copyTo(int srcOffset, double[] dest, int destOffset, int length);
+
+    void copyTo(int srcOffset, float[] dest, int destOffset, int length);
+}
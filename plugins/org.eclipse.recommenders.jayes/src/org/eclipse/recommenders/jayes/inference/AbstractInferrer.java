@@ -55,6 +55,20 @@ public abstract class AbstractInferrer implements IBayesInferer {
         return beliefs[node.getId()];
     }
 
+    /**
+     * Computes the belief in one outcome for each of the given nodes, e.g. in outcome "true" of many binary nodes.
+     * Inferrers may override this to answer all nodes in one pass.
+     *
+     * @return the beliefs {@code getBeliefs(nodes[i])[outcomes[i]]}
+     */
+    public double[] getBeliefs(final BayesNode[] nodes, final int[] outcomes) {
+        final double[] result = new double[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            result[i] = getBeliefs(nodes[i])[outcomes[i]];
+        }
+        return result;
+    }
+
     @Override
     public void setNetwork(final BayesNet bayesNet) {
         beliefs = new double[bayesNet.getNodes().size()][];
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.inference;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm;
+
+/**
+ * Answers the same queries for many evidence sets against one compiled network.
+ * <p>
+ * The batch is processed in lexicographic order of the (sorted) observations, so that consecutive evidence sets tend
+ * to extend each other; the incremental updates of {@link JunctionTreeAlgorithm} then only need to propagate the
+ * additional observations. With a {@link ForkJoinPool}, contiguous parts of that order are processed in parallel, each
+ * by its own inferrer on the shared compiled network.
+ */
+public class BatchInferrer {
+
+    private static final int MIN_CHUNK_SIZE = 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final CompiledJunctionTree compiledNet;
+    private ForkJoinPool pool;
+
+    public BatchInferrer(CompiledJunctionTree compiledNet) {
+        this.compiledNet = compiledNet;
+    }
+
+    /**
+     * @param pool
+     *            the pool to process the batch in, or null to process it in the calling thread (the default)
+     */
+    public void setForkJoinPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return the beliefs, indexed by evidence set, then by query node, then by outcome index
+     */
+    public double[][][] getBeliefs(List<Map<BayesNode, String>> evidence, List<BayesNode> queryNodes) {
+        final BayesNode[] queries = queryNodes.toArray(new BayesNode[queryNodes.size()]);
+        final double[][][] beliefs = new double[evidence.size()][][];
+        final Integer[] order = orderBySharedPrefixes(evidence);
+        final Chunk batch = new Chunk(evidence, queries, order, beliefs, 0, order.length, chunkSize(order.length));
+        if (pool == null) {
+            batch.compute();
+        } else {
+            pool.invoke(batch);
+        }
+        return beliefs;
+    }
+
+    private int chunkSize(int batchSize) {
+        if (pool == null) {
+            return batchSize;
+        }
+        return Math.max(MIN_CHUNK_SIZE, batchSize / (pool.getParallelism() * CHUNKS_PER_THREAD));
+    }
+
+    private static Integer[] orderBySharedPrefixes(List<Map<BayesNode, String>> evidence) {
+        final int[][] keys = new int[evidence.size()][];
+        final Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = toSortedObservations(evidence.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return compareLexicographically(keys[o1], keys[o2]);
+            }
+        });
+        return order;
+    }
+
+    /**
+     * @return node id and outcome index of every observation, ordered by node id
+     */
+    private static int[] toSortedObservations(Map<BayesNode, String> evidence) {
+        final long[] observations = new long[evidence.size()];
+        int i = 0;
+        for (Entry<BayesNode, String> e : evidence.entrySet()) {
+            observations[i++] = (long) e.getKey().getId() << 32 | e.getKey().getOutcomeIndex(e.getValue());
+        }
+        Arrays.sort(observations);
+        final int[] result = new int[2 * observations.length];
+        for (i = 0; i < observations.length; i++) {
+            result[2 * i] = (int) (observations[i] >>> 32);
+            result[2 * i + 1] = (int) observations[i];
+        }
+        return result;
+    }
+
+    private static int compareLexicographically(int[] a, int[] b) {
+        final int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Map<BayesNode, String>> evidence;
+        private final BayesNode[] queries;
+        private final Integer[] order;
+        private final double[][][] beliefs;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        Chunk(List<Map<BayesNode, String>> evidence, BayesNode[] queries, Integer[] order, double[][][] beliefs,
+                int from, int to, int chunkSize) {
+            this.evidence = evidence;
+            this.queries = queries;
+            this.order = order;
+            this.beliefs = beliefs;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                infer();
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(evidence, queries, order, beliefs, from, middle, chunkSize), new Chunk(evidence,
+                        queries, order, beliefs, middle, to, chunkSize));
+            }
+        }
+
+        private void infer() {
+            final JunctionTreeAlgorithm inferrer = compiledNet.newInferrer();
+            inferrer.setUseIncrementalUpdates(true);
+            for (int i = from; i < to; i++) {
+                final int index = order[i];
+                inferrer.setEvidence(new HashMap<BayesNode, String>(evidence.get(index)));
+                beliefs[index] = new double[queries.length][];
+                for (int q = 0; q < queries.length; q++) {
+                    beliefs[index][q] = inferrer.getBeliefs(queries[q]).clone();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.inference;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.util.MathUtils;
+import org.eclipse.recommenders.jayes.util.NumericalInstabilityException;
+
+/**
+ * Exact inference for naive Bayes networks, i.e. networks with one root whose children are conditionally independent
+ * given the root, see {@link #isNaiveBayes(BayesNet)}.
+ * <p>
+ * The posterior of the root is the product of its prior and the likelihoods of the observed children; the belief of an
+ * unobserved child is its conditional probability table weighted by that posterior. Both are computed directly on the
+ * probability tables of the network, so neither a junction tree nor working copies of potentials are needed. Beliefs
+ * of children are only computed when they are asked for.
+ * <p>
+ * Use {@link org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm} for all other networks.
+ */
+public class NaiveBayesInferrer extends AbstractInferrer {
+
+    // rescale the posterior before products of small likelihoods underflow
+    private static final double RESCALING_THRESHOLD = 1e-150;
+
+    private int root;
+    // indexed by variable; the tables of the children are in root-major order
+    private double[][] probabilities;
+    private int[] outcomeCounts;
+    private boolean[] isBeliefValid;
+
+    private double[] posterior;
+
+    /**
+     * @return whether the network has exactly one node without parents and all other nodes have only this node as
+     *         their parent
+     */
+    public static boolean isNaiveBayes(BayesNet net) {
+        BayesNode root = findRoot(net.getNodes());
+        if (root == null) {
+            return false;
+        }
+        for (BayesNode node : net.getNodes()) {
+            if (node != root && (node.getParents().size() != 1 || node.getParents().get(0) != root)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BayesNode findRoot(List<BayesNode> nodes) {
+        BayesNode root = null;
+        for (BayesNode node : nodes) {
+            if (node.getParents().isEmpty()) {
+                if (root != null) {
+                    return null;
+                }
+                root = node;
+            }
+        }
+        return root;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the network is not a naive Bayes network
+     */
+    @Override
+    public void setNetwork(BayesNet net) {
+        if (!isNaiveBayes(net)) {
+            throw new IllegalArgumentException("not a naive Bayes network: " + net.getName());
+        }
+        super.setNetwork(net);
+        List<BayesNode> nodes = net.getNodes();
+        root = findRoot(nodes).getId();
+        probabilities = new double[nodes.size()][];
+        outcomeCounts = new int[nodes.size()];
+        for (BayesNode node : nodes) {
+            probabilities[node.getId()] = node.getProbabilities();
+            outcomeCounts[node.getId()] = node.getOutcomeCount();
+        }
+        isBeliefValid = new boolean[nodes.size()];
+        posterior = new double[outcomeCounts[root]];
+        beliefsValid = false;
+    }
+
+    @Override
+    public double[] getBeliefs(BayesNode node) {
+        if (!beliefsValid) {
+            beliefsValid = true;
+            updateBeliefs();
+        }
+        final int nodeId = node.getId();
+        if (!isBeliefValid[nodeId]) {
+            isBeliefValid[nodeId] = true;
+            validateBelief(node);
+        }
+        return beliefs[nodeId];
+    }
+
+    /**
+     * Computes the beliefs of all given children in one pass over the posterior of the root, without computing their
+     * full belief vectors.
+     */
+    @Override
+    public double[] getBeliefs(final BayesNode[] nodes, final int[] outcomes) {
+        if (!beliefsValid) {
+            beliefsValid = true;
+            updateBeliefs();
+        }
+        final double[] result = new double[nodes.length];
+        // normalization constants; the rows of the tables should sum up to one, but are not required to
+        final double[] totals = new double[nodes.length];
+        final int[] rowStarts = new int[nodes.length];
+        for (int i = 0; i < posterior.length; i++) {
+            final double weight = posterior[i];
+            for (int j = 0; j < nodes.length; j++) {
+                final int nodeId = nodes[j].getId();
+                final int outcomeCount = outcomeCounts[nodeId];
+                final int rowStart = rowStarts[j];
+                rowStarts[j] += outcomeCount;
+                if (weight == 0 || nodeId == root) {
+                    continue;
+                }
+                final double[] table = probabilities[nodeId];
+                double rowSum = 0;
+                for (int k = rowStart; k < rowStart + outcomeCount; k++) {
+                    rowSum += table[k];
+                }
+                result[j] += weight * table[rowStart + outcomes[j]];
+                totals[j] += weight * rowSum;
+            }
+        }
+        for (int j = 0; j < nodes.length; j++) {
+            final BayesNode node = nodes[j];
+            if (evidence.containsKey(node)) {
+                result[j] = node.getOutcomeIndex(evidence.get(node)) == outcomes[j] ? 1 : 0;
+            } else if (node.getId() == root) {
+                result[j] = posterior[outcomes[j]];
+            } else if (totals[j] == 0) {
+                throw new NumericalInstabilityException("Numerical instability detected for evidence: " + evidence
+                        + " and node : " + node.getId());
+            } else {
+                result[j] /= totals[j];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void updateBeliefs() {
+        Arrays.fill(isBeliefValid, false);
+        System.arraycopy(probabilities[root], 0, posterior, 0, posterior.length);
+        for (Entry<BayesNode, String> e : evidence.entrySet()) {
+            final int nodeId = e.getKey().getId();
+            final int outcome = e.getKey().getOutcomeIndex(e.getValue());
+            if (nodeId == root) {
+                selectRootOutcome(outcome);
+            } else {
+                multiplyLikelihood(nodeId, outcome);
+            }
+        }
+        normalize(posterior, root);
+    }
+
+    private void selectRootOutcome(final int outcome) {
+        for (int i = 0; i < posterior.length; i++) {
+            if (i != outcome) {
+                posterior[i] = 0;
+            }
+        }
+    }
+
+    private void multiplyLikelihood(final int nodeId, final int outcome) {
+        final double[] table = probabilities[nodeId];
+        final int outcomeCount = outcomeCounts[nodeId];
+        double max = 0;
+        for (int i = 0, pos = outcome; i < posterior.length; i++, pos += outcomeCount) {
+            posterior[i] *= table[pos];
+            max = Math.max(max, posterior[i]);
+        }
+        if (max > 0 && max < RESCALING_THRESHOLD) {
+            for (int i = 0; i < posterior.length; i++) {
+                posterior[i] /= max;
+            }
+        }
+    }
+
+    private void validateBelief(final BayesNode node) {
+        final int nodeId = node.getId();
+        final double[] belief = beliefs[nodeId];
+        if (evidence.containsKey(node)) {
+            Arrays.fill(belief, 0);
+            belief[node.getOutcomeIndex(evidence.get(node))] = 1;
+        } else if (nodeId == root) {
+            System.arraycopy(posterior, 0, belief, 0, belief.length);
+        } else {
+            final double[] table = probabilities[nodeId];
+            Arrays.fill(belief, 0);
+            for (int i = 0, pos = 0; i < posterior.length; i++) {
+                final double weight = posterior[i];
+                if (weight == 0) {
+                    pos += belief.length;
+                    continue;
+                }
+                for (int j = 0; j < belief.length; j++, pos++) {
+                    belief[j] += weight * table[pos];
+                }
+            }
+            normalize(belief, nodeId);
+        }
+    }
+
+    private void normalize(final double[] vector, final int nodeId) {
+        try {
+            MathUtils.normalize(vector);
+        } catch (final IllegalArgumentException exception) {
+            throw new NumericalInstabilityException("Numerical instability detected for evidence: " + evidence
+                    + " and node : " + nodeId, exception);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.inference.jtree;
+
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.factor.AbstractFactor;
+import org.eclipse.recommenders.jayes.factor.FactorFactory;
+import org.eclipse.recommenders.jayes.factor.IndexMap;
+import org.eclipse.recommenders.jayes.util.Graph;
+
+/**
+ * The evidence-independent part of the junction tree algorithm for one network: the junction tree, its sepset layout,
+ * the prepared multiplications and the calibrated potentials without evidence.
+ * <p>
+ * A compiled junction tree is never modified after {@link #compile(BayesNet, JunctionTreeBuilder, FactorFactory)} and
+ * can therefore be shared by any number of threads. Queries are answered by {@link JunctionTreeAlgorithm} instances,
+ * each of which holds the mutable state of one query (evidence, working copies of the potentials, beliefs) and must
+ * be confined to one thread at a time.
+ */
+public final class CompiledJunctionTree {
+
+    final BayesNet network;
+    final Graph junctionTree;
+
+    // potentials of the calibrated junction tree without evidence; templates for the working copies of inferrers
+    final AbstractFactor[] clusters;
+    final AbstractFactor[] sepSets;
+
+    // indexed by directed edge, see JunctionTreeAlgorithm
+    final int[] edgeSources;
+    final int[] edgeTargets;
+    final IndexMap[] preparedMultiplications;
+    final int[][] outgoingEdges;
+
+    // indexed by variable
+    final int[][] concernedClusters;
+    final int[] queryClusters;
+    final IndexMap[] preparedQueries;
+    // indexed by cluster
+    final int[][] queryFactorReverseMapping;
+
+    CompiledJunctionTree(BayesNet network, Graph junctionTree, AbstractFactor[] clusters, AbstractFactor[] sepSets,
+            int[] edgeSources, int[] edgeTargets, IndexMap[] preparedMultiplications, int[][] outgoingEdges,
+            int[][] concernedClusters, int[] queryClusters, IndexMap[] preparedQueries,
+            int[][] queryFactorReverseMapping) {
+        this.network = network;
+        this.junctionTree = junctionTree;
+        this.clusters = clusters;
+        this.sepSets = sepSets;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.preparedMultiplications = preparedMultiplications;
+        this.outgoingEdges = outgoingEdges;
+        this.concernedClusters = concernedClusters;
+        this.queryClusters = queryClusters;
+        this.preparedQueries = preparedQueries;
+        this.queryFactorReverseMapping = queryFactorReverseMapping;
+    }
+
+    /**
+     * @param factory
+     *            decides on the factor types and scale of the potentials. It is used during compilation only, so it
+     *            does not need to be the factory of the inferrers working on the compiled junction tree.
+     */
+    public static CompiledJunctionTree compile(BayesNet net, JunctionTreeBuilder junctionTreeBuilder,
+            FactorFactory factory) {
+        return new JunctionTreeCompiler(junctionTreeBuilder, factory).compile(net);
+    }
+
+    /**
+     * Reassembles a compiled junction tree from the parts exposed by its getters, e.g. when reading it from a file.
+     * Only the cheap bookkeeping is recomputed; no graph algorithms are run and the potentials are used as they are.
+     *
+     * @param clusters
+     *            the calibrated cluster potentials without evidence
+     * @param sepSets
+     *            the calibrated sepset potentials without evidence
+     * @param edgeSources
+     *            the source clusters of the directed edges; sepset {@code s} connects the ends of the edges
+     *            {@code 2s} and {@code 2s + 1}, which point in opposite directions
+     */
+    public static CompiledJunctionTree restore(BayesNet net, AbstractFactor[] clusters, AbstractFactor[] sepSets,
+            int[] edgeSources, int[] edgeTargets, IndexMap[] preparedMultiplications, int[] queryClusters,
+            IndexMap[] preparedQueries) {
+        if (edgeSources.length != 2 * sepSets.length || edgeTargets.length != edgeSources.length
+                || preparedMultiplications.length != edgeSources.length) {
+            throw new IllegalArgumentException("edges do not match the sepsets");
+        }
+        if (queryClusters.length != net.getNodes().size() || preparedQueries.length != queryClusters.length) {
+            throw new IllegalArgumentException("queries do not match the network");
+        }
+        Graph junctionTree = new Graph(clusters.length);
+        for (int edge = 0; edge < edgeSources.length; edge += 2) {
+            junctionTree.addEdge(edgeSources[edge], edgeTargets[edge]);
+        }
+        return new CompiledJunctionTree(net, junctionTree, clusters.clone(), sepSets.clone(), edgeSources.clone(),
+                edgeTargets.clone(), preparedMultiplications.clone(),
+                JunctionTreeCompiler.computeOutgoingEdges(junctionTree, edgeSources, edgeTargets),
+                JunctionTreeCompiler.determineConcernedClusters(clusters, queryClusters.length), queryClusters.clone(),
+                preparedQueries.clone(), JunctionTreeCompiler.computeQueryFactorReverseMapping(clusters, queryClusters));
+    }
+
+    /**
+     * @return a copy with the given potentials as the initial potentials of inferrers
+     */
+    CompiledJunctionTree withPotentials(AbstractFactor[] clusters, AbstractFactor[] sepSets) {
+        return new CompiledJunctionTree(network, junctionTree, clusters, sepSets, edgeSources, edgeTargets,
+                preparedMultiplications, outgoingEdges, concernedClusters, queryClusters, preparedQueries,
+                queryFactorReverseMapping);
+    }
+
+    public BayesNet getNetwork() {
+        return network;
+    }
+
+    public Graph getJunctionTree() {
+        return junctionTree;
+    }
+
+    /**
+     * @return the calibrated cluster potentials without evidence. They are shared with all inferrers and must not be
+     *         modified.
+     */
+    public AbstractFactor[] getClusters() {
+        return clusters.clone();
+    }
+
+    /**
+     * @return the calibrated sepset potentials without evidence. They are shared with all inferrers and must not be
+     *         modified.
+     */
+    public AbstractFactor[] getSepSets() {
+        return sepSets.clone();
+    }
+
+    public int[] getEdgeSources() {
+        return edgeSources.clone();
+    }
+
+    public int[] getEdgeTargets() {
+        return edgeTargets.clone();
+    }
+
+    /**
+     * @return for every directed edge, the mapping from the positions of the target cluster's potential to the
+     *         positions of the sepset's potential
+     */
+    public IndexMap[] getPreparedMultiplications() {
+        return preparedMultiplications.clone();
+    }
+
+    /**
+     * @return for every variable, the cluster used to answer queries for it
+     */
+    public int[] getQueryClusters() {
+        return queryClusters.clone();
+    }
+
+    /**
+     * @return for every variable, the mapping from the positions of its query cluster's potential to its outcomes
+     */
+    public IndexMap[] getPreparedQueries() {
+        return preparedQueries.clone();
+    }
+
+    /**
+     * @return a new inferrer for the network, sharing this compiled junction tree
+     */
+    public JunctionTreeAlgorithm newInferrer() {
+        JunctionTreeAlgorithm inferrer = new JunctionTreeAlgorithm();
+        inferrer.setCompiledJunctionTree(this);
+        return inferrer;
+    }
+}
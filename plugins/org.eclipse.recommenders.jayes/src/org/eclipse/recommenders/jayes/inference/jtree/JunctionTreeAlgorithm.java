@@ -6,60 +6,102 @@
  */
 package org.eclipse.recommenders.jayes.inference.jtree;
 
-import static org.eclipse.recommenders.jayes.util.Pair.newPair;
-
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import org.eclipse.recommenders.internal.jayes.util.ArrayUtils;
 import org.eclipse.recommenders.jayes.BayesNet;
 import org.eclipse.recommenders.jayes.BayesNode;
 import org.eclipse.recommenders.jayes.factor.AbstractFactor;
+import org.eclipse.recommenders.jayes.factor.IndexMap;
 import org.eclipse.recommenders.jayes.factor.arraywrapper.DoubleArrayWrapper;
 import org.eclipse.recommenders.jayes.factor.arraywrapper.IArrayWrapper;
+import org.eclipse.recommenders.jayes.factor.arraywrapper.IDirectArrayWrapper;
 import org.eclipse.recommenders.jayes.inference.AbstractInferer;
 import org.eclipse.recommenders.jayes.util.Graph;
 import org.eclipse.recommenders.jayes.util.MathUtils;
 import org.eclipse.recommenders.jayes.util.NumericalInstabilityException;
-import org.eclipse.recommenders.jayes.util.OrderIgnoringPair;
-import org.eclipse.recommenders.jayes.util.Pair;
-import org.eclipse.recommenders.jayes.util.sharing.CanonicalArrayWrapperManager;
-import org.eclipse.recommenders.jayes.util.sharing.CanonicalIntArrayManager;
 import org.eclipse.recommenders.jayes.util.triangulation.MinFillIn;
 
+/**
+ * Exact inference using the junction tree algorithm.
+ * <p>
+ * After {@link #setNetwork(BayesNet)}, the junction tree is held in a compiled form: sepsets are numbered edges, every
+ * sepset {@code s} yields the two directed edges {@code 2s} and {@code 2s + 1}, and all per-edge data (end points,
+ * prepared multiplications) lives in arrays indexed by directed edge. A belief update therefore neither performs map
+ * lookups nor allocates.
+ * <p>
+ * The compiled form is a {@link CompiledJunctionTree}, which is immutable. An instance of this class only holds the
+ * state of one query: evidence, working copies of the potentials and beliefs. Several inferrers, e.g. one per thread,
+ * can thus share one compiled network via {@link #setCompiledJunctionTree(CompiledJunctionTree)}; each inferrer
+ * itself is not thread-safe.
+ * <p>
+ * Which messages need to be passed only depends on which variables are observed, not on their outcomes. The message
+ * pass schedule for an evidence signature (the set of observed variables) is therefore computed once and cached, so
+ * that repeated queries with the same observed variables reduce to one loop over the scheduled edges.
+ * <p>
+ * With {@link #setUseIncrementalUpdates(boolean) incremental updates}, the junction tree is kept calibrated after every
+ * belief update. Observing one more variable then only requires distributing evidence from a cluster containing that
+ * variable, instead of replaying the initial potentials and propagating through the whole tree.
+ */
 @SuppressWarnings("deprecation")
 public class JunctionTreeAlgorithm extends AbstractInferer {
 
-    private static final double ONE = 1.0;
-    private static final double ONE_LOG = 0.0;
+    private static final int NO_EDGE = -1;
+    private static final int UNOBSERVED = -1;
+    private static final int EVIDENCE_CHANGED = -1;
+    private static final int MAX_CACHED_SCHEDULES = 64;
 
-    protected Map<OrderIgnoringPair<Integer>, AbstractFactor> sepSets;
+    protected CompiledJunctionTree compiledJunctionTree;
     protected Graph junctionTree;
+
+    // working copies of the potentials, indexed by cluster (nodePotentials) or by sepset (sepSets)
     protected AbstractFactor[] nodePotentials;
-    protected Map<Pair<Integer, Integer>, int[]> preparedMultiplications;
+    protected AbstractFactor[] sepSets;
+    // shared with the compiled junction tree, indexed by directed edge
+    protected int[] edgeSources;
+    protected int[] edgeTargets;
+    // the prepared multiplication of the edge target's potential with the edge's sepset
+    protected IndexMap[] preparedMultiplications;
+    // mapping from clusters to the directed edges leaving them
+    protected int[][] outgoingEdges;
 
     // mapping from variables to clusters that contain them
     protected int[][] concernedClusters;
     protected AbstractFactor[] queryFactors;
-    protected int[][] preparedQueries;
+    protected IndexMap[] preparedQueries;
     protected boolean[] isBeliefValid;
-    protected List<Pair<AbstractFactor, IArrayWrapper>> initializations;
+    protected AbstractFactor[] initializedFactors;
+    protected IArrayWrapper[] initialValues;
 
     protected int[][] queryFactorReverseMapping;
 
     // used for computing evidence collection skip
-    protected Set<Integer> clustersHavingEvidence;
+    protected boolean[] hasEvidence;
     protected boolean[] isObserved;
+    protected boolean[] isCollectionSkipped;
+    protected boolean[] isDistributionSkipped;
+
+    // mapping from evidence signatures (observed variables) to the directed edges to pass messages along, in order
+    protected Map<BitSet, int[]> schedules;
+    protected BitSet evidenceSignature;
+
+    // the outcome indices of the evidence the potentials currently reflect, UNOBSERVED for the other variables
+    protected int[] incorporatedOutcomes;
+    protected int incorporatedEvidenceCount;
+    // whether all clusters are consistent with each other and with the incorporated evidence
+    protected boolean isCalibrated;
+    protected boolean[] containsNewEvidence;
+    protected boolean useIncrementalUpdates = false;
 
     protected double[] scratchpad;
+    protected IArrayWrapper scratchpadWrapper;
+    protected IArrayWrapper[] beliefWrappers;
 
     protected JunctionTreeBuilder junctionTreeBuilder = JunctionTreeBuilder.forHeuristic(new MinFillIn());
 
@@ -67,6 +109,21 @@ public class JunctionTreeAlgorithm extends AbstractInferer {
         this.junctionTreeBuilder = bldr;
     }
 
+    /**
+     * Incremental updates pay off if evidence is mostly added one variable at a time, as every belief update then
+     * keeps the whole junction tree calibrated. Removing evidence or changing an observed outcome still causes a full
+     * belief update.
+     */
+    public void setUseIncrementalUpdates(boolean useIncrementalUpdates) {
+        this.useIncrementalUpdates = useIncrementalUpdates;
+        if (schedules != null) {
+            // schedules computed for the other mode skip different parts of the tree
+            schedules.clear();
+        }
+        isCalibrated = false;
+        beliefsValid = false;
+    }
+
     @Override
     public double[] getBeliefs(final BayesNode node) {
         if (!beliefsValid) {
@@ -88,8 +145,7 @@ public class JunctionTreeAlgorithm extends AbstractInferer {
 
     private void validateBelief(final int nodeId) {
         final AbstractFactor f = queryFactors[nodeId];
-        // TODO change beliefs to ArrayWrappers
-        f.sumPrepared(new DoubleArrayWrapper(beliefs[nodeId]), preparedQueries[nodeId]);
+        f.sumPrepared(beliefWrappers[nodeId], preparedQueries[nodeId]);
         if (f.isLogScale()) {
             MathUtils.exp(beliefs[nodeId]);
         }
@@ -109,79 +165,184 @@ public class JunctionTreeAlgorithm extends AbstractInferer {
     }
 
     private void doUpdateBeliefs() {
+        if (useIncrementalUpdates && isCalibrated) {
+            final int newEvidenceCount = countNewEvidence();
+            if (newEvidenceCount == 0) {
+                // the potentials already reflect the evidence
+                return;
+            }
+            if (newEvidenceCount == 1) {
+                incorporateNewEvidence(findNewEvidence());
+                return;
+            }
+        }
 
         incorporateAllEvidence();
-        int propagationRoot = findPropagationRoot();
+        final int[] schedule = getSchedule();
 
         replayFactorInitializations();
-        collectEvidence(propagationRoot, skipCollection(propagationRoot));
-        distributeEvidence(propagationRoot, skipDistribution(propagationRoot));
+        for (final int edge : schedule) {
+            messagePass(edge);
+        }
+        isCalibrated = useIncrementalUpdates;
+    }
+
+    /**
+     * @return the number of observed variables not yet reflected by the potentials, or EVIDENCE_CHANGED if evidence
+     *         has been removed or changed since it was incorporated
+     */
+    private int countNewEvidence() {
+        int newEvidenceCount = 0;
+        int unchangedEvidenceCount = 0;
+        for (Entry<BayesNode, String> e : evidence.entrySet()) {
+            final BayesNode node = e.getKey();
+            final int incorporatedOutcome = incorporatedOutcomes[node.getId()];
+            if (incorporatedOutcome == UNOBSERVED) {
+                newEvidenceCount++;
+            } else if (incorporatedOutcome == node.getOutcomeIndex(e.getValue())) {
+                unchangedEvidenceCount++;
+            } else {
+                return EVIDENCE_CHANGED;
+            }
+        }
+        return unchangedEvidenceCount == incorporatedEvidenceCount ? newEvidenceCount : EVIDENCE_CHANGED;
+    }
+
+    private void incorporateNewEvidence(final Entry<BayesNode, String> newEvidence) {
+        final int[] clusters = concernedClusters[newEvidence.getKey().getId()];
+        incorporateEvidence(newEvidence.getKey(), newEvidence.getValue());
+        for (final int cluster : clusters) {
+            containsNewEvidence[cluster] = true;
+        }
+        distributeNewEvidence(clusters[0], NO_EDGE);
+        for (final int cluster : clusters) {
+            containsNewEvidence[cluster] = false;
+        }
+    }
+
+    private Entry<BayesNode, String> findNewEvidence() {
+        for (Entry<BayesNode, String> e : evidence.entrySet()) {
+            if (incorporatedOutcomes[e.getKey().getId()] == UNOBSERVED) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * distributes evidence from a cluster of a calibrated junction tree, in which the new evidence has been selected in
+     * all clusters containing the newly observed variable. Messages are only passed via sepsets that contain
+     * unobserved variables, and only the clusters behind such sepsets or containing the new evidence are visited;
+     * everything else is unaffected.
+     */
+    private void distributeNewEvidence(final int cluster, final int parentEdge) {
+        for (final int edge : outgoingEdges[cluster]) {
+            if (edge == parentEdge) {
+                continue;
+            }
+            final int target = edgeTargets[edge];
+            if (needMessagePass(sepSets[edge >> 1])) {
+                messagePass(edge);
+                distributeNewEvidence(target, edge ^ 1);
+            } else if (containsNewEvidence[target]) {
+                distributeNewEvidence(target, edge ^ 1);
+            }
+        }
+    }
+
+    private int[] getSchedule() {
+        int[] schedule = schedules.get(evidenceSignature);
+        if (schedule == null) {
+            schedule = computeSchedule();
+            schedules.put((BitSet) evidenceSignature.clone(), schedule);
+        }
+        return schedule;
+    }
+
+    private int[] computeSchedule() {
+        int propagationRoot = findPropagationRoot();
+
+        Arrays.fill(isCollectionSkipped, false);
+        skipCollection(propagationRoot, NO_EDGE);
+        Arrays.fill(isDistributionSkipped, false);
+        if (!useIncrementalUpdates) {
+            // incremental updates rely on the whole tree being calibrated
+            skipDistribution(propagationRoot, NO_EDGE);
+        }
+
+        return compileSchedule(propagationRoot);
+    }
+
+    private int[] compileSchedule(final int propagationRoot) {
+        final List<Integer> schedule = new ArrayList<Integer>();
+        collectEvidence(propagationRoot, NO_EDGE, schedule);
+        distributeEvidence(propagationRoot, NO_EDGE, schedule);
+        return ArrayUtils.toIntArray(schedule);
     }
 
     private void replayFactorInitializations() {
-        for (final Pair<AbstractFactor, IArrayWrapper> init : initializations) {
-            init.getFirst().copyValues(init.getSecond());
+        for (int i = 0; i < initializedFactors.length; i++) {
+            initializedFactors[i].copyValues(initialValues[i]);
         }
     }
 
     private void incorporateAllEvidence() {
-        for (Pair<AbstractFactor, IArrayWrapper> init : initializations) {
-            init.getFirst().resetSelections();
+        for (final AbstractFactor f : initializedFactors) {
+            f.resetSelections();
         }
 
-        clustersHavingEvidence.clear();
+        Arrays.fill(hasEvidence, false);
         Arrays.fill(isObserved, false);
-        for (BayesNode n : evidence.keySet()) {
-            incorporateEvidence(n);
+        evidenceSignature.clear();
+        Arrays.fill(incorporatedOutcomes, UNOBSERVED);
+        incorporatedEvidenceCount = 0;
+        for (Entry<BayesNode, String> e : evidence.entrySet()) {
+            incorporateEvidence(e.getKey(), e.getValue());
         }
     }
 
-    private void incorporateEvidence(final BayesNode node) {
+    private void incorporateEvidence(final BayesNode node, final String outcome) {
         int n = node.getId();
         isObserved[n] = true;
+        evidenceSignature.set(n);
+        int outcomeIndex = node.getOutcomeIndex(outcome);
+        incorporatedOutcomes[n] = outcomeIndex;
+        incorporatedEvidenceCount++;
         // get evidence to all concerned factors (includes home cluster)
-        for (final Integer concernedCluster : concernedClusters[n]) {
-            nodePotentials[concernedCluster].select(n, node.getOutcomeIndex(evidence.get(node)));
-            clustersHavingEvidence.add(concernedCluster);
+        for (final int concernedCluster : concernedClusters[n]) {
+            nodePotentials[concernedCluster].select(n, outcomeIndex);
+            hasEvidence[concernedCluster] = true;
         }
     }
 
     private int findPropagationRoot() {
-        int propagationRoot = 0;
-        for (BayesNode n : evidence.keySet()) {
-            propagationRoot = concernedClusters[n.getId()][0];
+        if (evidenceSignature.isEmpty()) {
+            return 0;
         }
-        return propagationRoot;
+        // depend on the signature only, so that a cached schedule is valid for every evidence matching it
+        return concernedClusters[evidenceSignature.length() - 1][0];
     }
 
     /**
      * checks which nodes need not be processed during collectEvidence (because of preprocessing). These are those nodes
-     * without evidence which are leaves or which only have non-evidence descendants
+     * without evidence which are leaves or which only have non-evidence descendants. The result is recorded in
+     * isCollectionSkipped.
      *
-     * @param root
+     * @param cluster
      *            the node to start the check from
-     * @return a set of the nodes not needing a call of collectEvidence
+     * @param parentEdge
+     *            the directed edge leading back to the parent of cluster, or NO_EDGE for the root
+     * @return whether cluster can be skipped
      */
-    private Set<Integer> skipCollection(final int root) {
-        final Set<Integer> skipped = new HashSet<Integer>(nodePotentials.length);
-        recursiveSkipCollection(root, new HashSet<Integer>(nodePotentials.length), skipped);
-        return skipped;
-    }
-
-    private void recursiveSkipCollection(final int node, final Set<Integer> visited, final Set<Integer> skipped) {
-        visited.add(node);
+    private boolean skipCollection(final int cluster, final int parentEdge) {
         boolean areAllDescendantsSkipped = true;
-        for (final int neighbor : junctionTree.getNeighbors(node)) {
-            if (!visited.contains(neighbor)) {
-                recursiveSkipCollection(neighbor, visited, skipped);
-                if (!skipped.contains(neighbor)) {
-                    areAllDescendantsSkipped = false;
-                }
+        for (final int edge : outgoingEdges[cluster]) {
+            if (edge != parentEdge && !skipCollection(edgeTargets[edge], edge ^ 1)) {
+                areAllDescendantsSkipped = false;
             }
         }
-        if (areAllDescendantsSkipped && !clustersHavingEvidence.contains(node)) {
-            skipped.add(node);
-        }
+        isCollectionSkipped[cluster] = areAllDescendantsSkipped && !hasEvidence[cluster];
+        return isCollectionSkipped[cluster];
     }
 
     /**
@@ -191,30 +352,19 @@ public class JunctionTreeAlgorithm extends AbstractInferer {
      * <li>not the query factor of a non-evidence variable</li>
      * <li>AND have no descendants that cannot be skipped</li>
      * </ul>
+     * The result is recorded in isDistributionSkipped.
      *
-     * @param distNode
-     * @return
+     * @return whether cluster can be skipped
      */
-    private Set<Integer> skipDistribution(final int distNode) {
-        final Set<Integer> skipped = new HashSet<Integer>(nodePotentials.length);
-        recursiveSkipDistribution(distNode, new HashSet<Integer>(nodePotentials.length), skipped);
-        return skipped;
-    }
-
-    private void recursiveSkipDistribution(final int node, final Set<Integer> visited, final Set<Integer> skipped) {
-        visited.add(node);
+    private boolean skipDistribution(final int cluster, final int parentEdge) {
         boolean areAllDescendantsSkipped = true;
-        for (final Integer neighbor : junctionTree.getNeighbors(node)) {
-            if (!visited.contains(neighbor)) {
-                recursiveSkipDistribution(neighbor, visited, skipped);
-                if (!skipped.contains(neighbor)) {
-                    areAllDescendantsSkipped = false;
-                }
+        for (final int edge : outgoingEdges[cluster]) {
+            if (edge != parentEdge && !skipDistribution(edgeTargets[edge], edge ^ 1)) {
+                areAllDescendantsSkipped = false;
             }
         }
-        if (areAllDescendantsSkipped && !isQueryFactorOfUnobservedVariable(node)) {
-            skipped.add(node);
-        }
+        isDistributionSkipped[cluster] = areAllDescendantsSkipped && !isQueryFactorOfUnobservedVariable(cluster);
+        return isDistributionSkipped[cluster];
     }
 
     private boolean isQueryFactorOfUnobservedVariable(final int node) {
@@ -226,56 +376,57 @@ public class JunctionTreeAlgorithm extends AbstractInferer {
         return false;
     }
 
-    private void collectEvidence(final int cluster, final Set<Integer> marked) {
-        marked.add(cluster);
-        for (final int n : junctionTree.getNeighbors(cluster)) {
-            if (!marked.contains(n)) {
-                collectEvidence(n, marked);
-                messagePass(n, cluster);
+    private void collectEvidence(final int cluster, final int parentEdge, final List<Integer> schedule) {
+        for (final int edge : outgoingEdges[cluster]) {
+            if (edge != parentEdge && !isCollectionSkipped[edgeTargets[edge]]) {
+                collectEvidence(edgeTargets[edge], edge ^ 1, schedule);
+                scheduleMessagePass(edge ^ 1, schedule);
             }
         }
     }
 
-    private void distributeEvidence(final int cluster, final Set<Integer> marked) {
-        marked.add(cluster);
-        for (final int n : junctionTree.getNeighbors(cluster)) {
-            if (!marked.contains(n)) {
-                messagePass(cluster, n);
-                distributeEvidence(n, marked);
+    private void distributeEvidence(final int cluster, final int parentEdge, final List<Integer> schedule) {
+        for (final int edge : outgoingEdges[cluster]) {
+            if (edge != parentEdge && !isDistributionSkipped[edgeTargets[edge]]) {
+                scheduleMessagePass(edge, schedule);
+                distributeEvidence(edgeTargets[edge], edge ^ 1, schedule);
             }
         }
     }
 
-    private void messagePass(final int v1, int v2) {
-
-        OrderIgnoringPair<Integer> sepSetEdge = new OrderIgnoringPair<Integer>(v1, v2);
-
-        final AbstractFactor sepSet = sepSets.get(sepSetEdge);
-        if (!needMessagePass(sepSet)) {
-            return;
+    private void scheduleMessagePass(final int edge, final List<Integer> schedule) {
+        if (needMessagePass(sepSets[edge >> 1])) {
+            schedule.add(edge);
         }
+    }
+
+    private void messagePass(final int edge) {
+        final AbstractFactor sepSet = sepSets[edge >> 1];
+        final AbstractFactor source = nodePotentials[edgeSources[edge]];
+        final AbstractFactor target = nodePotentials[edgeTargets[edge]];
 
         final IArrayWrapper newSepValues = sepSet.getValues();
-        System.arraycopy(newSepValues.toDoubleArray(), 0, scratchpad, 0, newSepValues.length());
+        final int length = newSepValues.length();
+        for (int i = 0; i < length; i++) {
+            scratchpad[i] = newSepValues.getDouble(i);
+        }
 
-        final int[] preparedOp = preparedMultiplications.get(Pair.newPair(v2, v1));
-        nodePotentials[sepSetEdge.getFirst()].sumPrepared(newSepValues, preparedOp);
+        // the prepared multiplication of the reverse edge is the one for the source potential
+        source.sumPrepared(newSepValues, preparedMultiplications[edge ^ 1]);
 
-        if (isOnlyFirstLogScale(sepSetEdge)) {
+        if (source.isLogScale() && !target.isLogScale()) {
             MathUtils.exp(newSepValues);
         }
-        if (areBothEndsLogScale(sepSetEdge)) {
-            MathUtils.secureSubtract(newSepValues.toDoubleArray(), scratchpad, scratchpad);
+        if (source.isLogScale() && target.isLogScale()) {
+            MathUtils.secureSubtract(newSepValues, scratchpad, scratchpad);
         } else {
-            MathUtils.secureDivide(newSepValues.toDoubleArray(), scratchpad, scratchpad);
+            MathUtils.secureDivide(newSepValues, scratchpad, scratchpad);
         }
 
-        if (isOnlySecondLogScale(sepSetEdge)) {
+        if (!source.isLogScale() && target.isLogScale()) {
             MathUtils.log(scratchpad);
         }
-        // TODO scratchpad -> ArrayWrapper
-        nodePotentials[sepSetEdge.getSecond()].multiplyPrepared(new DoubleArrayWrapper(scratchpad),
-                preparedMultiplications.get(Pair.newPair(v1, v2)));
+        target.multiplyPrepared(scratchpadWrapper, preparedMultiplications[edge]);
     }
 
     /*
@@ -290,229 +441,106 @@ public class JunctionTreeAlgorithm extends AbstractInferer {
         return false;
     }
 
-    private boolean isOnlyFirstLogScale(final OrderIgnoringPair<Integer> edge) {
-        return nodePotentials[edge.getFirst()].isLogScale() && !nodePotentials[edge.getSecond()].isLogScale();
-    }
-
-    private boolean isOnlySecondLogScale(final OrderIgnoringPair<Integer> edge) {
-        return !nodePotentials[edge.getFirst()].isLogScale() && nodePotentials[edge.getSecond()].isLogScale();
-    }
-
     @Override
     public void setNetwork(final BayesNet net) {
-        super.setNetwork(net);
-        initializeFields(net.getNodes().size());
-        JunctionTree jtree = buildJunctionTree(net);
-        Map<AbstractFactor, Integer> homeClusters = computeHomeClusters(net, jtree.getClusters());
-        initializeClusterFactors(net, jtree.getClusters(), homeClusters);
-        initializeSepsetFactors(jtree.getSepSets());
-        determineConcernedClusters();
-        setQueryFactors();
-        initializePotentialValues();
-        multiplyCPTsIntoPotentials(net, homeClusters);
-        prepareMultiplications();
-        prepareScratch();
-        invokeInitialBeliefUpdate();
-        storePotentialValues();
-    }
-
-    @SuppressWarnings("unchecked")
-    private void determineConcernedClusters() {
-        concernedClusters = new int[queryFactors.length][];
-        List<Integer>[] temp = new List[concernedClusters.length];
-        for (int i = 0; i < temp.length; i++) {
-            temp[i] = new ArrayList<Integer>();
-        }
-
-        for (int i = 0; i < nodePotentials.length; i++) {
-            int[] dimensionIDs = nodePotentials[i].getDimensionIDs();
-            for (final int var : dimensionIDs) {
-                temp[var].add(i);
-            }
-        }
-
-        for (int i = 0; i < temp.length; i++) {
-            concernedClusters[i] = ArrayUtils.toIntArray(temp[i]);
-        }
-    }
-
-    private void initializeFields(int numNodes) {
-        isBeliefValid = new boolean[beliefs.length];
-        Arrays.fill(isBeliefValid, false);
-        queryFactors = new AbstractFactor[numNodes];
-        preparedQueries = new int[numNodes][];
-        sepSets = new HashMap<OrderIgnoringPair<Integer>, AbstractFactor>(numNodes);
-        preparedMultiplications = new HashMap<Pair<Integer, Integer>, int[]>(numNodes);
-        initializations = new ArrayList<Pair<AbstractFactor, IArrayWrapper>>();
-        clustersHavingEvidence = new HashSet<Integer>(numNodes);
-        isObserved = new boolean[numNodes];
+        setCompiledJunctionTree(CompiledJunctionTree.compile(net, junctionTreeBuilder, factory));
     }
 
-    private JunctionTree buildJunctionTree(BayesNet net) {
-        final JunctionTree jtree = junctionTreeBuilder.buildJunctionTree(net);
-        this.junctionTree = jtree.getGraph();
-
-        return jtree;
-    }
-
-    private Map<AbstractFactor, Integer> computeHomeClusters(BayesNet net, final List<List<Integer>> clusters) {
-        Map<AbstractFactor, Integer> homeClusters = new HashMap<AbstractFactor, Integer>();
-        for (final BayesNode node : net.getNodes()) {
-            final int[] nodeAndParents = node.getFactor().getDimensionIDs();
-            for (final ListIterator<List<Integer>> clusterIt = clusters.listIterator(); clusterIt.hasNext();) {
-                if (containsAll(clusterIt.next(), nodeAndParents)) {
-                    homeClusters.put(node.getFactor(), clusterIt.nextIndex() - 1);
-                    break;
-                }
-            }
-        }
-        return homeClusters;
+    /**
+     * prepares this inferrer for queries on an already compiled network. The compiled junction tree is not modified
+     * and may be shared with other inferrers, also across threads.
+     */
+    public void setCompiledJunctionTree(final CompiledJunctionTree compiledJunctionTree) {
+        super.setNetwork(compiledJunctionTree.getNetwork());
+        this.compiledJunctionTree = compiledJunctionTree;
+        junctionTree = compiledJunctionTree.junctionTree;
+        edgeSources = compiledJunctionTree.edgeSources;
+        edgeTargets = compiledJunctionTree.edgeTargets;
+        preparedMultiplications = compiledJunctionTree.preparedMultiplications;
+        outgoingEdges = compiledJunctionTree.outgoingEdges;
+        concernedClusters = compiledJunctionTree.concernedClusters;
+        preparedQueries = compiledJunctionTree.preparedQueries;
+        queryFactorReverseMapping = compiledJunctionTree.queryFactorReverseMapping;
+        copyPotentials(compiledJunctionTree);
+        initializeFields(compiledJunctionTree.queryClusters);
+        prepareScratch();
+        isCalibrated = true;
     }
 
-    private boolean containsAll(List<Integer> list, int[] ints) {
-        for (int n : ints) {
-            if (!list.contains(n)) {
-                return false;
-            }
-        }
-        return true;
+    public CompiledJunctionTree getCompiledJunctionTree() {
+        return compiledJunctionTree;
     }
 
-    private void initializeClusterFactors(BayesNet net, final List<List<Integer>> clusters,
-            Map<AbstractFactor, Integer> homeClusters) {
-        nodePotentials = new AbstractFactor[clusters.size()];
-        Map<Integer, List<AbstractFactor>> multiplicationPartners = findMultiplicationPartners(net, homeClusters);
-        for (final ListIterator<List<Integer>> cliqueIt = clusters.listIterator(); cliqueIt.hasNext();) {
-            final List<Integer> cluster = cliqueIt.next();
-            int current = cliqueIt.nextIndex() - 1;
-            List<AbstractFactor> multiplicationPartnerList = multiplicationPartners.get(current);
-            final AbstractFactor cliqueFactor = factory.create(cluster,
-                    multiplicationPartnerList == null ? Collections.<AbstractFactor>emptyList()
-                            : multiplicationPartnerList);
-            nodePotentials[current] = cliqueFactor;
+    private void copyPotentials(final CompiledJunctionTree compiledJunctionTree) {
+        nodePotentials = new AbstractFactor[compiledJunctionTree.clusters.length];
+        sepSets = new AbstractFactor[compiledJunctionTree.sepSets.length];
+        initializedFactors = new AbstractFactor[nodePotentials.length + sepSets.length];
+        initialValues = new IArrayWrapper[initializedFactors.length];
+        for (int i = 0; i < nodePotentials.length; i++) {
+            nodePotentials[i] = workingCopy(compiledJunctionTree.clusters[i]);
+            initialValues[i] = compiledJunctionTree.clusters[i].getValues();
         }
-    }
-
-    private Map<Integer, List<AbstractFactor>> findMultiplicationPartners(BayesNet net,
-            Map<AbstractFactor, Integer> homeClusters) {
-        Map<Integer, List<AbstractFactor>> potentialMap = new HashMap<Integer, List<AbstractFactor>>();
-        for (final BayesNode node : net.getNodes()) {
-            final Integer nodeHome = homeClusters.get(node.getFactor());
-            if (!potentialMap.containsKey(nodeHome)) {
-                potentialMap.put(nodeHome, new ArrayList<AbstractFactor>());
-            }
-            potentialMap.get(nodeHome).add(node.getFactor());
+        for (int i = 0; i < sepSets.length; i++) {
+            sepSets[i] = workingCopy(compiledJunctionTree.sepSets[i]);
+            initialValues[nodePotentials.length + i] = compiledJunctionTree.sepSets[i].getValues();
         }
-        return potentialMap;
+        System.arraycopy(nodePotentials, 0, initializedFactors, 0, nodePotentials.length);
+        System.arraycopy(sepSets, 0, initializedFactors, nodePotentials.length, sepSets.length);
     }
 
-    private void initializeSepsetFactors(final List<Pair<OrderIgnoringPair<Integer>, List<Integer>>> sepSets) {
-        for (final Pair<OrderIgnoringPair<Integer>, List<Integer>> sep : sepSets) {
-            this.sepSets.put(sep.getFirst(), factory.create(sep.getSecond(), Collections.<AbstractFactor>emptyList()));
+    private static AbstractFactor workingCopy(final AbstractFactor template) {
+        // templates may be stored off-heap, but the kernels work on heap arrays
+        if (template.getValues() instanceof IDirectArrayWrapper) {
+            return template.cloneWithValues(((IDirectArrayWrapper) template.getValues()).copyToHeap());
         }
+        return template.clone();
     }
 
-    private void setQueryFactors() {
-        for (int i = 0; i < queryFactors.length; i++) {
-            for (final Integer f : concernedClusters[i]) {
-                final boolean isFirstOrSmallerTable = queryFactors[i] == null
-                        || queryFactors[i].getValues().length() > nodePotentials[f].getValues().length();
-                        if (isFirstOrSmallerTable) {
-                            queryFactors[i] = nodePotentials[f];
-                        }
-            }
-        }
-
-        queryFactorReverseMapping = new int[nodePotentials.length][];
-        for (int i = 0; i < nodePotentials.length; i++) {
-            List<Integer> queryVars = new ArrayList<Integer>();
-            for (int var : nodePotentials[i].getDimensionIDs()) {
-                if (queryFactors[var] == nodePotentials[i]) {
-                    queryVars.add(var);
-                }
-            }
-            queryFactorReverseMapping[i] = ArrayUtils.toIntArray(queryVars);
+    private void initializeFields(final int[] queryClusters) {
+        final int numNodes = queryClusters.length;
+        isBeliefValid = new boolean[beliefs.length];
+        Arrays.fill(isBeliefValid, false);
+        queryFactors = new AbstractFactor[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            queryFactors[i] = nodePotentials[queryClusters[i]];
         }
-    }
+        isObserved = new boolean[numNodes];
+        evidenceSignature = new BitSet(numNodes);
+        incorporatedOutcomes = new int[numNodes];
+        Arrays.fill(incorporatedOutcomes, UNOBSERVED);
+        incorporatedEvidenceCount = 0;
+        schedules = new LinkedHashMap<BitSet, int[]>(16, 0.75f, true) {
 
-    private void prepareMultiplications() {
-        // compress by combining equal prepared statements, thus saving memory
-        final CanonicalIntArrayManager flyWeight = new CanonicalIntArrayManager();
-        prepareSepsetMultiplications(flyWeight);
-        prepareQueries(flyWeight);
-    }
+            private static final long serialVersionUID = 1L;
 
-    private void prepareSepsetMultiplications(final CanonicalIntArrayManager flyWeight) {
-        for (int node = 0; node < nodePotentials.length; node++) {
-            for (final int n : junctionTree.getNeighbors(node)) {
-                final int[] preparedMultiplication = nodePotentials[n].prepareMultiplication(sepSets
-                        .get(new OrderIgnoringPair<Integer>(node, n)));
-                preparedMultiplications.put(Pair.newPair(node, n), flyWeight.getInstance(preparedMultiplication));
+            @Override
+            protected boolean removeEldestEntry(Entry<BitSet, int[]> eldest) {
+                return size() > MAX_CACHED_SCHEDULES;
             }
+        };
+        beliefWrappers = new IArrayWrapper[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            beliefWrappers[i] = new DoubleArrayWrapper(beliefs[i]);
         }
-    }
-
-    private void prepareQueries(final CanonicalIntArrayManager flyWeight) {
-        for (int i = 0; i < queryFactors.length; i++) {
-            final AbstractFactor beliefFactor = factory.create(Arrays.asList(i),
-                    Collections.<AbstractFactor>emptyList());
-            final int[] preparedQuery = queryFactors[i].prepareMultiplication(beliefFactor);
-            preparedQueries[i] = flyWeight.getInstance(preparedQuery);
-        }
+        hasEvidence = new boolean[nodePotentials.length];
+        containsNewEvidence = new boolean[nodePotentials.length];
+        isCollectionSkipped = new boolean[nodePotentials.length];
+        isDistributionSkipped = new boolean[nodePotentials.length];
     }
 
     private void prepareScratch() {
         int maxSize = 0;
-        for (AbstractFactor sepSet : sepSets.values()) {
+        for (AbstractFactor sepSet : sepSets) {
             maxSize = Math.max(maxSize, sepSet.getValues().length());
         }
         scratchpad = new double[maxSize];
+        scratchpadWrapper = new DoubleArrayWrapper(scratchpad);
     }
 
-    private void invokeInitialBeliefUpdate() {
-
-        collectEvidence(0, new HashSet<Integer>());
-        distributeEvidence(0, new HashSet<Integer>());
-    }
-
-    private void initializePotentialValues() {
-        for (final AbstractFactor f : nodePotentials) {
-            f.fill(f.isLogScale() ? ONE_LOG : ONE);
-        }
-
-        for (final Entry<OrderIgnoringPair<Integer>, AbstractFactor> sepSet : sepSets.entrySet()) {
-            if (!areBothEndsLogScale(sepSet.getKey())) {
-                // if one part is log-scale, we transform to non-log-scale
-                sepSet.getValue().fill(ONE);
-            } else {
-                sepSet.getValue().fill(ONE_LOG);
-            }
-        }
-    }
-
-    private void multiplyCPTsIntoPotentials(BayesNet net, Map<AbstractFactor, Integer> homeClusters) {
-        for (final BayesNode node : net.getNodes()) {
-            final AbstractFactor nodeHome = nodePotentials[homeClusters.get(node.getFactor())];
-            if (nodeHome.isLogScale()) {
-                nodeHome.multiplyCompatibleToLog(node.getFactor());
-            } else {
-                nodeHome.multiplyCompatible(node.getFactor());
-            }
-        }
-    }
-
-    private boolean areBothEndsLogScale(final OrderIgnoringPair<Integer> edge) {
-        return nodePotentials[edge.getFirst()].isLogScale() && nodePotentials[edge.getSecond()].isLogScale();
-    }
-
-    private void storePotentialValues() {
-        CanonicalArrayWrapperManager flyweight = new CanonicalArrayWrapperManager();
-        for (final AbstractFactor pot : nodePotentials) {
-            initializations.add(newPair(pot, flyweight.getInstance(pot.getValues().clone())));
-        }
-
-        for (final AbstractFactor sep : sepSets.values()) {
-            initializations.add(newPair(sep, flyweight.getInstance(sep.getValues().clone())));
+    void invokeInitialBeliefUpdate() {
+        // nothing is observed yet and nothing may be skipped
+        for (final int edge : compileSchedule(0)) {
+            messagePass(edge);
         }
     }
 }
@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.inference.jtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+import org.eclipse.recommenders.internal.jayes.util.ArrayUtils;
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.factor.AbstractFactor;
+import org.eclipse.recommenders.jayes.factor.FactorFactory;
+import org.eclipse.recommenders.jayes.factor.IndexMap;
+import org.eclipse.recommenders.jayes.util.Graph;
+import org.eclipse.recommenders.jayes.util.OrderIgnoringPair;
+import org.eclipse.recommenders.jayes.util.Pair;
+import org.eclipse.recommenders.jayes.util.sharing.CanonicalIntArrayManager;
+
+/**
+ * Builds the {@link CompiledJunctionTree} of a network. Not thread-safe, use one compiler per compilation.
+ */
+final class JunctionTreeCompiler {
+
+    private static final double ONE = 1.0;
+    private static final double ONE_LOG = 0.0;
+
+    private final JunctionTreeBuilder junctionTreeBuilder;
+    private final FactorFactory factory;
+
+    private Graph junctionTree;
+    private AbstractFactor[] nodePotentials;
+    private AbstractFactor[] sepSets;
+    private int[] edgeSources;
+    private int[] edgeTargets;
+    private IndexMap[] preparedMultiplications;
+    private int[][] outgoingEdges;
+    private int[][] concernedClusters;
+    private int[] queryClusters;
+    private IndexMap[] preparedQueries;
+    private int[][] queryFactorReverseMapping;
+
+    JunctionTreeCompiler(JunctionTreeBuilder junctionTreeBuilder, FactorFactory factory) {
+        this.junctionTreeBuilder = junctionTreeBuilder;
+        this.factory = factory;
+    }
+
+    CompiledJunctionTree compile(final BayesNet net) {
+        factory.setReferenceNetwork(net);
+        JunctionTree jtree = buildJunctionTree(net);
+        Map<AbstractFactor, Integer> homeClusters = computeHomeClusters(net, jtree.getClusters());
+        initializeClusterFactors(net, jtree.getClusters(), homeClusters);
+        initializeSepsetFactors(jtree.getSepSets());
+        compileEdges(jtree.getSepSets());
+        concernedClusters = determineConcernedClusters(nodePotentials, net.getNodes().size());
+        setQueryFactors();
+        initializePotentialValues();
+        multiplyCPTsIntoPotentials(net, homeClusters);
+        prepareMultiplications();
+
+        CompiledJunctionTree uncalibrated = new CompiledJunctionTree(net, junctionTree, nodePotentials, sepSets,
+                edgeSources, edgeTargets, preparedMultiplications, outgoingEdges, concernedClusters, queryClusters,
+                preparedQueries, queryFactorReverseMapping);
+        return calibrate(uncalibrated);
+    }
+
+    private CompiledJunctionTree calibrate(CompiledJunctionTree uncalibrated) {
+        // the working copies of a throwaway inferrer become the calibrated templates
+        JunctionTreeAlgorithm inferrer = uncalibrated.newInferrer();
+        inferrer.invokeInitialBeliefUpdate();
+        if (factory.getUseDirectMemory()) {
+            moveToFactoryStorage(inferrer.nodePotentials);
+            moveToFactoryStorage(inferrer.sepSets);
+        }
+        return uncalibrated.withPotentials(inferrer.nodePotentials, inferrer.sepSets);
+    }
+
+    private void moveToFactoryStorage(AbstractFactor[] potentials) {
+        for (AbstractFactor potential : potentials) {
+            potential.setValues(factory.copyValues(potential.getValues()));
+        }
+    }
+
+    private JunctionTree buildJunctionTree(BayesNet net) {
+        final JunctionTree jtree = junctionTreeBuilder.buildJunctionTree(net);
+        this.junctionTree = jtree.getGraph();
+
+        return jtree;
+    }
+
+    private Map<AbstractFactor, Integer> computeHomeClusters(BayesNet net, final List<List<Integer>> clusters) {
+        Map<AbstractFactor, Integer> homeClusters = new HashMap<AbstractFactor, Integer>();
+        for (final BayesNode node : net.getNodes()) {
+            final int[] nodeAndParents = node.getFactor().getDimensionIDs();
+            for (final ListIterator<List<Integer>> clusterIt = clusters.listIterator(); clusterIt.hasNext();) {
+                if (containsAll(clusterIt.next(), nodeAndParents)) {
+                    homeClusters.put(node.getFactor(), clusterIt.nextIndex() - 1);
+                    break;
+                }
+            }
+        }
+        return homeClusters;
+    }
+
+    private boolean containsAll(List<Integer> list, int[] ints) {
+        for (int n : ints) {
+            if (!list.contains(n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void initializeClusterFactors(BayesNet net, final List<List<Integer>> clusters,
+            Map<AbstractFactor, Integer> homeClusters) {
+        nodePotentials = new AbstractFactor[clusters.size()];
+        Map<Integer, List<AbstractFactor>> multiplicationPartners = findMultiplicationPartners(net, homeClusters);
+        for (final ListIterator<List<Integer>> cliqueIt = clusters.listIterator(); cliqueIt.hasNext();) {
+            final List<Integer> cluster = cliqueIt.next();
+            int current = cliqueIt.nextIndex() - 1;
+            List<AbstractFactor> multiplicationPartnerList = multiplicationPartners.get(current);
+            final AbstractFactor cliqueFactor = factory.create(cluster,
+                    multiplicationPartnerList == null ? Collections.<AbstractFactor>emptyList()
+                            : multiplicationPartnerList);
+            nodePotentials[current] = cliqueFactor;
+        }
+    }
+
+    private Map<Integer, List<AbstractFactor>> findMultiplicationPartners(BayesNet net,
+            Map<AbstractFactor, Integer> homeClusters) {
+        Map<Integer, List<AbstractFactor>> potentialMap = new HashMap<Integer, List<AbstractFactor>>();
+        for (final BayesNode node : net.getNodes()) {
+            final Integer nodeHome = homeClusters.get(node.getFactor());
+            if (!potentialMap.containsKey(nodeHome)) {
+                potentialMap.put(nodeHome, new ArrayList<AbstractFactor>());
+            }
+            potentialMap.get(nodeHome).add(node.getFactor());
+        }
+        return potentialMap;
+    }
+
+    private void initializeSepsetFactors(final List<Pair<OrderIgnoringPair<Integer>, List<Integer>>> sepSets) {
+        this.sepSets = new AbstractFactor[sepSets.size()];
+        for (final ListIterator<Pair<OrderIgnoringPair<Integer>, List<Integer>>> it = sepSets.listIterator(); it
+                .hasNext();) {
+            final List<Integer> sepSetVars = it.next().getSecond();
+            this.sepSets[it.nextIndex() - 1] = factory.create(sepSetVars, Collections.<AbstractFactor>emptyList());
+        }
+    }
+
+    /**
+     * numbers the directed edges of the junction tree and records, for every cluster, the edges leaving it in the
+     * order of the neighbors in the junction tree graph
+     */
+    private void compileEdges(final List<Pair<OrderIgnoringPair<Integer>, List<Integer>>> sepSets) {
+        edgeSources = new int[2 * sepSets.size()];
+        edgeTargets = new int[2 * sepSets.size()];
+        for (final ListIterator<Pair<OrderIgnoringPair<Integer>, List<Integer>>> it = sepSets.listIterator(); it
+                .hasNext();) {
+            final OrderIgnoringPair<Integer> ends = it.next().getFirst();
+            final int edge = 2 * (it.nextIndex() - 1);
+            edgeSources[edge] = ends.getFirst();
+            edgeTargets[edge] = ends.getSecond();
+            edgeSources[edge + 1] = ends.getSecond();
+            edgeTargets[edge + 1] = ends.getFirst();
+        }
+
+        outgoingEdges = computeOutgoingEdges(junctionTree, edgeSources, edgeTargets);
+    }
+
+    static int[][] computeOutgoingEdges(Graph junctionTree, int[] edgeSources, int[] edgeTargets) {
+        Map<Pair<Integer, Integer>, Integer> edgeIndices = new HashMap<Pair<Integer, Integer>, Integer>();
+        for (int edge = 0; edge < edgeSources.length; edge++) {
+            edgeIndices.put(Pair.newPair(edgeSources[edge], edgeTargets[edge]), edge);
+        }
+
+        int[][] outgoingEdges = new int[junctionTree.numberOfVertices()][];
+        for (int cluster = 0; cluster < outgoingEdges.length; cluster++) {
+            final List<Integer> neighbors = junctionTree.getNeighbors(cluster);
+            outgoingEdges[cluster] = new int[neighbors.size()];
+            for (int i = 0; i < neighbors.size(); i++) {
+                outgoingEdges[cluster][i] = edgeIndices.get(Pair.newPair(cluster, neighbors.get(i)));
+            }
+        }
+        return outgoingEdges;
+    }
+
+    @SuppressWarnings("unchecked")
+    static int[][] determineConcernedClusters(AbstractFactor[] nodePotentials, int numNodes) {
+        int[][] concernedClusters = new int[numNodes][];
+        List<Integer>[] temp = new List[concernedClusters.length];
+        for (int i = 0; i < temp.length; i++) {
+            temp[i] = new ArrayList<Integer>();
+        }
+
+        for (int i = 0; i < nodePotentials.length; i++) {
+            int[] dimensionIDs = nodePotentials[i].getDimensionIDs();
+            for (final int var : dimensionIDs) {
+                temp[var].add(i);
+            }
+        }
+
+        for (int i = 0; i < temp.length; i++) {
+            concernedClusters[i] = ArrayUtils.toIntArray(temp[i]);
+        }
+        return concernedClusters;
+    }
+
+    private void setQueryFactors() {
+        queryClusters = new int[concernedClusters.length];
+        for (int i = 0; i < queryClusters.length; i++) {
+            queryClusters[i] = concernedClusters[i][0];
+            for (final int f : concernedClusters[i]) {
+                if (nodePotentials[queryClusters[i]].getValues().length() > nodePotentials[f].getValues().length()) {
+                    queryClusters[i] = f;
+                }
+            }
+        }
+
+        queryFactorReverseMapping = computeQueryFactorReverseMapping(nodePotentials, queryClusters);
+    }
+
+    static int[][] computeQueryFactorReverseMapping(AbstractFactor[] nodePotentials, int[] queryClusters) {
+        int[][] queryFactorReverseMapping = new int[nodePotentials.length][];
+        for (int i = 0; i < nodePotentials.length; i++) {
+            List<Integer> queryVars = new ArrayList<Integer>();
+            for (int var : nodePotentials[i].getDimensionIDs()) {
+                if (queryClusters[var] == i) {
+                    queryVars.add(var);
+                }
+            }
+            queryFactorReverseMapping[i] = ArrayUtils.toIntArray(queryVars);
+        }
+        return queryFactorReverseMapping;
+    }
+
+    private void prepareMultiplications() {
+        // compress by combining equal prepared statements, thus saving memory
+        final CanonicalIntArrayManager flyWeight = new CanonicalIntArrayManager();
+        final Map<int[], IndexMap> encodings = new IdentityHashMap<int[], IndexMap>();
+        prepareSepsetMultiplications(flyWeight, encodings);
+        prepareQueries(flyWeight, encodings);
+    }
+
+    private void prepareSepsetMultiplications(final CanonicalIntArrayManager flyWeight,
+            final Map<int[], IndexMap> encodings) {
+        preparedMultiplications = new IndexMap[edgeTargets.length];
+        for (int edge = 0; edge < edgeTargets.length; edge++) {
+            final int[] preparedMultiplication = nodePotentials[edgeTargets[edge]]
+                    .prepareMultiplication(sepSets[edge >> 1]);
+            preparedMultiplications[edge] = encode(flyWeight.getInstance(preparedMultiplication), encodings);
+        }
+    }
+
+    private void prepareQueries(final CanonicalIntArrayManager flyWeight, final Map<int[], IndexMap> encodings) {
+        preparedQueries = new IndexMap[queryClusters.length];
+        for (int i = 0; i < queryClusters.length; i++) {
+            final AbstractFactor beliefFactor = factory.create(Arrays.asList(i),
+                    Collections.<AbstractFactor>emptyList());
+            final int[] preparedQuery = nodePotentials[queryClusters[i]].prepareMultiplication(beliefFactor);
+            preparedQueries[i] = encode(flyWeight.getInstance(preparedQuery), encodings);
+        }
+    }
+
+    private IndexMap encode(final int[] positions, final Map<int[], IndexMap> encodings) {
+        IndexMap encoded = encodings.get(positions);
+        if (encoded == null) {
+            encoded = IndexMap.encode(positions);
+            encodings.put(positions, encoded);
+        }
+        return encoded;
+    }
+
+    private void initializePotentialValues() {
+        for (final AbstractFactor f : nodePotentials) {
+            f.fill(f.isLogScale() ? ONE_LOG : ONE);
+        }
+
+        for (int sepSet = 0; sepSet < sepSets.length; sepSet++) {
+            if (!areBothEndsLogScale(2 * sepSet)) {
+                // if one part is log-scale, we transform to non-log-scale
+                sepSets[sepSet].fill(ONE);
+            } else {
+                sepSets[sepSet].fill(ONE_LOG);
+            }
+        }
+    }
+
+    private void multiplyCPTsIntoPotentials(BayesNet net, Map<AbstractFactor, Integer> homeClusters) {
+        for (final BayesNode node : net.getNodes()) {
+            final AbstractFactor nodeHome = nodePotentials[homeClusters.get(node.getFactor())];
+            if (nodeHome.isLogScale()) {
+                nodeHome.multiplyCompatibleToLog(node.getFactor());
+            } else {
+                nodeHome.multiplyCompatible(node.getFactor());
+            }
+        }
+    }
+
+    private boolean areBothEndsLogScale(final int edge) {
+        return nodePotentials[edgeSources[edge]].isLogScale() && nodePotentials[edgeTargets[edge]].isLogScale();
+    }
+}
@@ -85,6 +85,25 @@ public final class MathUtils {
         }
     }
 
+    /**
+     * @see #secureDivide(double[], double[], double[])
+     */
+    public static void secureDivide(IArrayWrapper a, double[] b, double[] c) {
+        for (int i = 0; i < a.length(); i++) {
+            if (b[i] != 0) {
+                c[i] = a.getDouble(i) / b[i];
+            }
+        }
+    }
+
+    public static void secureSubtract(IArrayWrapper a, double[] b, double[] c) {
+        for (int i = 0; i < a.length(); i++) {
+            if (b[i] != Double.NEGATIVE_INFINITY) {
+                c[i] = a.getDouble(i) - b[i];
+            }
+        }
+    }
+
     public static double[] normalizeLog(double[] vector) {
         double normFactor = MathUtils.logsumexp(vector);
         if (normFactor == Double.NEGATIVE_INFINITY) {
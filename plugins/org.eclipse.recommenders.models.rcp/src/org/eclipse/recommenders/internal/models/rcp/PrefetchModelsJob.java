@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.internal.models.rcp;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IImportDeclaration;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.recommenders.internal.models.rcp.l10n.Messages;
+import org.eclipse.recommenders.models.IModelProvider;
+import org.eclipse.recommenders.models.IPoolingModelProvider;
+import org.eclipse.recommenders.models.ModelPoolStatistics;
+import org.eclipse.recommenders.models.UniqueTypeName;
+import org.eclipse.recommenders.models.rcp.IProjectCoordinateProvider;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Sets;
+
+/**
+ * Warms a model provider with the models of the library types that compilation units refer to, i.e. the types they
+ * import and the types of their fields and superclasses. The first recommendation for such a type then finds its model
+ * archive downloaded and its model loaded.
+ * <p>
+ * The job runs with low priority and loads at most {@code maxModels} models per compilation unit. If the model
+ * provider {@link IPoolingModelProvider pools} its models, prefetching moreover stops once half of the pool's capacity
+ * is in use, so that prefetched models never crowd out the models code completion is working with. Models prefetched
+ * recently are not prefetched again.
+ */
+public class PrefetchModelsJob<M> extends Job {
+
+    private static final long SCHEDULE_DELAY_MILLIS = 500;
+    // share of the pool's capacity that prefetching may fill
+    private static final double MAX_POOL_SHARE = 0.5;
+
+    private final IProjectCoordinateProvider pcProvider;
+    private final IModelProvider<UniqueTypeName, M> modelProvider;
+    private final int maxModels;
+
+    private final Set<ICompilationUnit> pending = Sets.newLinkedHashSet();
+    private final Cache<UniqueTypeName, Boolean> prefetched;
+
+    public PrefetchModelsJob(IProjectCoordinateProvider pcProvider, IModelProvider<UniqueTypeName, M> modelProvider,
+            int maxModels) {
+        super(Messages.JOB_NAME_PREFETCHING_MODELS);
+        this.pcProvider = pcProvider;
+        this.modelProvider = modelProvider;
+        this.maxModels = maxModels;
+        prefetched = CacheBuilder.newBuilder().maximumSize(maxModels).expireAfterWrite(5, MINUTES).build();
+        setSystem(true);
+        setPriority(DECORATE);
+    }
+
+    /**
+     * Prefetches the models for all compilation units currently open in an editor.
+     */
+    public void prefetchWorkingCopies() {
+        for (ICompilationUnit cu : JavaCore.getWorkingCopies(null)) {
+            prefetch(cu);
+        }
+    }
+
+    public void prefetch(ICompilationUnit cu) {
+        synchronized (pending) {
+            if (!pending.add(cu)) {
+                return;
+            }
+        }
+        // if the job is running, it runs again once it is done
+        schedule(SCHEDULE_DELAY_MILLIS);
+    }
+
+    /**
+     * Forgets which models were prefetched, e.g. because the model provider was closed.
+     */
+    public void reset() {
+        prefetched.invalidateAll();
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        monitor.beginTask(Messages.MONITOR_NAME_RESOLVING_COORDINATES, IProgressMonitor.UNKNOWN);
+        try {
+            for (ICompilationUnit cu = poll(); cu != null; cu = poll()) {
+                if (!prefetch(cu, monitor)) {
+                    return Status.CANCEL_STATUS;
+                }
+            }
+            return Status.OK_STATUS;
+        } finally {
+            monitor.done();
+        }
+    }
+
+    private ICompilationUnit poll() {
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return null;
+            }
+            ICompilationUnit cu = pending.iterator().next();
+            pending.remove(cu);
+            return cu;
+        }
+    }
+
+    private boolean prefetch(ICompilationUnit cu, IProgressMonitor monitor) {
+        Set<IType> types;
+        try {
+            types = findReferencedLibraryTypes(cu);
+        } catch (Exception e) {
+            // the compilation unit may have been closed or deleted meanwhile
+            return true;
+        }
+        int count = 0;
+        for (IType type : types) {
+            if (monitor.isCanceled()) {
+                return false;
+            }
+            if (count >= maxModels || isPoolFilled()) {
+                break;
+            }
+            try {
+                UniqueTypeName name = pcProvider.toUniqueName(type).orNull();
+                if (name == null || prefetched.getIfPresent(name) != null) {
+                    continue;
+                }
+                M model = modelProvider.acquireModel(name).orNull();
+                if (model != null) {
+                    modelProvider.releaseModel(model);
+                    prefetched.put(name, Boolean.TRUE);
+                    count++;
+                }
+            } catch (Exception e) {
+                // ignore; prefetching is best effort
+            }
+        }
+        return true;
+    }
+
+    private boolean isPoolFilled() {
+        if (!(modelProvider instanceof IPoolingModelProvider)) {
+            return false;
+        }
+        ModelPoolStatistics statistics = ((IPoolingModelProvider<?, ?>) modelProvider).getPoolStatistics();
+        return statistics.getRemainingWeight() <= statistics.getMaximumWeight() * (1 - MAX_POOL_SHARE);
+    }
+
+    private static Set<IType> findReferencedLibraryTypes(ICompilationUnit cu) throws JavaModelException {
+        Set<IType> types = Sets.newLinkedHashSet();
+        if (!cu.exists()) {
+            return types;
+        }
+        for (IImportDeclaration imp : cu.getImports()) {
+            if (!imp.isOnDemand() && !Flags.isStatic(imp.getFlags())) {
+                addIfLibraryType(cu.getJavaProject().findType(imp.getElementName()), types);
+            }
+        }
+        for (IType type : cu.getAllTypes()) {
+            if (type.getSuperclassName() != null) {
+                addResolved(type, type.getSuperclassName(), types);
+            }
+            for (IField field : type.getFields()) {
+                String signature = Signature.getElementType(Signature.getTypeErasure(field.getTypeSignature()));
+                addResolved(type, Signature.toString(signature), types);
+            }
+        }
+        return types;
+    }
+
+    private static void addResolved(IType context, String typeName, Set<IType> types) throws JavaModelException {
+        String[][] resolved = context.resolveType(Signature.getTypeErasure(typeName));
+        if (resolved != null && resolved.length == 1) {
+            addIfLibraryType(context.getJavaProject().findType(resolved[0][0], resolved[0][1]), types);
+        }
+    }
+
+    private static void addIfLibraryType(IType type, Set<IType> types) {
+        // models only exist for types from libraries, not for types in the workspace
+        if (type != null && type.isBinary()) {
+            types.add(type);
+        }
+    }
+}
@@ -61,6 +61,7 @@ public final class Messages extends NLS {
     public static String JOB_NAME_DELETING_MODEL_CACHE;
     public static String JOB_NAME_DOWNLOADING_MODELS;
     public static String JOB_NAME_PREFETCHING_MODEL_ARCHIVE;
+    public static String JOB_NAME_PREFETCHING_MODELS;
     public static String JOB_NAME_REFRESHING_DEPENDENCY_OVERVIEW_VIEW;
     public static String JOB_NAME_REFRESHING_MODEL_REPOSITORIES_VIEW;
     public static String JOB_NAME_RESOLVING_MODEL;
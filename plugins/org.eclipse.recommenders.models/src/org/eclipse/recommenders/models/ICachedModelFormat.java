@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A binary form of models that is cached on disk next to the model archive and loaded directly from a memory-mapped
+ * file. Model providers that pass a format to {@link SimpleModelProvider} keep their models in a
+ * {@link PersistentModelCache}.
+ */
+public interface ICachedModelFormat<K extends IUniqueName<?>, M> {
+
+    /**
+     * Converts the model read from the archive into its cached form.
+     */
+    void write(InputStream in, K key, OutputStream out) throws IOException;
+
+    /**
+     * Loads a model from its cached form. The buffer may be a read-only mapping of the cache file.
+     */
+    M read(ByteBuffer buffer, K key) throws IOException;
+}
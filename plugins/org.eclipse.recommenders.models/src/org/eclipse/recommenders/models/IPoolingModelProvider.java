@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.models;
+
+/**
+ * A model provider that keeps its models in a pool of limited capacity, e.g. a {@link PoolingModelProvider}.
+ */
+public interface IPoolingModelProvider<K extends IUniqueName<?>, M> extends IModelProvider<K, M> {
+
+    /**
+     * Returns a snapshot of the pool's counters, including how much of its capacity is in use.
+     */
+    ModelPoolStatistics getPoolStatistics();
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.models;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A snapshot of the counters of a {@link PoolingModelProvider}.
+ */
+public final class ModelPoolStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long exhaustedCount;
+    private final long evictionCount;
+    private final long totalLoadTimeNanos;
+    private final int borrowedCount;
+    private final int idleCount;
+    private final long weight;
+    private final long maximumWeight;
+
+    ModelPoolStatistics(long hitCount, long missCount, long exhaustedCount, long evictionCount,
+            long totalLoadTimeNanos, int borrowedCount, int idleCount, long weight, long maximumWeight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.exhaustedCount = exhaustedCount;
+        this.evictionCount = evictionCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.borrowedCount = borrowedCount;
+        this.idleCount = idleCount;
+        this.weight = weight;
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Returns how often a pooled model was handed out.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns how often a model had to be loaded, whether or not a model was found.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns how often no model was handed out because the pool was exhausted.
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount;
+    }
+
+    /**
+     * Returns how many idle models were destroyed to make room for other models or because they were idle for too long.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    public double getAverageLoadTimeMillis() {
+        return missCount == 0 ? 0 : (double) NANOSECONDS.toMicros(totalLoadTimeNanos) / 1000 / missCount;
+    }
+
+    public double getHitRate() {
+        long requestCount = hitCount + missCount + exhaustedCount;
+        return requestCount == 0 ? 1 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Returns the number of models currently borrowed by clients.
+     */
+    public int getBorrowedCount() {
+        return borrowedCount;
+    }
+
+    /**
+     * Returns the number of models currently waiting in the pool.
+     */
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * Returns the total weight of all borrowed and idle models.
+     *
+     * @see PoolingModelProvider#weigh(Object)
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the capacity of the pool, in the unit of {@link #getWeight()}.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns how much weight can be added before the pool has to evict idle models, or zero if the pool is full.
+     */
+    public long getRemainingWeight() {
+        return Math.max(0, maximumWeight - weight);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, exhausted=%d, evictions=%d, avg. load time=%.2fms, borrowed=%d, "
+                + "idle=%d, weight=%d/%d", hitCount, missCount, exhaustedCount, evictionCount,
+                getAverageLoadTimeMillis(), borrowedCount, idleCount, weight, maximumWeight);
+    }
+}
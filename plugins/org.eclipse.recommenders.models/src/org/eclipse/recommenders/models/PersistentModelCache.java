@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.models;
+
+import static com.google.common.base.Optional.absent;
+import static java.nio.file.StandardCopyOption.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+
+/**
+ * A second-level cache for the entries of one model archive, holding them in a form that can be used directly from a
+ * memory-mapped file, e.g. a precompiled network instead of a compressed network description. What that form is is up
+ * to the model provider; this class only stores and maps the bytes.
+ * <p>
+ * Every cached entry is stamped with the length and modification time of the archive it was created from. The stamp
+ * is part of the entry's file name, so an entry created from a changed archive is written to a new file rather than
+ * over a file that may still be memory-mapped (which Windows does not permit); files with an outdated stamp are
+ * deleted when possible. Entries are written to a temporary file first and then moved into place, so concurrent
+ * readers and writers, also in different processes, never see a partially written entry.
+ */
+public class PersistentModelCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentModelCache.class);
+
+    private static final String DIRECTORY_SUFFIX = ".cache"; //$NON-NLS-1$
+    private static final String STAMP_SEPARATOR = "@"; //$NON-NLS-1$
+    private static final String ENTRY_SUFFIX = ".bin"; //$NON-NLS-1$
+
+    private static final int MAGIC_NUMBER = 0x524D4331; // "RMC1"
+    // magic number, a reserved int and the archive's length and modification time as in the file name; a multiple of
+    // eight, so that cached entries may contain aligned arrays of longs and doubles
+    private static final int HEADER_BYTES = 24;
+
+    private final File archive;
+    private final File directory;
+
+    /**
+     * Creates a cache in a directory next to the archive, i.e. inside the model repository the archive was resolved
+     * from.
+     */
+    public PersistentModelCache(File archive) {
+        this(archive, new File(archive.getPath() + DIRECTORY_SUFFIX));
+    }
+
+    public PersistentModelCache(File archive, File directory) {
+        this.archive = archive;
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cached content of the entry, memory-mapped read-only, or absent if the entry is not cached or the
+     *         archive has changed since it was cached
+     */
+    public Optional<ByteBuffer> get(String entryPath) throws IOException {
+        long length = archive.length();
+        long lastModified = archive.lastModified();
+        File file = getFile(entryPath, length, lastModified).orNull();
+        if (file == null || !file.isFile()) {
+            return absent();
+        }
+        ByteBuffer mapped;
+        RandomAccessFile raf = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+        try {
+            // the mapping stays valid after the file is closed
+            mapped = raf.getChannel().map(MapMode.READ_ONLY, 0, raf.length());
+        } finally {
+            raf.close();
+        }
+        if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC_NUMBER || mapped.getLong(8) != length
+                || mapped.getLong(16) != lastModified) {
+            delete(file);
+            return absent();
+        }
+        mapped.position(HEADER_BYTES);
+        return Optional.of(mapped.slice());
+    }
+
+    /**
+     * Caches the given content for the entry, replacing any previously cached content, and deletes the entry's files
+     * for previous versions of the archive.
+     */
+    public void put(String entryPath, byte[] content) throws IOException {
+        long length = archive.length();
+        long lastModified = archive.lastModified();
+        File file = getFile(entryPath, length, lastModified).orNull();
+        if (file == null) {
+            throw new IOException("Cannot cache entry " + entryPath);
+        }
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Cannot create cache directory " + parent);
+        }
+        File tmp = File.createTempFile(file.getName(), ".tmp", parent); //$NON-NLS-1$
+        try {
+            DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+            try {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(0);
+                out.writeLong(length);
+                out.writeLong(lastModified);
+                out.write(content);
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING);
+            }
+        } finally {
+            if (tmp.exists()) {
+                delete(tmp);
+            }
+        }
+        deleteOutdated(file);
+    }
+
+    /**
+     * Removes the cached content of the entry, e.g. because it could not be read.
+     */
+    public void invalidate(String entryPath) {
+        File file = getFile(entryPath, archive.length(), archive.lastModified()).orNull();
+        if (file != null && file.exists()) {
+            delete(file);
+        }
+    }
+
+    private Optional<File> getFile(String entryPath, long length, long lastModified) {
+        // entry paths are relative and must not leave the cache directory
+        if (entryPath.isEmpty() || entryPath.startsWith("/") || entryPath.contains("..")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return absent();
+        }
+        return Optional.of(new File(directory, entryPath + STAMP_SEPARATOR + length + '-' + lastModified
+                + ENTRY_SUFFIX));
+    }
+
+    private void deleteOutdated(File current) {
+        String name = current.getName();
+        String prefix = name.substring(0, name.lastIndexOf(STAMP_SEPARATOR) + 1);
+        File[] siblings = current.getParentFile().listFiles();
+        if (siblings == null) {
+            return;
+        }
+        for (File sibling : siblings) {
+            String siblingName = sibling.getName();
+            if (siblingName.startsWith(prefix) && siblingName.endsWith(ENTRY_SUFFIX) && !siblingName.equals(name)) {
+                delete(sibling);
+            }
+        }
+    }
+
+    private static void delete(File file) {
+        // fails on Windows while the file is still memory-mapped; it is then left for a later attempt
+        if (!file.delete() && file.exists()) {
+            LOG.warn("Could not delete cache file {}", file);
+        }
+    }
+}
@@ -14,63 +14,199 @@ import static com.google.common.base.Optional.*;
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 import java.io.IOException;
-import java.util.IdentityHashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.pool.BaseKeyedPoolableObjectFactory;
-import org.apache.commons.pool.impl.GenericKeyedObjectPool;
 import org.eclipse.recommenders.utils.Nullable;
-import org.eclipse.recommenders.utils.Throws;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.MapMaker;
 
 /**
  * A model provider implementation that pools recommendation models to further improve performance. Note that models
  * need to be release by clients. Otherwise the pool may be exhausted quickly.
+ * <p>
+ * Idle models are kept in one lock-free free list per key. The capacity of the pool is the total {@link #weigh(Object)
+ * weight} of all models, borrowed or idle; when it is reached, the least recently released idle models of any key are
+ * evicted to make room. If the pool is still exhausted, {@link #getExhaustedAction()} decides whether to fail, to
+ * wait for a model to be released, or to create a model anyway.
+ * <p>
+ * Models that are garbage collected while borrowed, i.e., that clients never released, are given back to the pool:
+ * their weight no longer counts against the capacity of the pool.
+ * <p>
+ * This class is thread-safe; models may be acquired and released from any thread.
  */
-public abstract class PoolingModelProvider<K extends IUniqueName<?>, M> extends SimpleModelProvider<K, M> {
+public abstract class PoolingModelProvider<K extends IUniqueName<?>, M> extends SimpleModelProvider<K, M>
+        implements IPoolingModelProvider<K, M> {
+
+    /**
+     * What {@link PoolingModelProvider#acquireModel(IUniqueName)} does if the pool is exhausted.
+     */
+    public enum ExhaustedAction {
+        /**
+         * Return {@link Optional#absent()}.
+         */
+        FAIL,
+        /**
+         * Wait up to {@link PoolingModelProvider#getMaxWaitMillis()} for a model to be released, then fail.
+         */
+        BLOCK,
+        /**
+         * Create a model anyway. It is pooled on release if there is room for it by then.
+         */
+        GROW
+    }
+
+    private static final long EVICTION_INTERVAL_MILLIS = MINUTES.toMillis(5);
+    private static final long MIN_EVICTABLE_IDLE_MILLIS = MINUTES.toMillis(5);
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final ConcurrentMap<K, KeyedPool<M>> pools = new ConcurrentHashMap<>();
     // which models are currently borrowed to someone?
     // we need this mapping for implementing releaseModel properly so that clients don't have to submit their keys too.
-    private final IdentityHashMap<M, K> borrowedModels = new IdentityHashMap<>();
-    // model pool
-    // REVIEW: we may want to make pool creation configurable later?
-    private GenericKeyedObjectPool<K, M> pool = createModelPool();
+    // Weak keys are compared by identity, which is what we need for models that may be equal to each other.
+    private final ConcurrentMap<M, BorrowedModel<K, M>> borrowedModels = new MapMaker().weakKeys().makeMap();
+    // keeps the references of borrowed models reachable, so that they are enqueued once a model is collected
+    private final Set<BorrowedModel<K, M>> borrowedReferences = Collections
+            .newSetFromMap(new ConcurrentHashMap<BorrowedModel<K, M>, Boolean>());
+    private final ReferenceQueue<M> collectedModels = new ReferenceQueue<>();
+    // total weight of all borrowed and idle models
+    private final AtomicLong weight = new AtomicLong();
+
+    private final AtomicLong lastEvictionRun = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong releaseCount = new AtomicLong();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final Object releaseSignal = new Object();
+    private volatile boolean closed;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong totalLoadTimeNanos = new AtomicLong();
 
     public PoolingModelProvider(IModelRepository repository, IModelArchiveCoordinateAdvisor index, String modelType,
             Map<String, IInputStreamTransformer> transformers) {
         super(repository, index, modelType, transformers);
     }
 
-    private GenericKeyedObjectPool<K, M> createModelPool() {
-        GenericKeyedObjectPool<K, M> pool = new GenericKeyedObjectPool<K, M>(new ModelPoolFactoryMediator());
-        pool.setMaxTotal(30);
-        pool.setMaxIdle(5);
-        pool.setWhenExhaustedAction(GenericKeyedObjectPool.WHEN_EXHAUSTED_FAIL);
-        // run clean up every 5 minutes:
-        pool.setTimeBetweenEvictionRunsMillis(MINUTES.toMillis(5));
-        // models are evictable after 5 minutes
-        pool.setMinEvictableIdleTimeMillis(MINUTES.toMillis(5));
-        return pool;
+    public PoolingModelProvider(IModelRepository repository, IModelArchiveCoordinateAdvisor index, String modelType,
+            Map<String, IInputStreamTransformer> transformers, @Nullable ICachedModelFormat<K, M> cachedFormat) {
+        super(repository, index, modelType, transformers, cachedFormat);
     }
 
     @Override
     public Optional<M> acquireModel(@Nullable K key) {
-        if (key == null) {
+        if (key == null || closed) {
             return absent();
         }
+        reclaimCollectedModels();
+        evictExpiredModels();
+        KeyedPool<M> pool = getPool(key);
+        long deadline = 0;
+        while (true) {
+            long releasesSeen = releaseCount.get();
+            IdleModel<M> idle = pool.poll();
+            if (idle != null) {
+                hitCount.incrementAndGet();
+                pool.borrowedCount.incrementAndGet();
+                return lend(key, idle.model, idle.weight);
+            }
+            if (reserve(pool)) {
+                return load(key, pool);
+            }
+            switch (getExhaustedAction()) {
+            case GROW:
+                pool.borrowedCount.incrementAndGet();
+                return load(key, pool);
+            case BLOCK:
+                if (deadline == 0) {
+                    deadline = System.currentTimeMillis() + getMaxWaitMillis();
+                }
+                if (awaitRelease(releasesSeen, deadline)) {
+                    continue;
+                }
+                // fall through
+            case FAIL:
+            default:
+                exhaustedCount.incrementAndGet();
+                return absent();
+            }
+        }
+    }
+
+    private KeyedPool<M> getPool(K key) {
+        KeyedPool<M> pool = pools.get(key);
+        if (pool == null) {
+            KeyedPool<M> newPool = new KeyedPool<M>();
+            pool = pools.putIfAbsent(key, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Reserves one of the borrowed models of the key, if neither the key's limit nor the capacity of the pool is
+     * reached.
+     */
+    private boolean reserve(KeyedPool<M> pool) {
+        int maxBorrowed = getMaxBorrowedPerKey();
+        while (true) {
+            int borrowed = pool.borrowedCount.get();
+            if (borrowed >= maxBorrowed) {
+                return false;
+            }
+            if (weight.get() >= getMaximumWeight() && !evictLeastRecentlyReleasedModel()) {
+                return false;
+            }
+            if (pool.borrowedCount.compareAndSet(borrowed, borrowed + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Optional<M> load(K key, KeyedPool<M> pool) {
+        long start = System.nanoTime();
+        M model = null;
         try {
-            M model = pool.borrowObject(key);
-            borrowedModels.put(model, key);
-            return of(model);
-        } catch (Exception e) {
-            // Model provider could not find a model for the given key.
+            model = super.acquireModel(key).orNull();
+        } finally {
+            totalLoadTimeNanos.addAndGet(System.nanoTime() - start);
+            missCount.incrementAndGet();
+            if (model == null) {
+                // give the reservation back, even if loading threw
+                pool.borrowedCount.decrementAndGet();
+                signalRelease();
+            }
+        }
+        if (model == null) {
             return absent();
         }
+        long modelWeight = weigh(model);
+        weight.addAndGet(modelWeight);
+        return lend(key, model, modelWeight);
+    }
+
+    private Optional<M> lend(K key, M model, long modelWeight) {
+        activateModel(model);
+        BorrowedModel<K, M> borrowed = new BorrowedModel<K, M>(model, key, modelWeight, collectedModels);
+        borrowedReferences.add(borrowed);
+        borrowedModels.put(model, borrowed);
+        return of(model);
     }
 
     @Override
@@ -78,54 +214,219 @@ public abstract class PoolingModelProvider<K extends IUniqueName<?>, M> extends
         if (model == null) {
             return;
         }
+        BorrowedModel<K, M> borrowed = borrowedModels.remove(model);
+        if (borrowed == null || !borrowedReferences.remove(borrowed)) {
+            log.error("Couldn't release model " + model + ". It was not borrowed from this pool.");
+            return;
+        }
+        borrowed.clear();
+        KeyedPool<M> pool = getPool(borrowed.key);
         try {
-            K key = borrowedModels.remove(model);
-            pool.returnObject(key, model);
+            passivateModel(model);
+            if (!closed && pool.idleCount.get() < getMaxIdlePerKey() && weight.get() <= getMaximumWeight()) {
+                pool.offer(new IdleModel<M>(model, borrowed.weight, System.currentTimeMillis()));
+            } else {
+                destroy(model, borrowed.weight);
+            }
         } catch (Exception e) {
             log.error("Exception while releasing. Couldn't release model " + model, e);
+            destroy(model, borrowed.weight);
+        } finally {
+            pool.borrowedCount.decrementAndGet();
+            signalRelease();
+        }
+    }
+
+    private void signalRelease() {
+        releaseCount.incrementAndGet();
+        if (waiterCount.get() > 0) {
+            synchronized (releaseSignal) {
+                releaseSignal.notifyAll();
+            }
         }
     }
 
     /**
-     * Mediates calls from Apache Commons Pool implementation to our {create,destroy,passivate}Model() methods above.
+     * @return whether a model has been released since {@code releasesSeen} before the deadline passed
      */
-    private final class ModelPoolFactoryMediator extends BaseKeyedPoolableObjectFactory<K, M> {
-        @Override
-        @Nullable
-        public M makeObject(K key) throws Exception {
-            M result = PoolingModelProvider.super.acquireModel(key).orNull();
-            if (result == null) {
-                Throws.throwCancelationException("Model not found for key '%s'", key);
+    private boolean awaitRelease(long releasesSeen, long deadline) {
+        waiterCount.incrementAndGet();
+        try {
+            synchronized (releaseSignal) {
+                long remaining;
+                while (releaseCount.get() == releasesSeen
+                        && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    releaseSignal.wait(remaining);
+                }
             }
-            return result;
+            return releaseCount.get() != releasesSeen;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiterCount.decrementAndGet();
         }
+    }
 
-        @Override
-        public void activateObject(K key, M obj) throws Exception {
-            PoolingModelProvider.this.activateModel(obj);
+    /**
+     * @return whether an idle model was evicted
+     */
+    private boolean evictLeastRecentlyReleasedModel() {
+        while (true) {
+            KeyedPool<M> oldestPool = null;
+            IdleModel<M> oldest = null;
+            for (KeyedPool<M> pool : pools.values()) {
+                IdleModel<M> candidate = pool.peekOldest();
+                if (candidate != null && (oldest == null || candidate.releaseTime < oldest.releaseTime)) {
+                    oldest = candidate;
+                    oldestPool = pool;
+                }
+            }
+            if (oldest == null) {
+                return false;
+            }
+            // another thread may have taken the model in the meantime
+            if (oldestPool.remove(oldest)) {
+                evict(oldest);
+                return true;
+            }
         }
+    }
 
-        @Override
-        public void passivateObject(K key, M obj) throws Exception {
-            PoolingModelProvider.this.passivateModel(obj);
+    /**
+     * Gives the weight and reservations of models that were collected while borrowed back to the pool.
+     */
+    private void reclaimCollectedModels() {
+        Reference<? extends M> reference;
+        while ((reference = collectedModels.poll()) != null) {
+            if (!borrowedReferences.remove(reference)) {
+                continue;
+            }
+            BorrowedModel<?, ?> borrowed = (BorrowedModel<?, ?>) reference;
+            log.warn("Model for " + borrowed.key + " was never released. Reclaiming its weight.");
+            weight.addAndGet(-borrowed.weight);
+            KeyedPool<M> pool = pools.get(borrowed.key);
+            if (pool != null) {
+                pool.borrowedCount.decrementAndGet();
+            }
+            signalRelease();
         }
+    }
 
-        @Override
-        public void destroyObject(K key, M obj) throws Exception {
-            PoolingModelProvider.this.destroyModel(obj);
+    private void evictExpiredModels() {
+        long now = System.currentTimeMillis();
+        long lastRun = lastEvictionRun.get();
+        if (now - lastRun < EVICTION_INTERVAL_MILLIS || !lastEvictionRun.compareAndSet(lastRun, now)) {
+            return;
         }
+        for (KeyedPool<M> pool : pools.values()) {
+            IdleModel<M> oldest;
+            while ((oldest = pool.peekOldest()) != null && now - oldest.releaseTime >= MIN_EVICTABLE_IDLE_MILLIS) {
+                if (pool.remove(oldest)) {
+                    evict(oldest);
+                }
+            }
+        }
+    }
+
+    private void evict(IdleModel<M> idle) {
+        evictionCount.incrementAndGet();
+        destroy(idle.model, idle.weight);
+    }
+
+    private void destroy(M model, long modelWeight) {
+        weight.addAndGet(-modelWeight);
+        try {
+            destroyModel(model);
+        } catch (Exception e) {
+            log.error("Exception while destroying model " + model, e);
+        }
+    }
+
+    @Override
+    public ModelPoolStatistics getPoolStatistics() {
+        int borrowed = 0;
+        int idle = 0;
+        for (KeyedPool<M> pool : pools.values()) {
+            borrowed += pool.borrowedCount.get();
+            idle += pool.idleCount.get();
+        }
+        return new ModelPoolStatistics(hitCount.get(), missCount.get(), exhaustedCount.get(), evictionCount.get(),
+                totalLoadTimeNanos.get(), borrowed, idle, weight.get(), getMaximumWeight());
     }
 
     @Override
     public void close() throws IOException {
+        closed = true;
         try {
             super.close();
-            pool.close();
-        } catch (Exception e) {
-            throw new IOException(e);
+        } finally {
+            for (KeyedPool<M> pool : pools.values()) {
+                IdleModel<M> idle;
+                while ((idle = pool.poll()) != null) {
+                    destroy(idle.model, idle.weight);
+                }
+            }
+            signalRelease();
         }
     }
 
+    /**
+     * Whether models share their expensive parts, so that the pool may create further models instead of failing to
+     * hand out a model once all pooled models are borrowed.
+     *
+     * @see #getExhaustedAction()
+     */
+    protected boolean isCheapToCreate() {
+        return false;
+    }
+
+    /**
+     * What to do if the pool is exhausted. By default, models are created anyway if they are
+     * {@link #isCheapToCreate() cheap to create}; otherwise acquiring a model fails.
+     */
+    protected ExhaustedAction getExhaustedAction() {
+        return isCheapToCreate() ? ExhaustedAction.GROW : ExhaustedAction.FAIL;
+    }
+
+    /**
+     * How long to wait for a model to be released if the {@link #getExhaustedAction() exhausted action} is
+     * {@link ExhaustedAction#BLOCK}.
+     */
+    protected long getMaxWaitMillis() {
+        return 1000;
+    }
+
+    /**
+     * Returns the weight of a model, e.g. an estimate of its size in bytes. The weights of all pooled models, borrowed
+     * or idle, add up to at most {@link #getMaximumWeight()}. Invoked once per model after it was loaded.
+     */
+    protected long weigh(M model) {
+        return 1;
+    }
+
+    /**
+     * The capacity of the pool, in the unit of {@link #weigh(Object)}. By default, every model weighs one, so this is
+     * the maximum number of models.
+     */
+    protected long getMaximumWeight() {
+        return 30;
+    }
+
+    /**
+     * The maximum number of models per key that can be borrowed at the same time.
+     */
+    protected int getMaxBorrowedPerKey() {
+        return 8;
+    }
+
+    /**
+     * The maximum number of idle models per key that are kept in the pool.
+     */
+    protected int getMaxIdlePerKey() {
+        return 5;
+    }
+
     /**
      * Invoked before the model is returned from the pool.
      */
@@ -144,4 +445,68 @@ public abstract class PoolingModelProvider<K extends IUniqueName<?>, M> extends
     protected void destroyModel(M model) {
     }
 
+    /**
+     * The idle models of one key, most recently released first.
+     */
+    private static final class KeyedPool<M> {
+
+        private final ConcurrentLinkedDeque<IdleModel<M>> idleModels = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+        private final AtomicInteger borrowedCount = new AtomicInteger();
+
+        @Nullable
+        IdleModel<M> poll() {
+            IdleModel<M> idle = idleModels.pollFirst();
+            if (idle != null) {
+                idleCount.decrementAndGet();
+            }
+            return idle;
+        }
+
+        void offer(IdleModel<M> idle) {
+            idleCount.incrementAndGet();
+            idleModels.offerFirst(idle);
+        }
+
+        @Nullable
+        IdleModel<M> peekOldest() {
+            return idleModels.peekLast();
+        }
+
+        boolean remove(IdleModel<M> idle) {
+            if (idleModels.removeLastOccurrence(idle)) {
+                idleCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class IdleModel<M> {
+
+        private final M model;
+        private final long weight;
+        private final long releaseTime;
+
+        IdleModel(M model, long weight, long releaseTime) {
+            this.model = model;
+            this.weight = weight;
+            this.releaseTime = releaseTime;
+        }
+    }
+
+    /**
+     * Enqueued once a borrowed model has been collected without being released.
+     */
+    private static final class BorrowedModel<K, M> extends WeakReference<M> {
+
+        private final K key;
+        private final long weight;
+
+        BorrowedModel(M model, K key, long weight, ReferenceQueue<? super M> queue) {
+            super(model, queue);
+            this.key = key;
+            this.weight = weight;
+        }
+    }
 }
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.models;
+
+import static java.util.concurrent.TimeUnit.*;
+import static org.eclipse.recommenders.utils.Zips.closeQuietly;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipFile;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Process-wide, reference-counted zip files. All model providers reading the same model archive share one
+ * {@link ZipFile}, which maps the archive's central directory and reads entries on demand; the archive is neither
+ * opened again by every provider nor read as a whole.
+ * <p>
+ * A zip file is opened by the first {@link #acquire(File)} and stays open while handles to it are open. Once the last
+ * handle is closed, the zip file is kept open for a while, so that it can be handed out again without reopening it.
+ * Archives changed on disk are opened anew; the outdated zip file is closed once its last handle is closed.
+ */
+public final class SharedZipFiles {
+
+    private static final int MAX_IDLE = 10;
+    private static final long MAX_IDLE_MILLIS = MINUTES.toMillis(1);
+
+    private static final SharedZipFiles INSTANCE = new SharedZipFiles(MAX_IDLE, MAX_IDLE_MILLIS);
+
+    public static SharedZipFiles getInstance() {
+        return INSTANCE;
+    }
+
+    private final int maxIdle;
+    private final long maxIdleNanos;
+
+    // guarded by this
+    private final Map<File, SharedZipFile> zips = new HashMap<>();
+
+    @VisibleForTesting
+    SharedZipFiles(int maxIdle, long maxIdleMillis) {
+        this.maxIdle = maxIdle;
+        this.maxIdleNanos = MILLISECONDS.toNanos(maxIdleMillis);
+    }
+
+    /**
+     * Returns a handle to the zip file of the given archive, opening the archive if it is not yet open. The handle
+     * must be closed once the zip file is no longer used; the zip file itself must not be closed.
+     */
+    public Handle acquire(File archive) throws IOException {
+        File key = archive.getAbsoluteFile();
+        Handle handle = acquireOpen(key);
+        if (handle != null) {
+            return handle;
+        }
+        // opening reads the archive's central directory; other archives must not wait for that
+        SharedZipFile opened = new SharedZipFile(key);
+        synchronized (this) {
+            handle = acquireOpen(key);
+            if (handle == null) {
+                zips.put(key, opened);
+                opened.references++;
+                return new Handle(opened);
+            }
+        }
+        // another thread has opened the archive in the meantime
+        closeQuietly(opened.zipFile);
+        return handle;
+    }
+
+    /**
+     * @return a handle to the zip file of the archive, or {@code null} if the archive is not open or has changed
+     */
+    private synchronized Handle acquireOpen(File key) {
+        closeExpired(System.nanoTime());
+        SharedZipFile zip = zips.get(key);
+        if (zip == null) {
+            return null;
+        }
+        if (!zip.isUpToDate()) {
+            zips.remove(key);
+            zip.outdated = true;
+            if (zip.references == 0) {
+                closeQuietly(zip.zipFile);
+            }
+            return null;
+        }
+        zip.references++;
+        return new Handle(zip);
+    }
+
+    private synchronized void release(SharedZipFile zip) {
+        zip.references--;
+        if (zip.references > 0) {
+            return;
+        }
+        if (zip.outdated) {
+            closeQuietly(zip.zipFile);
+            return;
+        }
+        zip.idleSinceNanos = System.nanoTime();
+        closeExpired(zip.idleSinceNanos);
+        closeExcessIdle();
+    }
+
+    private void closeExpired(long now) {
+        for (Iterator<SharedZipFile> it = zips.values().iterator(); it.hasNext();) {
+            SharedZipFile zip = it.next();
+            if (zip.references == 0 && now - zip.idleSinceNanos >= maxIdleNanos) {
+                it.remove();
+                closeQuietly(zip.zipFile);
+            }
+        }
+    }
+
+    private void closeExcessIdle() {
+        while (true) {
+            int idle = 0;
+            SharedZipFile longestIdle = null;
+            for (SharedZipFile zip : zips.values()) {
+                if (zip.references == 0) {
+                    idle++;
+                    if (longestIdle == null || zip.idleSinceNanos - longestIdle.idleSinceNanos < 0) {
+                        longestIdle = zip;
+                    }
+                }
+            }
+            if (idle <= maxIdle) {
+                return;
+            }
+            zips.remove(longestIdle.file);
+            closeQuietly(longestIdle.zipFile);
+        }
+    }
+
+    /**
+     * Returns the number of zip files currently open and not outdated, whether or not handles to them are open.
+     */
+    @VisibleForTesting
+    synchronized int getOpenCount() {
+        return zips.size();
+    }
+
+    private static final class SharedZipFile {
+
+        private final File file;
+        private final ZipFile zipFile;
+        private final long length;
+        private final long lastModified;
+
+        // guarded by the enclosing SharedZipFiles
+        private int references;
+        private long idleSinceNanos;
+        private boolean outdated;
+
+        private SharedZipFile(File file) throws IOException {
+            this.file = file;
+            // stamp before opening; a change while opening then leads to reopening the archive next time
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+            this.zipFile = new ZipFile(file);
+        }
+
+        private boolean isUpToDate() {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+    /**
+     * A reference to a shared zip file. Closing the handle releases the reference; closing it again has no effect.
+     */
+    public final class Handle implements Closeable {
+
+        private final SharedZipFile zip;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Handle(SharedZipFile zip) {
+            this.zip = zip;
+        }
+
+        public ZipFile getZipFile() {
+            return zip.zipFile;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(zip);
+            }
+        }
+    }
+}
@@ -11,20 +11,21 @@
 package org.eclipse.recommenders.models;
 
 import static com.google.common.base.Optional.absent;
-import static com.google.common.io.ByteStreams.toByteArray;
-import static com.google.common.io.Files.newInputStreamSupplier;
 import static java.util.concurrent.TimeUnit.MINUTES;
-import static org.eclipse.recommenders.utils.Zips.closeQuietly;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import org.eclipse.recommenders.models.SharedZipFiles.Handle;
 import org.eclipse.recommenders.utils.IOUtils;
+import org.eclipse.recommenders.utils.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,19 +49,33 @@ public abstract class SimpleModelProvider<K extends IUniqueName<?>, M> implement
 
     private static final int CACHE_SIZE = 10;
 
-    private final LoadingCache<ModelCoordinate, ZipFile> openZips = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE)
-            .expireAfterAccess(1, MINUTES).removalListener(new ZipRemovalListener()).build(new ZipCacheLoader());
+    private final LoadingCache<ModelCoordinate, OpenArchive> openZips = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).expireAfterAccess(1, MINUTES).removalListener(new ZipRemovalListener())
+            .build(new ZipCacheLoader());
     private final IModelRepository repository;
     private final IModelArchiveCoordinateAdvisor index;
     private final String modelType;
     private final Map<String, IInputStreamTransformer> transformers;
+    @Nullable
+    private final ICachedModelFormat<K, M> cachedFormat;
 
     public SimpleModelProvider(IModelRepository cache, IModelArchiveCoordinateAdvisor index, String modelType,
             Map<String, IInputStreamTransformer> transformers) {
+        this(cache, index, modelType, transformers, null);
+    }
+
+    /**
+     * @param cachedFormat
+     *            the binary form in which models are cached next to their archive, or {@code null} if models are
+     *            always loaded from the archive
+     */
+    public SimpleModelProvider(IModelRepository cache, IModelArchiveCoordinateAdvisor index, String modelType,
+            Map<String, IInputStreamTransformer> transformers, @Nullable ICachedModelFormat<K, M> cachedFormat) {
         this.repository = cache;
         this.index = index;
         this.modelType = modelType;
         this.transformers = transformers;
+        this.cachedFormat = cachedFormat;
     }
 
     @Override
@@ -72,9 +87,9 @@ public abstract class SimpleModelProvider<K extends IUniqueName<?>, M> implement
                 return absent();
             }
 
-            final ZipFile zip;
+            final OpenArchive archive;
             try {
-                zip = openZips.get(mc);
+                archive = openZips.get(mc);
             } catch (UncheckedExecutionException e) {
                 if (IllegalStateException.class.equals(e.getCause().getClass())) {
                     // repository.getLocation(..) returned absent. Try to load ZIP file again next time.
@@ -85,7 +100,7 @@ public abstract class SimpleModelProvider<K extends IUniqueName<?>, M> implement
                 }
             }
 
-            return doAcquireModel(key, zip);
+            return doAcquireModel(key, archive.handle.getZipFile(), archive.cache);
         } catch (Exception e) {
             LOG.error("Exception while loading model " + key, e);
             return absent();
@@ -94,9 +109,24 @@ public abstract class SimpleModelProvider<K extends IUniqueName<?>, M> implement
 
     @VisibleForTesting
     protected Optional<M> doAcquireModel(K key, ZipFile zip) throws IOException {
+        return doAcquireModel(key, zip, null);
+    }
+
+    private Optional<M> doAcquireModel(K key, ZipFile zip, @Nullable PersistentModelCache cache) throws IOException {
         InputStream in = null;
         try {
             String basePath = getBasePath(key);
+            if (cache != null) {
+                M cached = loadFromCache(cache, basePath, key);
+                if (cached != null) {
+                    return Optional.of(cached);
+                }
+                in = getInputStream(zip, basePath).orNull();
+                if (in == null) {
+                    return absent();
+                }
+                return Optional.of(loadAndCache(cache, basePath, in, key));
+            }
             in = getInputStream(zip, basePath).orNull();
             if (in == null) {
                 return absent();
@@ -134,6 +164,31 @@ public abstract class SimpleModelProvider<K extends IUniqueName<?>, M> implement
 
     protected abstract M loadModel(InputStream stream, K key) throws IOException;
 
+    private M loadFromCache(PersistentModelCache cache, String basePath, K key) {
+        try {
+            ByteBuffer buffer = cache.get(basePath).orNull();
+            return buffer == null ? null : cachedFormat.read(buffer, key);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Discarding unreadable cached model " + basePath, e);
+            cache.invalidate(basePath);
+            return null;
+        }
+    }
+
+    private M loadAndCache(PersistentModelCache cache, String basePath, InputStream in, K key) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cachedFormat.write(in, key, out);
+        byte[] content = out.toByteArray();
+        ByteBuffer buffer = null;
+        try {
+            cache.put(basePath, content);
+            buffer = cache.get(basePath).orNull();
+        } catch (IOException e) {
+            LOG.warn("Could not write cached model " + basePath, e);
+        }
+        return cachedFormat.read(buffer == null ? ByteBuffer.wrap(content) : buffer, key);
+    }
+
     @Override
     public void releaseModel(M value) {
     }
@@ -148,26 +203,39 @@ public abstract class SimpleModelProvider<K extends IUniqueName<?>, M> implement
     }
 
     /**
-     * Resolves the given model archive coordinate from models store, puts the zip file into the cache, and loads the
-     * file contents completely in memory for faster data access.
+     * A handle to a zip file, shared with all other providers, and the persistent cache of its models, if any.
+     */
+    private static final class OpenArchive {
+
+        private final Handle handle;
+        @Nullable
+        private final PersistentModelCache cache;
+
+        private OpenArchive(Handle handle, @Nullable PersistentModelCache cache) {
+            this.handle = handle;
+            this.cache = cache;
+        }
+    }
+
+    /**
+     * Resolves the given model archive coordinate from models store and puts a handle to the zip file into the cache.
      */
-    private final class ZipCacheLoader extends CacheLoader<ModelCoordinate, ZipFile> {
+    private final class ZipCacheLoader extends CacheLoader<ModelCoordinate, OpenArchive> {
         @Override
-        public ZipFile load(ModelCoordinate key) throws Exception {
+        public OpenArchive load(ModelCoordinate key) throws Exception {
             File location = repository.getLocation(key, true).get();
-            // read file in memory to speed up access
-            toByteArray(newInputStreamSupplier(location));
-            return new ZipFile(location);
+            Handle handle = SharedZipFiles.getInstance().acquire(location);
+            return new OpenArchive(handle, cachedFormat == null ? null : new PersistentModelCache(location));
         }
     }
 
     /**
-     * Closes an zip file evicted from the cache.
+     * Releases the handle to a zip file evicted from the cache.
      */
-    private final class ZipRemovalListener implements RemovalListener<ModelCoordinate, ZipFile> {
+    private final class ZipRemovalListener implements RemovalListener<ModelCoordinate, OpenArchive> {
         @Override
-        public void onRemoval(RemovalNotification<ModelCoordinate, ZipFile> notification) {
-            closeQuietly(notification.getValue());
+        public void onRemoval(RemovalNotification<ModelCoordinate, OpenArchive> notification) {
+            IOUtils.closeQuietly(notification.getValue().handle);
         }
     }
 }
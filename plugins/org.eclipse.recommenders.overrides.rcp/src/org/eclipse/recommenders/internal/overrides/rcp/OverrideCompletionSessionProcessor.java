@@ -16,7 +16,9 @@ import static org.eclipse.recommenders.completion.rcp.processable.ProposalTag.RE
 import static org.eclipse.recommenders.rcp.SharedImages.Images.OVR_STAR;
 import static org.eclipse.recommenders.utils.Recommendations.asPercentage;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -64,6 +66,7 @@ public class OverrideCompletionSessionProcessor extends SessionProcessor {
     private ProjectCoordinate pc;
     private IOverrideModel model;
     private List<Recommendation<IMethodName>> recommendations;
+    private Map<String /* signature */, Recommendation<IMethodName>> recommendationsBySignature;
 
     @Inject
     public OverrideCompletionSessionProcessor(IProjectCoordinateProvider pcProvider,
@@ -137,6 +140,13 @@ public class OverrideCompletionSessionProcessor extends SessionProcessor {
         }
         recommendations = Recommendations.top(model.recommendOverrides(), prefs.maxNumberOfProposals,
                 prefs.minProposalPercentage / 100d);
+        recommendationsBySignature = new HashMap<String, Recommendation<IMethodName>>();
+        for (Recommendation<IMethodName> r : recommendations) {
+            String signature = r.getProposal().getSignature();
+            if (!recommendationsBySignature.containsKey(signature)) {
+                recommendationsBySignature.put(signature, r);
+            }
+        }
     }
 
     @Override
@@ -154,35 +164,27 @@ public class OverrideCompletionSessionProcessor extends SessionProcessor {
             final String signature = valueOf(coreProposal.getSignature()).replace('.', '/');
             final String name = valueOf(coreProposal.getName());
             final String propSignature = (name + signature).replaceAll("<\\.>", ""); //$NON-NLS-1$ //$NON-NLS-2$
-            for (final Recommendation<IMethodName> r : recommendations) {
-                IMethodName rMethod = r.getProposal();
-                if (!rMethod.getName().startsWith(prefix)) {
-                    continue;
-                }
-
-                final String recSignature = rMethod.getSignature();
-                if (!recSignature.equals(propSignature)) {
-                    continue;
-                }
-
-                // XXX rather high value but otherwise the default constructor shows up between the overrides
-                // proposals
-                final int boost = prefs.changeProposalRelevance ? 1000 + asPercentage(r) : 0;
-                final String label = prefs.decorateProposalText
-                        ? format(Messages.PROPOSAL_LABEL_PERCENTAGE, r.getRelevance()) : ""; //$NON-NLS-1$
-
-                if (boost > 0) {
-                    // TODO Shouldn't this convey the real boost?
-                    proposal.setTag(RECOMMENDERS_SCORE, asPercentage(r));
-                }
-
-                ProposalProcessorManager mgr = proposal.getProposalProcessorManager();
-                mgr.addProcessor(new SimpleProposalProcessor(boost, label));
-                if (prefs.decorateProposalIcon) {
-                    mgr.addProcessor(overlayProcessor);
-                }
+            final Recommendation<IMethodName> r = recommendationsBySignature.get(propSignature);
+            if (r == null || !r.getProposal().getName().startsWith(prefix)) {
                 return;
             }
+
+            // XXX rather high value but otherwise the default constructor shows up between the overrides
+            // proposals
+            final int boost = prefs.changeProposalRelevance ? 1000 + asPercentage(r) : 0;
+            final String label = prefs.decorateProposalText
+                    ? format(Messages.PROPOSAL_LABEL_PERCENTAGE, r.getRelevance()) : ""; //$NON-NLS-1$
+
+            if (boost > 0) {
+                // TODO Shouldn't this convey the real boost?
+                proposal.setTag(RECOMMENDERS_SCORE, asPercentage(r));
+            }
+
+            ProposalProcessorManager mgr = proposal.getProposalProcessorManager();
+            mgr.addProcessor(new SimpleProposalProcessor(boost, label));
+            if (prefs.decorateProposalIcon) {
+                mgr.addProcessor(overlayProcessor);
+            }
         }
     }
 }
@@ -21,6 +21,8 @@ import java.util.Map;
 
 import org.eclipse.recommenders.jayes.BayesNet;
 import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.inference.AbstractInferrer;
+import org.eclipse.recommenders.jayes.inference.NaiveBayesInferrer;
 import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm;
 import org.eclipse.recommenders.utils.Recommendation;
 import org.eclipse.recommenders.utils.gson.GsonUtil;
@@ -49,7 +51,7 @@ public class JayesOverrideModel implements IOverrideModel {
         return network;
     }
 
-    private JunctionTreeAlgorithm junctionTreeAlgorithm;
+    private AbstractInferrer inferrer;
     private ITypeName typeName;
     private BayesNode patternNode;
     private Map<IMethodName, BayesNode> methodNodes;
@@ -58,8 +60,9 @@ public class JayesOverrideModel implements IOverrideModel {
             final List<BayesNode> methodNodes) {
         this.typeName = typeName;
         this.patternNode = patternNode;
-        junctionTreeAlgorithm = new JunctionTreeAlgorithm();
-        junctionTreeAlgorithm.setNetwork(network);
+        // the builder creates naive Bayes networks, which do not need the junction tree algorithm
+        inferrer = NaiveBayesInferrer.isNaiveBayes(network) ? new NaiveBayesInferrer() : new JunctionTreeAlgorithm();
+        inferrer.setNetwork(network);
         createMethodNameMapping(methodNodes);
     }
 
@@ -72,7 +75,7 @@ public class JayesOverrideModel implements IOverrideModel {
 
     @Override
     public void reset() {
-        junctionTreeAlgorithm.setEvidence(new HashMap<BayesNode, String>());
+        inferrer.setEvidence(new HashMap<BayesNode, String>());
     }
 
     @Override
@@ -94,7 +97,7 @@ public class JayesOverrideModel implements IOverrideModel {
     public void setObservedMethod(final IMethodName methodName) {
         final BayesNode methodNode = methodNodes.get(methodName);
         if (methodNode != null) {
-            junctionTreeAlgorithm.addEvidence(methodNode, "true");
+            inferrer.addEvidence(methodNode, "true");
         }
     }
 
@@ -102,10 +105,10 @@ public class JayesOverrideModel implements IOverrideModel {
     public List<Recommendation<IMethodName>> recommendOverrides() {
         final List<Recommendation<IMethodName>> recommendations = Lists.newLinkedList();
         for (final BayesNode node : methodNodes.values()) {
-            if (junctionTreeAlgorithm.getEvidence().containsKey(node)) {
+            if (inferrer.getEvidence().containsKey(node)) {
                 continue;
             }
-            final double probability = junctionTreeAlgorithm.getBeliefs(node)[0];
+            final double probability = inferrer.getBeliefs(node)[0];
             final IMethodName method = VmMethodName.get(node.getName());
             recommendations.add(Recommendation.newRecommendation(method, probability));
         }
@@ -11,7 +11,6 @@
 package org.eclipse.recommenders.overrides;
 
 import static org.eclipse.recommenders.utils.Constants.DOT_JSON;
-import static org.eclipse.recommenders.utils.Zips.*;
 
 import java.io.File;
 import java.io.IOException;
@@ -24,6 +23,7 @@ import java.util.zip.ZipFile;
 
 import org.eclipse.recommenders.models.IInputStreamTransformer;
 import org.eclipse.recommenders.models.IUniqueName;
+import org.eclipse.recommenders.models.SharedZipFiles;
 import org.eclipse.recommenders.models.UniqueTypeName;
 import org.eclipse.recommenders.utils.IOUtils;
 import org.eclipse.recommenders.utils.Openable;
@@ -42,6 +42,7 @@ import com.google.common.base.Optional;
 public class SingleZipOverrideModelProvider implements IOverrideModelProvider, Openable {
 
     private final File models;
+    private SharedZipFiles.Handle handle;
     private ZipFile zip;
     private Map<String, IInputStreamTransformer> transformers;
 
@@ -52,13 +53,13 @@ public class SingleZipOverrideModelProvider implements IOverrideModelProvider, O
 
     @Override
     public void open() throws IOException {
-        readFully(models);
-        zip = new ZipFile(models);
+        handle = SharedZipFiles.getInstance().acquire(models);
+        zip = handle.getZipFile();
     }
 
     @Override
     public void close() throws IOException {
-        closeQuietly(zip);
+        IOUtils.closeQuietly(handle);
     }
 
     public Set<ITypeName> acquireableTypes() {
@@ -77,6 +77,7 @@ import org.eclipse.recommenders.snipmatch.GitSnippetRepository;
 import org.eclipse.recommenders.snipmatch.GitSnippetRepository.GitNoCurrentFormatBranchException;
 import org.eclipse.recommenders.snipmatch.GitSnippetRepository.GitNoFormatBranchException;
 import org.eclipse.recommenders.snipmatch.GitSnippetRepository.GitUpdateException;
+import org.eclipse.recommenders.snipmatch.ICandidateSearch;
 import org.eclipse.recommenders.snipmatch.ISearchContext;
 import org.eclipse.recommenders.snipmatch.ISnippet;
 import org.eclipse.recommenders.snipmatch.ISnippetRepository;
@@ -103,7 +104,7 @@ import com.google.common.eventbus.Subscribe;
 import com.google.inject.name.Names;
 
 @SuppressWarnings("restriction")
-public class EclipseGitSnippetRepository implements ISnippetRepository {
+public class EclipseGitSnippetRepository implements ISnippetRepository, ICandidateSearch {
 
     private static final String SNIPPETS_DIR = "snippets/"; //$NON-NLS-1$
 
@@ -287,6 +288,19 @@ public class EclipseGitSnippetRepository implements ISnippetRepository {
         }
     }
 
+    @Override
+    public List<Recommendation<ISnippet>> searchCandidates(ISearchContext context, Collection<UUID> candidates) {
+        readLock.lock();
+        try {
+            if (!isOpen() || !delegateOpen) {
+                return Collections.emptyList();
+            }
+            return delegate.searchCandidates(context, candidates);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     @Override
     public List<Recommendation<ISnippet>> search(ISearchContext context, int maxResults) {
         readLock.lock();
@@ -13,6 +13,7 @@ package org.eclipse.recommenders.internal.snipmatch.rcp;
 
 import static com.google.common.base.Optional.*;
 import static java.text.MessageFormat.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.recommenders.internal.snipmatch.rcp.SnipmatchRcpModule.REPOSITORY_CONFIGURATION_FILE;
 import static org.eclipse.recommenders.rcp.SharedImages.Images.*;
 import static org.eclipse.recommenders.utils.Checks.*;
@@ -71,6 +72,8 @@ import org.eclipse.recommenders.rcp.SharedImages.Images;
 import org.eclipse.recommenders.rcp.utils.Jobs;
 import org.eclipse.recommenders.snipmatch.ISnippet;
 import org.eclipse.recommenders.snipmatch.ISnippetRepository;
+import org.eclipse.recommenders.snipmatch.MultiRepositorySearch;
+import org.eclipse.recommenders.snipmatch.MultiRepositorySearch.Match;
 import org.eclipse.recommenders.snipmatch.SearchContext;
 import org.eclipse.recommenders.snipmatch.Snippet;
 import org.eclipse.recommenders.snipmatch.model.SnippetRepositoryConfiguration;
@@ -84,7 +87,6 @@ import org.eclipse.recommenders.snipmatch.rcp.model.SnippetRepositoryConfigurati
 import org.eclipse.recommenders.utils.Logs;
 import org.eclipse.recommenders.utils.Nonnull;
 import org.eclipse.recommenders.utils.Nullable;
-import org.eclipse.recommenders.utils.Recommendation;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.KeyAdapter;
 import org.eclipse.swt.events.KeyEvent;
@@ -105,6 +107,7 @@ import org.eclipse.ui.progress.UIJob;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedListMultimap;
@@ -122,6 +125,8 @@ public class SnippetsView extends ViewPart implements IRcpService {
     public static final String TREE = "org.eclipse.recommenders.snipmatch.rcp.snippetsview.tree"; //$NON-NLS-1$
     public static final String SWT_ID = "org.eclipse.swtbot.widget.key"; //$NON-NLS-1$
 
+    private static final long SEARCH_TIMEOUT_SECONDS = 5;
+
     private Text txtSearch;
     private TreeViewer treeViewer;
     private Tree tree;
@@ -135,6 +140,7 @@ public class SnippetsView extends ViewPart implements IRcpService {
     private final File repositoryConfigurationFile;
     private final EventBus bus;
     private final SnipmatchRcpPreferences prefs;
+    private final MultiRepositorySearch search = new MultiRepositorySearch();
 
     private Action addRepositoryAction;
     private Action removeRepositoryAction;
@@ -852,16 +858,20 @@ public class SnippetsView extends ViewPart implements IRcpService {
 
     @Subscribe
     public void onEvent(SnippetRepositoryOpenedEvent e) throws IOException {
+        // the results of previous searches lack the snippets of the opened repository
+        search.reset();
         refreshUI();
     }
 
     @Subscribe
     public void onEvent(SnippetRepositoryClosedEvent e) throws IOException {
+        search.reset();
         refreshUI();
     }
 
     @Subscribe
     public void onEvent(SnippetRepositoryContentChangedEvent e) throws IOException {
+        search.reset();
         refreshUI();
     }
 
@@ -943,27 +953,37 @@ public class SnippetsView extends ViewPart implements IRcpService {
                 ListMultimap<SnippetRepositoryConfiguration, KnownSnippet> snippetsGroupedByRepositoryName = LinkedListMultimap
                         .create();
 
-                monitor.beginTask(Messages.MONITOR_SEARCH_SNIPPETS, configs.getRepos().size());
+                monitor.beginTask(Messages.MONITOR_SEARCH_SNIPPETS, 2);
+                List<SnippetRepositoryConfiguration> searchedConfigs = Lists.newArrayList();
+                List<ISnippetRepository> searchedRepos = Lists.newArrayList();
                 for (SnippetRepositoryConfiguration config : configs.getRepos()) {
-                    if (monitor.isCanceled()) {
-                        return snippetsGroupedByRepositoryName;
-                    }
                     ISnippetRepository repo = repos.getRepository(config.getId()).orNull();
-                    if (repo == null) {
-                        continue;
-                    }
-                    Set<KnownSnippet> knownSnippets = Sets.newHashSet();
-                    for (Recommendation<ISnippet> recommendation : repo.search(new SearchContext(searchTerm.trim()))) {
-                        if (monitor.isCanceled()) {
-                            return snippetsGroupedByRepositoryName;
-                        }
-                        knownSnippets.add(new KnownSnippet(config, recommendation.getProposal()));
+                    if (repo != null) {
+                        searchedConfigs.add(config);
+                        searchedRepos.add(repo);
                     }
+                }
+                // the view lists every matching snippet, so the merged results are not bounded
+                List<Match> matches = search.search(searchedRepos, new SearchContext(searchTerm.trim()),
+                        Integer.MAX_VALUE, SEARCH_TIMEOUT_SECONDS, SECONDS);
+                monitor.worked(1);
+                if (monitor.isCanceled()) {
+                    return snippetsGroupedByRepositoryName;
+                }
+
+                ListMultimap<Integer, KnownSnippet> knownSnippetsByRepository = ArrayListMultimap.create();
+                for (Match match : matches) {
+                    int index = match.getRepositoryPriority();
+                    knownSnippetsByRepository.put(index,
+                            new KnownSnippet(searchedConfigs.get(index), match.getRecommendation().getProposal()));
+                }
+                for (int index = 0; index < searchedConfigs.size(); index++) {
+                    Set<KnownSnippet> knownSnippets = Sets.newHashSet(knownSnippetsByRepository.get(index));
                     List<KnownSnippet> sorted = Ordering.from(String.CASE_INSENSITIVE_ORDER)
                             .onResultOf(toStringRepresentation).sortedCopy(knownSnippets);
-                    snippetsGroupedByRepositoryName.putAll(config, sorted);
-                    monitor.worked(1);
+                    snippetsGroupedByRepositoryName.putAll(searchedConfigs.get(index), sorted);
                 }
+                monitor.worked(1);
 
                 return snippetsGroupedByRepositoryName;
             } finally {
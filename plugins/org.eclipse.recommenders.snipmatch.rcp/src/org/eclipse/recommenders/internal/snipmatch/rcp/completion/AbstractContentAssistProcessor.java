@@ -10,6 +10,7 @@
  */
 package org.eclipse.recommenders.internal.snipmatch.rcp.completion;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.eclipse.recommenders.internal.snipmatch.rcp.Constants.SNIPMATCH_CONTEXT_ID;
 import static org.eclipse.recommenders.utils.Logs.log;
 
@@ -46,6 +47,8 @@ import org.eclipse.recommenders.rcp.SharedImages;
 import org.eclipse.recommenders.snipmatch.ISnippet;
 import org.eclipse.recommenders.snipmatch.ISnippetRepository;
 import org.eclipse.recommenders.snipmatch.Location;
+import org.eclipse.recommenders.snipmatch.MultiRepositorySearch;
+import org.eclipse.recommenders.snipmatch.MultiRepositorySearch.Match;
 import org.eclipse.recommenders.snipmatch.SearchContext;
 import org.eclipse.recommenders.snipmatch.model.SnippetRepositoryConfiguration;
 import org.eclipse.recommenders.snipmatch.rcp.model.SnippetRepositoryConfigurations;
@@ -62,6 +65,9 @@ import com.google.common.collect.Sets;
 public abstract class AbstractContentAssistProcessor<T extends ContentAssistInvocationContext>
         implements IContentAssistProcessor {
 
+    private static final int MAX_PROPOSALS = 100;
+    private static final long SEARCH_TIMEOUT_MILLIS = 500;
+
     private final Repositories repos;
     private final SnippetRepositoryConfigurations configs;
     private final IProjectCoordinateProvider pcProvider;
@@ -75,6 +81,7 @@ public abstract class AbstractContentAssistProcessor<T extends ContentAssistInvo
     private String terms;
     private ContextLoadingProposal contextLoadingProposal;
     private String filename;
+    private final MultiRepositorySearch search = new MultiRepositorySearch();
 
     @Inject
     public AbstractContentAssistProcessor(TemplateContextType templateContextType,
@@ -91,6 +98,7 @@ public abstract class AbstractContentAssistProcessor<T extends ContentAssistInvo
 
     public void setContext(T context) {
         this.context = context;
+        search.reset();
         this.availableDependencies = calculateAvailableDependencies(context);
         if (!allProjectCoordinatesCached(pcProvider, availableDependencies)) {
             contextLoadingProposal = new ContextLoadingProposal(pcProvider, availableDependencies, contextLoadingImage);
@@ -147,28 +155,42 @@ public abstract class AbstractContentAssistProcessor<T extends ContentAssistInvo
         TemplateContext templateContext = getTemplateContext(document, position);
         templateContext.setVariable("selection", selectedText); //$NON-NLS-1$
 
+        // the priority of a repository is the index of its configuration, whether the repository is available or not
+        List<Integer> searchedPriorities = Lists.newArrayList();
+        List<ISnippetRepository> searchedRepos = Lists.newArrayList();
         for (int repositoryPriority = 0; repositoryPriority < sortedConfigs.size(); repositoryPriority++) {
             Optional<ISnippetRepository> repo = repos.getRepository(sortedConfigs.get(repositoryPriority).getId());
-
             if (repo.isPresent()) {
-                List<Recommendation<ISnippet>> recommendations = repo.get().search(searchContext);
-                if (!recommendations.isEmpty()) {
-                    proposals.add(new RepositoryProposal(sortedConfigs.get(repositoryPriority), repositoryPriority,
-                            recommendations.size()));
-                    for (Recommendation<ISnippet> recommendation : recommendations) {
-                        ISnippet snippet = recommendation.getProposal();
-
-                        Template template = new Template(snippet.getName(), snippet.getDescription(),
-                                SNIPMATCH_CONTEXT_ID, snippet.getCode(), true);
-
-                        try {
-                            proposals.add(SnippetProposal.newSnippetProposal(recommendation, repositoryPriority,
-                                    template, templateContext, region, snippetImage));
-                        } catch (Exception e) {
-                            log(LogMessages.ERROR_CREATING_SNIPPET_PROPOSAL_FAILED, e);
-                        }
-                    }
-                }
+                searchedPriorities.add(repositoryPriority);
+                searchedRepos.add(repo.get());
+            }
+        }
+
+        List<Match> matches = search.search(searchedRepos, searchContext, MAX_PROPOSALS, SEARCH_TIMEOUT_MILLIS,
+                MILLISECONDS);
+
+        int[] matchesPerRepository = new int[sortedConfigs.size()];
+        for (Match match : matches) {
+            int repositoryPriority = searchedPriorities.get(match.getRepositoryPriority());
+            matchesPerRepository[repositoryPriority]++;
+
+            Recommendation<ISnippet> recommendation = match.getRecommendation();
+            ISnippet snippet = recommendation.getProposal();
+
+            Template template = new Template(snippet.getName(), snippet.getDescription(), SNIPMATCH_CONTEXT_ID,
+                    snippet.getCode(), true);
+
+            try {
+                proposals.add(SnippetProposal.newSnippetProposal(recommendation, repositoryPriority, template,
+                        templateContext, region, snippetImage));
+            } catch (Exception e) {
+                log(LogMessages.ERROR_CREATING_SNIPPET_PROPOSAL_FAILED, e);
+            }
+        }
+        for (int repositoryPriority = 0; repositoryPriority < sortedConfigs.size(); repositoryPriority++) {
+            if (matchesPerRepository[repositoryPriority] > 0) {
+                proposals.add(new RepositoryProposal(sortedConfigs.get(repositoryPriority), repositoryPriority,
+                        matchesPerRepository[repositoryPriority]));
             }
         }
 
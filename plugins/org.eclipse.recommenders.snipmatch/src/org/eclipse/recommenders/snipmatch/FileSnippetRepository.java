@@ -45,6 +45,8 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Index;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -55,9 +57,12 @@ import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.DefaultSimilarity;
+import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.QueryWrapperFilter;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Similarity;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.Directory;
@@ -67,6 +72,7 @@ import org.eclipse.recommenders.coordinates.ProjectCoordinate;
 import org.eclipse.recommenders.internal.snipmatch.Filenames;
 import org.eclipse.recommenders.internal.snipmatch.MultiFieldPrefixQueryParser;
 import org.eclipse.recommenders.utils.IOUtils;
+import org.eclipse.recommenders.utils.Nullable;
 import org.eclipse.recommenders.utils.Recommendation;
 import org.eclipse.recommenders.utils.gson.GsonUtil;
 import org.slf4j.Logger;
@@ -84,7 +90,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
-public class FileSnippetRepository implements ISnippetRepository {
+public class FileSnippetRepository implements ISnippetRepository, ICandidateSearch {
 
     public static final String NO_FILENAME_RESTRICTION = "*no filename restriction*";
 
@@ -102,6 +108,21 @@ public class FileSnippetRepository implements ISnippetRepository {
     private static final String F_LOCATION = "location";
     private static final String F_DEPENDENCY = "dependency";
     private static final String F_FILENAME_RESTRICTION = "filenameRestriction";
+    private static final String F_LAST_MODIFIED = "lastModified";
+    private static final String F_SIZE = "size";
+    private static final String F_SNIPPET = "snippet";
+
+    private static final FieldSelector PATH_SELECTOR = new MapFieldSelector(F_PATH, F_DEPENDENCY);
+    private static final FieldSelector SNIPPET_SELECTOR = new MapFieldSelector(F_PATH, F_DEPENDENCY, F_SNIPPET);
+
+    /**
+     * Recorded with every commit. Indexes with an older version (e.g., without indexed paths and file state or without
+     * stored snippets) are rebuilt from scratch.
+     */
+    private static final String INDEX_FORMAT_KEY = "format";
+    private static final String INDEX_FORMAT_VERSION = "3";
+    private static final Map<String, String> COMMIT_USER_DATA = ImmutableMap.of(INDEX_FORMAT_KEY,
+            INDEX_FORMAT_VERSION);
 
     private static final float NAME_BOOST = 4.0f;
     private static final float DESCRIPTION_BOOST = 2.0f;
@@ -123,7 +144,12 @@ public class FileSnippetRepository implements ISnippetRepository {
     private final String repoUrl;
 
     private Directory directory;
-    private IndexReader reader;
+
+    /**
+     * Searches acquire their searchers from here without taking any lock, so that they run in parallel with indexing.
+     * Writers refresh it after each commit.
+     */
+    private volatile SearcherManager searcherManager;
 
     private final Analyzer analyzer;
     private final QueryParser parser;
@@ -157,8 +183,15 @@ public class FileSnippetRepository implements ISnippetRepository {
         writeLock = readWriteLock.writeLock();
     }
 
+    /**
+     * The analyzer of the name, description, extra search term, tag, and dependency fields.
+     */
+    static Analyzer createTextAnalyzer() {
+        return new StandardAnalyzer(Version.LUCENE_35, EMPTY_STOPWORDS);
+    }
+
     private Analyzer createAnalyzer() {
-        StandardAnalyzer standardAnalyzer = new StandardAnalyzer(Version.LUCENE_35, EMPTY_STOPWORDS);
+        Analyzer standardAnalyzer = createTextAnalyzer();
         Map<String, Analyzer> analyzers = Maps.newHashMap();
         analyzers.put(F_NAME, standardAnalyzer);
         analyzers.put(F_DESCRIPTION, standardAnalyzer);
@@ -190,8 +223,12 @@ public class FileSnippetRepository implements ISnippetRepository {
             snippetsdir.mkdirs();
             indexdir.mkdirs();
             directory = FSDirectory.open(indexdir);
-            index();
-            reader = IndexReader.open(directory);
+            if (isIndexUpToDateFormat()) {
+                updateIndex();
+            } else {
+                index();
+            }
+            searcherManager = new SearcherManager(directory, null, null);
         } finally {
             writeLock.unlock();
         }
@@ -212,32 +249,111 @@ public class FileSnippetRepository implements ISnippetRepository {
     }
 
     private void doIndex(File[] snippetFiles) throws IOException {
-        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_35, analyzer);
-        config.setOpenMode(OpenMode.CREATE);
-        IndexWriter writer = new IndexWriter(directory, config);
+        IndexWriter writer = openWriter(OpenMode.CREATE);
         try {
             snippetCache.invalidateAll();
             for (File snippetFile : snippetFiles) {
-                try {
-                    ISnippet snippet = snippetCache.get(snippetFile);
-                    String path = snippetFile.getPath();
-                    indexSnippet(writer, snippet, path);
-                } catch (Exception e) {
-                    log.error("Failed to index snippet in " + snippetFile, e);
+                indexSnippetFile(writer, snippetFile);
+            }
+            writer.commit(COMMIT_USER_DATA);
+        } finally {
+            writer.close();
+        }
+        refreshSearcher();
+    }
+
+    private boolean isIndexUpToDateFormat() throws IOException {
+        if (!IndexReader.indexExists(directory)) {
+            return false;
+        }
+        Map<String, String> userData = IndexReader.getCommitUserData(directory);
+        return userData != null && INDEX_FORMAT_VERSION.equals(userData.get(INDEX_FORMAT_KEY));
+    }
+
+    /**
+     * Brings the index in line with the snippet files, reindexing only those files that have been added, changed, or
+     * removed since the index was last committed.
+     */
+    private void updateIndex() throws IOException {
+        Map<String, File> unindexedFiles = Maps.newHashMap();
+        for (File snippetFile : snippetsdir.listFiles((FileFilter) new SuffixFileFilter(DOT_JSON))) {
+            unindexedFiles.put(snippetFile.getPath(), snippetFile);
+        }
+        List<String> stalePaths = Lists.newArrayList();
+        List<File> changedFiles = Lists.newArrayList();
+
+        IndexReader indexReader = IndexReader.open(directory);
+        try {
+            MapFieldSelector fileStateSelector = new MapFieldSelector(F_PATH, F_LAST_MODIFIED, F_SIZE);
+            for (int i = 0; i < indexReader.maxDoc(); i++) {
+                if (indexReader.isDeleted(i)) {
+                    continue;
+                }
+                Document doc = indexReader.document(i, fileStateSelector);
+                String path = doc.get(F_PATH);
+                File snippetFile = unindexedFiles.remove(path);
+                if (snippetFile == null) {
+                    stalePaths.add(path);
+                } else if (!String.valueOf(snippetFile.lastModified()).equals(doc.get(F_LAST_MODIFIED))
+                        || !String.valueOf(snippetFile.length()).equals(doc.get(F_SIZE))) {
+                    stalePaths.add(path);
+                    changedFiles.add(snippetFile);
                 }
             }
+        } finally {
+            indexReader.close();
+        }
+        changedFiles.addAll(unindexedFiles.values());
+        if (stalePaths.isEmpty() && changedFiles.isEmpty()) {
+            return;
+        }
+
+        IndexWriter writer = openWriter(OpenMode.APPEND);
+        try {
+            for (String path : stalePaths) {
+                writer.deleteDocuments(new Term(F_PATH, path));
+                snippetCache.invalidate(new File(path));
+            }
+            for (File snippetFile : changedFiles) {
+                indexSnippetFile(writer, snippetFile);
+            }
+            writer.commit(COMMIT_USER_DATA);
         } finally {
             writer.close();
         }
-        if (reader != null) {
-            reader = IndexReader.openIfChanged(reader);
+        refreshSearcher();
+    }
+
+    private IndexWriter openWriter(OpenMode openMode) throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_35, analyzer);
+        config.setOpenMode(openMode);
+        return new IndexWriter(directory, config);
+    }
+
+    private void refreshSearcher() throws IOException {
+        SearcherManager manager = searcherManager;
+        if (manager != null) {
+            manager.maybeReopen();
+        }
+    }
+
+    private void indexSnippetFile(IndexWriter writer, File snippetFile) {
+        try {
+            ISnippet snippet = snippetCache.get(snippetFile);
+            writer.addDocument(createDocument(snippet, snippetFile));
+        } catch (Exception e) {
+            log.error("Failed to index snippet in " + snippetFile, e);
         }
     }
 
-    private void indexSnippet(IndexWriter writer, ISnippet snippet, String path) throws IOException {
+    private Document createDocument(ISnippet snippet, File snippetFile) throws IOException {
         Document doc = new Document();
 
-        doc.add(new Field(F_PATH, path, Store.YES, Index.NO));
+        doc.add(new Field(F_SNIPPET, SnippetPayload.encode(snippet)));
+
+        doc.add(new Field(F_PATH, snippetFile.getPath(), Store.YES, Index.NOT_ANALYZED_NO_NORMS));
+        doc.add(new Field(F_LAST_MODIFIED, String.valueOf(snippetFile.lastModified()), Store.YES, Index.NO));
+        doc.add(new Field(F_SIZE, String.valueOf(snippetFile.length()), Store.YES, Index.NO));
 
         doc.add(new Field(F_UUID, snippet.getUuid().toString(), Store.NO, Index.NOT_ANALYZED));
 
@@ -276,10 +392,10 @@ public class FileSnippetRepository implements ISnippetRepository {
             doc.add(new Field(F_FILENAME_RESTRICTION, NO_FILENAME_RESTRICTION, Store.NO, Index.NOT_ANALYZED));
         }
 
-        writer.addDocument(doc);
+        return doc;
     }
 
-    private String getDependencyString(ProjectCoordinate pc) {
+    static String getDependencyString(ProjectCoordinate pc) {
         return pc.getGroupId() + ":" + pc.getArtifactId();
     }
 
@@ -303,7 +419,7 @@ public class FileSnippetRepository implements ISnippetRepository {
 
     @Override
     public List<Recommendation<ISnippet>> search(ISearchContext context) {
-        return doSearch(context, Integer.MAX_VALUE);
+        return doSearch(context, Integer.MAX_VALUE, null);
     }
 
     @Override
@@ -311,33 +427,73 @@ public class FileSnippetRepository implements ISnippetRepository {
         if (isBlank(context.getSearchText())) {
             return Collections.emptyList();
         }
-        return doSearch(context, Math.min(maxResults, MAX_SEARCH_RESULTS));
+        return doSearch(context, Math.min(maxResults, MAX_SEARCH_RESULTS), null);
     }
 
-    private List<Recommendation<ISnippet>> doSearch(ISearchContext context, int maxResults) {
-        readLock.lock();
+    @Override
+    public List<Recommendation<ISnippet>> searchCandidates(ISearchContext context, Collection<UUID> candidates) {
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (candidates.size() > BooleanQuery.getMaxClauseCount()) {
+            return search(context);
+        }
+        BooleanQuery candidatesQuery = new BooleanQuery();
+        for (UUID candidate : candidates) {
+            candidatesQuery.add(new TermQuery(new Term(F_UUID, candidate.toString())), Occur.SHOULD);
+        }
+        // a filter restricts the results without affecting their scores
+        return doSearch(context, Integer.MAX_VALUE, new QueryWrapperFilter(candidatesQuery));
+    }
+
+    private List<Recommendation<ISnippet>> doSearch(ISearchContext context, int maxResults, @Nullable Filter filter) {
+        Preconditions.checkState(isOpen());
+        List<Recommendation<ISnippet>> results = Lists.newLinkedList();
+
         try {
-            Preconditions.checkState(isOpen());
-            List<Recommendation<ISnippet>> results = Lists.newLinkedList();
+            Map<Document, Float> docs = searchDocuments(context, maxResults, filter, SNIPPET_SELECTOR);
+            for (Entry<Document, Float> entry : docs.entrySet()) {
+                ISnippet snippet = loadSnippet(entry.getKey());
 
-            try {
-                Map<File, Float> snippetFiles = searchSnippetFiles(context, maxResults);
-                for (Entry<File, Float> entry : snippetFiles.entrySet()) {
-                    ISnippet snippet = snippetCache.get(entry.getKey());
+                results.add(Recommendation.newRecommendation(snippet, entry.getValue()));
+            }
+        } catch (Exception e) {
+            log.error("Exception occurred while searching the snippet index.", e);
+        }
+        return results;
+    }
 
-                    results.add(Recommendation.newRecommendation(snippet, entry.getValue()));
-                }
+    /**
+     * Creates the snippet from the payload stored in the index. Only if that fails is the snippet's file read.
+     */
+    private ISnippet loadSnippet(Document doc) throws Exception {
+        byte[] payload = doc.getBinaryValue(F_SNIPPET);
+        if (payload != null) {
+            try {
+                return SnippetPayload.decode(payload);
             } catch (Exception e) {
-                log.error("Exception occurred while searching the snippet index.", e);
+                log.warn("Failed to read stored snippet for {}", doc.get(F_PATH), e);
             }
-            return results;
-        } finally {
-            readLock.unlock();
         }
+        return snippetCache.get(new File(doc.get(F_PATH)));
     }
 
     private Map<File, Float> searchSnippetFiles(ISearchContext context, int maxResults) {
         Map<File, Float> results = Maps.newLinkedHashMap();
+        for (Entry<Document, Float> entry : searchDocuments(context, maxResults, null, PATH_SELECTOR).entrySet()) {
+            results.put(new File(entry.getKey().get(F_PATH)), entry.getValue());
+        }
+        return results;
+    }
+
+    private Map<Document, Float> searchDocuments(ISearchContext context, int maxResults, @Nullable Filter filter,
+            FieldSelector fields) {
+        Map<Document, Float> results = Maps.newLinkedHashMap();
+        SearcherManager manager = searcherManager;
+        if (manager == null) {
+            // closed concurrently
+            return results;
+        }
         IndexSearcher searcher = null;
         try {
             BooleanQuery query = new BooleanQuery();
@@ -369,16 +525,17 @@ public class FileSnippetRepository implements ISnippetRepository {
                 query.add(filenameRestrictionsQuery, Occur.MUST);
             }
 
-            searcher = new IndexSearcher(reader);
+            searcher = manager.acquire();
+            // the first searcher is not warmed, so set the (stateless) similarity on every acquire
             searcher.setSimilarity(similarity);
             float maxScore = 0;
-            for (ScoreDoc hit : searcher.search(query, null, maxResults).scoreDocs) {
+            for (ScoreDoc hit : searcher.search(query, filter, maxResults).scoreDocs) {
 
-                Document doc = searcher.doc(hit.doc);
+                Document doc = searcher.doc(hit.doc, fields);
                 if (!snippetApplicable(doc, context)) {
                     continue;
                 }
-                results.put(new File(doc.get(F_PATH)), hit.score);
+                results.put(doc, hit.score);
                 if (hit.score > maxScore) {
                     maxScore = hit.score;
                 }
@@ -391,11 +548,21 @@ public class FileSnippetRepository implements ISnippetRepository {
         } catch (Exception e) {
             log.error("Exception occurred while searching the snippet index.", e);
         } finally {
-            IOUtils.closeQuietly(searcher);
+            if (searcher != null) {
+                releaseQuietly(manager, searcher);
+            }
         }
         return results;
     }
 
+    private void releaseQuietly(SearcherManager manager, IndexSearcher searcher) {
+        try {
+            manager.release(searcher);
+        } catch (IOException e) {
+            log.error("Failed to release searcher of the snippet index.", e);
+        }
+    }
+
     private boolean snippetApplicable(Document doc, ISearchContext context) {
         if (!context.isRestrictedByDependencies()) {
             return true;
@@ -442,7 +609,7 @@ public class FileSnippetRepository implements ISnippetRepository {
         }
     }
 
-    private Map<File, Float> normalizeValues(Map<File, Float> results, final float maxScore) {
+    private <K> Map<K, Float> normalizeValues(Map<K, Float> results, final float maxScore) {
         return Maps.transformValues(results, new Function<Float, Float>() {
 
             @Override
@@ -454,14 +621,9 @@ public class FileSnippetRepository implements ISnippetRepository {
 
     @Override
     public boolean hasSnippet(UUID uuid) {
-        readLock.lock();
-        try {
-            Preconditions.checkState(isOpen());
+        Preconditions.checkState(isOpen());
 
-            return !searchSnippetFiles(new SearchContext(F_UUID + ":" + uuid), Integer.MAX_VALUE).isEmpty();
-        } finally {
-            readLock.unlock();
-        }
+        return !searchSnippetFiles(new SearchContext(F_UUID + ":" + uuid), Integer.MAX_VALUE).isEmpty();
     }
 
     @Override
@@ -474,8 +636,18 @@ public class FileSnippetRepository implements ISnippetRepository {
             if (snippetFiles.isEmpty()) {
                 return false;
             }
-            Iterables.getOnlyElement(snippetFiles.keySet()).delete();
-            index();
+            File snippetFile = Iterables.getOnlyElement(snippetFiles.keySet());
+            snippetFile.delete();
+            snippetCache.invalidate(snippetFile);
+
+            IndexWriter writer = openWriter(OpenMode.APPEND);
+            try {
+                writer.deleteDocuments(new Term(F_UUID, uuid.toString()));
+                writer.commit(COMMIT_USER_DATA);
+            } finally {
+                writer.close();
+            }
+            refreshSearcher();
             return true;
         } finally {
             writeLock.unlock();
@@ -508,9 +680,18 @@ public class FileSnippetRepository implements ISnippetRepository {
                 return;
             } else if (timesOpened == 1) {
                 timesOpened = 0;
-                IOUtils.closeQuietly(reader);
+                SearcherManager manager = searcherManager;
+                searcherManager = null;
+                // there is no manager if opening the repository failed
+                if (manager != null) {
+                    try {
+                        // searches still in progress keep their searchers until they release them
+                        manager.close();
+                    } catch (IOException e) {
+                        log.error("Failed to close the snippet index.", e);
+                    }
+                }
                 IOUtils.closeQuietly(directory);
-                reader = null;
             }
         } finally {
             writeLock.unlock();
@@ -534,8 +715,17 @@ public class FileSnippetRepository implements ISnippetRepository {
             }
 
             GsonUtil.serialize(importSnippet, file);
+            snippetCache.invalidate(file);
 
-            index();
+            IndexWriter writer = openWriter(OpenMode.APPEND);
+            try {
+                writer.updateDocument(new Term(F_UUID, importSnippet.getUuid().toString()),
+                        createDocument(importSnippet, file));
+                writer.commit(COMMIT_USER_DATA);
+            } finally {
+                writer.close();
+            }
+            refreshSearcher();
         } finally {
             writeLock.unlock();
         }
@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.snipmatch;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.recommenders.utils.Recommendation;
+
+/**
+ * Implemented by {@link ISnippetRepository repositories} that can restrict a search to a given set of snippets, e.g.,
+ * to the results of a previous, more general search.
+ */
+public interface ICandidateSearch {
+
+    /**
+     * Returns those of the candidates that match the search query, with the same relevance and in the same order as
+     * {@link ISnippetRepository#search(ISearchContext)} would return them if the candidates contain all its results.
+     */
+    List<Recommendation<ISnippet>> searchCandidates(ISearchContext context, Collection<UUID> candidates);
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.snipmatch;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.recommenders.utils.Executors;
+import org.eclipse.recommenders.utils.Recommendation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+/**
+ * Searches several repositories concurrently and merges their results into a single list of the best matches.
+ * <p>
+ * Every repository is searched by its own {@link SnippetSearchSession}, so that repeated searches as the user types are
+ * narrowed down. As sessions normalize the relevance of a repository's results to its best result, the merged results
+ * can be ordered by relevance, then by repository priority (lower first).
+ * <p>
+ * Repositories that do not answer before the deadline are left out of the results; their search is not interrupted (an
+ * interrupt would close the channels of an open Lucene index) but allowed to complete in the background. Until then, a
+ * slow repository is skipped by further searches, so that it does not occupy more than one thread.
+ */
+public class MultiRepositorySearch {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MultiRepositorySearch.class);
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.coreThreadsTimoutExecutor(4,
+            Thread.NORM_PRIORITY, "Recommenders-Snipmatch-Search-"); //$NON-NLS-1$
+
+    private static final Ordering<Match> BEST_FIRST = Ordering.from(new Comparator<Match>() {
+
+        @Override
+        public int compare(Match lhs, Match rhs) {
+            int comparison = Double.compare(rhs.getRecommendation().getRelevance(),
+                    lhs.getRecommendation().getRelevance());
+            if (comparison != 0) {
+                return comparison;
+            }
+            comparison = Integer.compare(lhs.getRepositoryPriority(), rhs.getRepositoryPriority());
+            if (comparison != 0) {
+                return comparison;
+            }
+            return Integer.compare(lhs.rank, rhs.rank);
+        }
+    });
+
+    private final ExecutorService executor;
+
+    private final Map<ISnippetRepository, SnippetSearchSession> sessions = new IdentityHashMap<>();
+    private final Map<ISnippetRepository, Future<List<Recommendation<ISnippet>>>> pendingSearches =
+            new IdentityHashMap<>();
+    private final AtomicBoolean resetPending = new AtomicBoolean();
+
+    public MultiRepositorySearch() {
+        this(DEFAULT_EXECUTOR);
+    }
+
+    public MultiRepositorySearch(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param repositories
+     *            the repositories to search; a repository's index in this list is its priority
+     * @param maxResults
+     *            the maximum number of matches to return, across all repositories
+     * @return at most {@code maxResults} matches, best first
+     */
+    public synchronized List<Match> search(List<? extends ISnippetRepository> repositories,
+            final ISearchContext context, int maxResults, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        if (resetPending.getAndSet(false)) {
+            sessions.clear();
+        }
+        sessions.keySet().retainAll(repositories);
+        pendingSearches.keySet().retainAll(repositories);
+
+        List<Future<List<Recommendation<ISnippet>>>> searches = Lists.newArrayListWithCapacity(repositories.size());
+        for (ISnippetRepository repository : repositories) {
+            Future<List<Recommendation<ISnippet>>> pendingSearch = pendingSearches.get(repository);
+            if (pendingSearch != null && !pendingSearch.isDone()) {
+                LOG.debug("Skipping repository {}, which is still searching", repository.getId()); //$NON-NLS-1$
+                searches.add(null);
+                continue;
+            }
+            final SnippetSearchSession session = getSession(repository);
+            Future<List<Recommendation<ISnippet>>> search = executor
+                    .submit(new Callable<List<Recommendation<ISnippet>>>() {
+
+                        @Override
+                        public List<Recommendation<ISnippet>> call() {
+                            return session.search(context);
+                        }
+                    });
+            pendingSearches.put(repository, search);
+            searches.add(search);
+        }
+
+        List<Match> matches = Lists.newArrayList();
+        for (int priority = 0; priority < searches.size(); priority++) {
+            Future<List<Recommendation<ISnippet>>> search = searches.get(priority);
+            if (search == null) {
+                continue;
+            }
+            ISnippetRepository repository = repositories.get(priority);
+            try {
+                List<Recommendation<ISnippet>> recommendations = search.get(
+                        Math.max(0, deadline - System.nanoTime()), NANOSECONDS);
+                addMatches(repository, priority, recommendations, matches);
+            } catch (TimeoutException e) {
+                LOG.debug("Search of repository {} timed out", repository.getId()); //$NON-NLS-1$
+            } catch (ExecutionException e) {
+                LOG.error("Search of repository {} failed", repository.getId(), e.getCause()); //$NON-NLS-1$
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return BEST_FIRST.leastOf(matches, maxResults);
+    }
+
+    /**
+     * Forgets the results of previous searches, e.g., because the context of the searches or the contents of a
+     * repository have changed. The next search then searches every repository in full.
+     * <p>
+     * This method does not wait for a search in progress, so it may be called from any thread.
+     */
+    public void reset() {
+        resetPending.set(true);
+    }
+
+    private SnippetSearchSession getSession(ISnippetRepository repository) {
+        SnippetSearchSession session = sessions.get(repository);
+        if (session == null) {
+            session = new SnippetSearchSession(repository);
+            sessions.put(repository, session);
+        }
+        return session;
+    }
+
+    private static void addMatches(ISnippetRepository repository, int priority,
+            List<Recommendation<ISnippet>> recommendations, List<Match> matches) {
+        for (int rank = 0; rank < recommendations.size(); rank++) {
+            matches.add(new Match(repository, priority, rank, recommendations.get(rank)));
+        }
+    }
+
+    public static final class Match {
+
+        private final ISnippetRepository repository;
+        private final int repositoryPriority;
+        private final int rank;
+        private final Recommendation<ISnippet> recommendation;
+
+        private Match(ISnippetRepository repository, int repositoryPriority, int rank,
+                Recommendation<ISnippet> recommendation) {
+            this.repository = repository;
+            this.repositoryPriority = repositoryPriority;
+            this.rank = rank;
+            this.recommendation = recommendation;
+        }
+
+        public ISnippetRepository getRepository() {
+            return repository;
+        }
+
+        public int getRepositoryPriority() {
+            return repositoryPriority;
+        }
+
+        /**
+         * @return the snippet, with its relevance normalized to the best result of its repository
+         */
+        public Recommendation<ISnippet> getRecommendation() {
+            return recommendation;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.snipmatch;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.eclipse.recommenders.coordinates.ProjectCoordinate;
+
+/**
+ * Encodes snippets in the compact binary form that {@link FileSnippetRepository} stores with each indexed snippet, so
+ * that search results can be created without reading and parsing the snippet's JSON file.
+ * <p>
+ * Strings are stored as length-prefixed UTF-8, lists and sets as a count followed by their elements; a length or count
+ * of -1 stands for {@code null}. Snippets read by Gson may lack any of their fields.
+ */
+final class SnippetPayload {
+
+    private static final int VERSION = 1;
+    private static final int NULL = -1;
+
+    private SnippetPayload() {
+    }
+
+    static byte[] encode(ISnippet snippet) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSION);
+        out.writeLong(snippet.getUuid().getMostSignificantBits());
+        out.writeLong(snippet.getUuid().getLeastSignificantBits());
+        writeString(snippet.getName(), out);
+        writeString(snippet.getDescription(), out);
+        writeStrings(snippet.getExtraSearchTerms(), out);
+        writeStrings(snippet.getTags(), out);
+        writeString(snippet.getCode(), out);
+        Location location = snippet.getLocation();
+        writeString(location == null ? null : location.name(), out);
+        writeStrings(snippet.getFilenameRestrictions(), out);
+        Set<ProjectCoordinate> dependencies = snippet.getNeededDependencies();
+        out.writeInt(dependencies.size());
+        for (ProjectCoordinate dependency : dependencies) {
+            writeString(dependency.getGroupId(), out);
+            writeString(dependency.getArtifactId(), out);
+            writeString(dependency.getVersion(), out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Snippet decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snippet payload version " + version);
+        }
+        UUID uuid = new UUID(in.readLong(), in.readLong());
+        String name = readString(in);
+        String description = readString(in);
+        List<String> extraSearchTerms = readStrings(in);
+        List<String> tags = readStrings(in);
+        String code = readString(in);
+        String locationName = readString(in);
+        List<String> filenameRestrictions = readStrings(in);
+        int dependencyCount = in.readInt();
+        Set<ProjectCoordinate> dependencies = new HashSet<>(dependencyCount);
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.add(new ProjectCoordinate(readString(in), readString(in), readString(in)));
+        }
+        Snippet snippet = new Snippet(uuid, "", "", extraSearchTerms, tags, "", Location.NONE, filenameRestrictions,
+                dependencies);
+        // the constructor rejects null, but a snippet read by Gson may have null fields
+        snippet.setName(name);
+        snippet.setDescription(description);
+        snippet.setCode(code);
+        snippet.setLocation(locationName == null ? null : Location.valueOf(locationName));
+        return snippet;
+    }
+
+    private static void writeString(String string, DataOutputStream out) throws IOException {
+        if (string == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeStrings(Collection<String> strings, DataOutputStream out) throws IOException {
+        if (strings == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(string, out);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size == NULL) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(in));
+        }
+        return strings;
+    }
+}
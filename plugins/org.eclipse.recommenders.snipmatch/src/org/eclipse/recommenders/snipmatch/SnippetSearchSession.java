@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.snipmatch;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.eclipse.recommenders.coordinates.ProjectCoordinate;
+import org.eclipse.recommenders.utils.Nullable;
+import org.eclipse.recommenders.utils.Recommendation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Searches a repository as the user types. As long as the query keeps its shape, i.e., consists of plain terms and
+ * only grows by extending its last term or by adding further terms, the results of the previous search are narrowed
+ * down rather than searched for again: all terms must still match, so the new results are a subset of the previous
+ * ones. Any other change of the query or of the rest of the search context falls back to
+ * {@link ISnippetRepository#search(ISearchContext)}.
+ * <p>
+ * Narrowing first prunes the previous results in memory, following the matching rules of {@link FileSnippetRepository}:
+ * a term matches if it is a prefix of a word in a snippet's name, description, extra search terms, or dependencies, or
+ * if it is one of its tags. The remaining candidates are then scored by the repository (see {@link ICandidateSearch}),
+ * so that the results do not depend on how the query was typed. Repositories that cannot search a set of candidates
+ * are always searched in full. In either case, the relevance of the results is normalized to the best result.
+ * <p>
+ * A session is not thread-safe; it must not be used for several searches at the same time.
+ */
+public class SnippetSearchSession {
+
+    private static final Pattern PLAIN_TERMS = Pattern
+            .compile("[\\p{L}\\p{N}]+(\\s+[\\p{L}\\p{N}]+)*\\s*"); //$NON-NLS-1$
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+"); //$NON-NLS-1$
+
+    private final ISnippetRepository repository;
+    private final Analyzer analyzer = FileSnippetRepository.createTextAnalyzer();
+
+    private ISearchContext lastContext;
+    private List<Candidate> lastResults;
+
+    public SnippetSearchSession(ISnippetRepository repository) {
+        this.repository = repository;
+    }
+
+    public ISnippetRepository getRepository() {
+        return repository;
+    }
+
+    public List<Recommendation<ISnippet>> search(ISearchContext context) {
+        List<Candidate> results = null;
+        if (repository instanceof ICandidateSearch && lastContext != null && isNarrowing(lastContext, context)) {
+            List<Candidate> candidates = prune(lastResults, context.getSearchText());
+            if (candidates != null) {
+                results = rescore(candidates, context);
+            }
+        }
+        if (results == null) {
+            results = Lists.newArrayList();
+            for (Recommendation<ISnippet> recommendation : repository.search(context)) {
+                results.add(new Candidate(recommendation));
+            }
+        }
+        lastContext = context;
+        lastResults = results;
+        return toRecommendations(results);
+    }
+
+    /**
+     * Forgets the previous results, e.g., because the repository has changed.
+     */
+    public void reset() {
+        lastContext = null;
+        lastResults = null;
+    }
+
+    private boolean isNarrowing(ISearchContext previous, ISearchContext next) {
+        String previousText = previous.getSearchText();
+        String nextText = next.getSearchText();
+        // terms are lower-cased by the analyzer, so changing the case of what has been typed still narrows
+        return nextText.toLowerCase(Locale.ROOT).startsWith(previousText.toLowerCase(Locale.ROOT))
+                && PLAIN_TERMS.matcher(previousText).matches()
+                && PLAIN_TERMS.matcher(nextText).matches() && previous.getLocation() == next.getLocation()
+                && Objects.equals(previous.getFilename(), next.getFilename())
+                && previous.isRestrictedByDependencies() == next.isRestrictedByDependencies()
+                && Objects.equals(previous.getDependencies(), next.getDependencies());
+    }
+
+    /**
+     * @return the candidates matching all terms of the search text or {@code null} if a term cannot be matched in
+     *         memory
+     */
+    @Nullable
+    private List<Candidate> prune(List<Candidate> candidates, String searchText) {
+        List<String> terms = Lists.newArrayList();
+        for (String term : WHITESPACE.split(searchText.trim())) {
+            List<String> tokens = analyze(term);
+            if (tokens.size() != 1) {
+                // the query parser would turn this term into more than a single prefix query
+                return null;
+            }
+            terms.add(tokens.get(0));
+        }
+        List<Candidate> results = Lists.newArrayList();
+        for (Candidate candidate : candidates) {
+            if (candidate.matchesAll(terms)) {
+                results.add(candidate);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the candidates matching the search context, scored and ordered by the repository
+     */
+    private List<Candidate> rescore(List<Candidate> candidates, ISearchContext context) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Map<UUID, Candidate> candidatesByUuid = Maps.newHashMap();
+        for (Candidate candidate : candidates) {
+            candidatesByUuid.put(candidate.recommendation.getProposal().getUuid(), candidate);
+        }
+        List<Candidate> results = Lists.newArrayList();
+        for (Recommendation<ISnippet> recommendation : ((ICandidateSearch) repository).searchCandidates(context,
+                candidatesByUuid.keySet())) {
+            Candidate candidate = candidatesByUuid.get(recommendation.getProposal().getUuid());
+            results.add(candidate == null ? new Candidate(recommendation)
+                    : candidate.withRecommendation(recommendation));
+        }
+        return results;
+    }
+
+    private List<Recommendation<ISnippet>> toRecommendations(List<Candidate> candidates) {
+        double maxRelevance = 0;
+        for (Candidate candidate : candidates) {
+            maxRelevance = Math.max(maxRelevance, candidate.recommendation.getRelevance());
+        }
+        List<Recommendation<ISnippet>> recommendations = Lists.newArrayListWithCapacity(candidates.size());
+        for (Candidate candidate : candidates) {
+            Recommendation<ISnippet> recommendation = candidate.recommendation;
+            double relevance = maxRelevance == 0 ? 1 : recommendation.getRelevance() / maxRelevance;
+            recommendations.add(Recommendation.newRecommendation(recommendation.getProposal(), relevance));
+        }
+        return recommendations;
+    }
+
+    private List<String> analyze(String text) {
+        List<String> tokens = Lists.newArrayList();
+        try {
+            TokenStream stream = analyzer.tokenStream(null, new StringReader(text));
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+            stream.close();
+        } catch (IOException e) {
+            // cannot happen when reading from a string
+            throw new IllegalStateException(e);
+        }
+        return tokens;
+    }
+
+    private String[] analyzeAll(Collection<String> texts) {
+        List<String> tokens = Lists.newArrayList();
+        for (String text : texts) {
+            tokens.addAll(analyze(text));
+        }
+        String[] sorted = tokens.toArray(new String[tokens.size()]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private final class Candidate {
+
+        private final Recommendation<ISnippet> recommendation;
+
+        // analyzed lazily, on the first narrowing; sorted for prefix lookups
+        private String[] prefixTokens;
+        private String[] tagTokens;
+
+        private Candidate(Recommendation<ISnippet> recommendation) {
+            this.recommendation = recommendation;
+        }
+
+        /**
+         * @return a candidate for the same snippet with a new relevance, which keeps the analyzed tokens
+         */
+        private Candidate withRecommendation(Recommendation<ISnippet> recommendation) {
+            Candidate candidate = new Candidate(recommendation);
+            candidate.prefixTokens = prefixTokens;
+            candidate.tagTokens = tagTokens;
+            return candidate;
+        }
+
+        private boolean matchesAll(List<String> terms) {
+            if (prefixTokens == null) {
+                ISnippet snippet = recommendation.getProposal();
+                List<String> texts = Lists.newArrayList(snippet.getName(), snippet.getDescription());
+                texts.addAll(snippet.getExtraSearchTerms());
+                for (ProjectCoordinate dependency : snippet.getNeededDependencies()) {
+                    texts.add(FileSnippetRepository.getDependencyString(dependency));
+                }
+                prefixTokens = analyzeAll(texts);
+                tagTokens = analyzeAll(snippet.getTags());
+            }
+            for (String term : terms) {
+                if (!hasTokenStartingWith(prefixTokens, term) && Arrays.binarySearch(tagTokens, term) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasTokenStartingWith(String[] tokens, String prefix) {
+            int index = Arrays.binarySearch(tokens, prefix);
+            if (index >= 0) {
+                return true;
+            }
+            int insertionPoint = -index - 1;
+            return insertionPoint < tokens.length && tokens[insertionPoint].startsWith(prefix);
+        }
+    }
+}
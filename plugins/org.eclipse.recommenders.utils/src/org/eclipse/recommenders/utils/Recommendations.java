@@ -32,7 +32,11 @@ public final class Recommendations {
         // Not meant to be instantiated
     }
 
-    private static final Comparator<Recommendation<?>> C_BY_RELEVANCE = new Comparator<Recommendation<?>>() {
+    /**
+     * Orders recommendations by increasing relevance and recommendations of equal relevance by their proposals' string
+     * representation. {@link #top(Iterable, int)} returns the greatest recommendations in this order.
+     */
+    public static final Comparator<Recommendation<?>> C_BY_RELEVANCE = new Comparator<Recommendation<?>>() {
 
         @Override
         public int compare(final Recommendation<?> lhs, final Recommendation<?> rhs) {
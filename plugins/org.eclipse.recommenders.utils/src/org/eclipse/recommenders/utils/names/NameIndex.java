@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.utils.names;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * The interning tables of the {@code Vm*Name} classes. The tables are concurrent maps with weak values, split into
+ * segments with one reference queue each, so names are looked up without locking and created with a lock on one
+ * segment only. Two threads may create the same name at the same time; only one of the two instances is ever handed
+ * out.
+ */
+final class NameIndex {
+
+    // names are created concurrently by model loading, code completion and background jobs
+    private static final int CONCURRENCY_LEVEL = 16;
+
+    private NameIndex() {
+    }
+
+    static <K, V> ConcurrentMap<K, V> create() {
+        return new MapMaker().weakValues().concurrencyLevel(CONCURRENCY_LEVEL).makeMap();
+    }
+
+    /**
+     * @return the value already in the index, or {@code created} if there was none
+     */
+    static <K, V> V intern(ConcurrentMap<K, V> index, K key, V created) {
+        V existing = index.putIfAbsent(key, created);
+        return existing == null ? created : existing;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.utils.names;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.recommenders.utils.Nullable;
+
+/**
+ * Maps methods to values by their name and erased parameter types, ignoring declaring type and return type (see
+ * {@link VmMethodName#getSelectorId()}). Built once per completion session, it replaces a search through all
+ * recommended methods for every proposal by a single hash lookup.
+ * <p>
+ * If several methods with the same selector are {@link #put(IMethodName, Object) put} into the index, the first one
+ * wins.
+ */
+public final class SelectorIndex<V> {
+
+    // keyed by the interned selectors themselves, which keeps them and thus their identity alive with the index
+    private final Map<VmMethodName.Selector, V> index = new HashMap<>();
+
+    public static <V> SelectorIndex<V> create() {
+        return new SelectorIndex<>();
+    }
+
+    private SelectorIndex() {
+    }
+
+    /**
+     * @return {@code true} if the value has been added, {@code false} if a method with the same selector was put before
+     */
+    public boolean put(IMethodName method, V value) {
+        VmMethodName.Selector selector = selectorOf(method);
+        if (index.containsKey(selector)) {
+            return false;
+        }
+        index.put(selector, value);
+        return true;
+    }
+
+    @Nullable
+    public V get(@Nullable IMethodName method) {
+        return method == null ? null : index.get(selectorOf(method));
+    }
+
+    public boolean contains(@Nullable IMethodName method) {
+        return method != null && index.containsKey(selectorOf(method));
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private static VmMethodName.Selector selectorOf(IMethodName method) {
+        VmMethodName vmMethod = method instanceof VmMethodName ? (VmMethodName) method
+                : VmMethodName.get(method.getIdentifier());
+        return vmMethod.getSelector();
+    }
+}
@@ -9,24 +9,22 @@ package org.eclipse.recommenders.utils.names;
 
 import static org.eclipse.recommenders.utils.Checks.ensureIsNotNull;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.MapMaker;
 
 @Beta
 public class VmAnnotation implements IAnnotation {
 
-    private static Map<ITypeName /* annotationType */, VmAnnotation> index = new MapMaker().weakValues().makeMap();
+    private static final ConcurrentMap<ITypeName /* annotationType */, VmAnnotation> index = NameIndex.create();
 
     private ITypeName annotationType;
 
-    public static synchronized IAnnotation get(ITypeName annotationType) {
+    public static IAnnotation get(ITypeName annotationType) {
         VmAnnotation res = index.get(annotationType);
         if (res == null) {
-            res = new VmAnnotation(annotationType);
-            index.put(annotationType, res);
+            res = NameIndex.intern(index, annotationType, new VmAnnotation(annotationType));
         }
         return res;
     }
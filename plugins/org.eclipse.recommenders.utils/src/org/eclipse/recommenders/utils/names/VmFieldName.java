@@ -12,19 +12,18 @@ package org.eclipse.recommenders.utils.names;
 
 import static org.eclipse.recommenders.utils.Checks.ensureIsNotNull;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.MapMaker;
 
 public class VmFieldName implements IFieldName {
     private static final long serialVersionUID = 5067244907255465328L;
 
-    private static Map<String /* vmTypeName */, VmFieldName> index = new MapMaker().weakValues().makeMap();
+    private static final ConcurrentMap<String /* vmTypeName */, VmFieldName> index = NameIndex.create();
 
-    public static synchronized VmFieldName get(ITypeName declaringType, String fieldName, ITypeName fieldType) {
+    public static VmFieldName get(ITypeName declaringType, String fieldName, ITypeName fieldType) {
         return VmFieldName.get(declaringType.getIdentifier() + "." + fieldName + ";" + fieldType.getIdentifier());
     }
 
@@ -34,12 +33,11 @@ public class VmFieldName implements IFieldName {
      * @param fieldName
      * @return
      */
-    public static synchronized VmFieldName get(final String fieldName) {
+    public static VmFieldName get(final String fieldName) {
         // typeName = removeGenerics(typeName);
         VmFieldName res = index.get(fieldName);
         if (res == null) {
-            res = new VmFieldName(fieldName);
-            index.put(fieldName, res);
+            res = NameIndex.intern(index, fieldName, new VmFieldName(fieldName));
         }
         return res;
     }
@@ -53,15 +51,19 @@ public class VmFieldName implements IFieldName {
     protected VmFieldName(final String vmFieldName) {
         identifier = vmFieldName;
         ensureIsNotNull(identifier);
-        ensureIsNotNull(getDeclaringType());
+        // check the syntax without creating the type names
+        VmTypeName.checkSyntax(getDeclaringTypeIdentifier());
         ensureIsNotNull(getFieldName());
-        ensureIsNotNull(getFieldType());
+        VmTypeName.checkSyntax(getFieldTypeIdentifier());
     }
 
     @Override
     public ITypeName getDeclaringType() {
-        final String declaringType = StringUtils.substringBeforeLast(identifier, ".");
-        return VmTypeName.get(declaringType);
+        return VmTypeName.get(getDeclaringTypeIdentifier());
+    }
+
+    private String getDeclaringTypeIdentifier() {
+        return StringUtils.substringBeforeLast(identifier, ".");
     }
 
     @Override
@@ -71,8 +73,11 @@ public class VmFieldName implements IFieldName {
 
     @Override
     public ITypeName getFieldType() {
-        final String fieldType = StringUtils.substringAfter(identifier, ";");
-        return VmTypeName.get(fieldType);
+        return VmTypeName.get(getFieldTypeIdentifier());
+    }
+
+    private String getFieldTypeIdentifier() {
+        return StringUtils.substringAfter(identifier, ";");
     }
 
     @Override
@@ -12,22 +12,27 @@ package org.eclipse.recommenders.utils.names;
 
 import static org.eclipse.recommenders.utils.Checks.*;
 import static org.eclipse.recommenders.utils.Throws.throwIllegalArgumentException;
-import static org.eclipse.recommenders.utils.names.VmTypeName.*;
 
 import java.util.ArrayList;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.MapMaker;
 
 public class VmMethodName implements IMethodName {
     private static final long serialVersionUID = 688964238062226061L;
 
-    private static Map<String /* name */, VmMethodName> index = new MapMaker().weakValues().makeMap();
+    private static final ConcurrentMap<String /* name */, VmMethodName> index = NameIndex.create();
 
-    public static synchronized VmMethodName get(final String vmFullQualifiedTypeName, final String vmMethodSignature) {
+    // every method name holds on to its selector, so a selector is kept as long as a method with it is reachable
+    private static final ConcurrentMap<String /* name and erased parameter types */, Selector> selectors =
+            NameIndex.create();
+    private static final AtomicInteger nextSelectorId = new AtomicInteger(1);
+
+    public static VmMethodName get(final String vmFullQualifiedTypeName, final String vmMethodSignature) {
         return get(vmFullQualifiedTypeName + "." + vmMethodSignature);
     }
 
@@ -48,14 +53,13 @@ public class VmMethodName implements IMethodName {
         return get(vmBaseTypeName.getIdentifier(), vmMethodName.getSignature());
     }
 
-    public static synchronized VmMethodName get(final String vmFullQualifiedMethodName) {
+    public static VmMethodName get(final String vmFullQualifiedMethodName) {
         VmMethodName res = index.get(vmFullQualifiedMethodName);
         if (res == null) {
             if (vmFullQualifiedMethodName.startsWith("< ")) {
                 throwIllegalArgumentException("invalid input: " + vmFullQualifiedMethodName);
             }
-            res = new VmMethodName(vmFullQualifiedMethodName);
-            index.put(vmFullQualifiedMethodName, res);
+            res = NameIndex.intern(index, vmFullQualifiedMethodName, new VmMethodName(vmFullQualifiedMethodName));
         }
         return res;
     }
@@ -65,7 +69,18 @@ public class VmMethodName implements IMethodName {
     // public static String removeGenerics(final String typeName) {
     // return StringUtils.substringBefore(typeName, "<");
     // }
-    private String identifier;
+    private final String identifier;
+
+    // offsets of the '.' before the method name and of the '(' before the parameters
+    private final transient int methodSeparator;
+    private final transient int openingBracket;
+
+    // the components are parsed once per (interned) name and then cached; racing threads compute equal values
+    private transient String name;
+    private transient ITypeName declaringType;
+    private transient volatile VmTypeName[] parameterTypes;
+    private transient ITypeName returnType;
+    private transient Selector selector;
 
     /**
      * @see #get(String)
@@ -73,24 +88,41 @@ public class VmMethodName implements IMethodName {
     @VisibleForTesting
     protected VmMethodName(final String vmFullQualifiedMethodName) {
         identifier = vmFullQualifiedMethodName;
-        // // perform syntax check by creating every possible element from this
-        // string. If no exception is thrown everything should be ok...
-        getDeclaringType();
-        getParameterTypes();
-        getReturnType();
+        openingBracket = identifier.lastIndexOf('(');
+        methodSeparator = identifier.lastIndexOf('.', openingBracket);
+        // perform a syntax check of every element of this string, without creating the type names. If no exception is
+        // thrown everything should be ok...
+        VmTypeName.checkSyntax(getDeclaringTypeIdentifier());
+        for (String parameterType : getParameterTypeIdentifiers()) {
+            VmTypeName.checkSyntax(parameterType);
+        }
+        String returnType = getReturnTypeWithSemicolon();
+        if (returnType.endsWith(";")) {
+            VmTypeName.checkSyntax(StringUtils.substring(returnType, 0, -1));
+        } else {
+            // be sure that if it does not end with a ';' is MUST be a primitive or an array of primitives:
+            VmTypeName.checkSyntax(returnType);
+            ensureIsTrue(returnType.charAt(returnType.lastIndexOf('[') + 1) != 'L');
+        }
     }
 
     @Override
     public ITypeName getDeclaringType() {
-        final int bracket = identifier.lastIndexOf('(');
-        final int methodSeperator = identifier.lastIndexOf('.', bracket);
-        return VmTypeName.get(identifier.substring(0, methodSeperator));
+        ITypeName res = declaringType;
+        if (res == null) {
+            res = VmTypeName.get(getDeclaringTypeIdentifier());
+            declaringType = res;
+        }
+        return res;
+    }
+
+    private String getDeclaringTypeIdentifier() {
+        return identifier.substring(0, methodSeparator);
     }
 
     @Override
     public String getDescriptor() {
-        final int bracket = identifier.lastIndexOf('(');
-        return identifier.substring(bracket);
+        return identifier.substring(openingBracket);
     }
 
     @Override
@@ -100,15 +132,64 @@ public class VmMethodName implements IMethodName {
 
     @Override
     public String getName() {
-        final int methodSeperator = identifier.lastIndexOf('.');
-        final int argumentsSeperator = identifier.lastIndexOf('(');
-        return identifier.substring(methodSeperator + 1, argumentsSeperator);
+        String res = name;
+        if (res == null) {
+            res = identifier.substring(methodSeparator + 1, openingBracket);
+            name = res;
+        }
+        return res;
     }
 
     @Override
     public ITypeName[] getParameterTypes() {
-        final ArrayList<VmTypeName> argTypes = new ArrayList<VmTypeName>();
-        final int openingBracket = identifier.lastIndexOf('(');
+        return getParameterTypesInternal().clone();
+    }
+
+    private VmTypeName[] getParameterTypesInternal() {
+        VmTypeName[] res = parameterTypes;
+        if (res == null) {
+            final List<String> identifiers = getParameterTypeIdentifiers();
+            res = new VmTypeName[identifiers.size()];
+            for (int i = 0; i < res.length; i++) {
+                res[i] = VmTypeName.get(identifiers.get(i));
+            }
+            parameterTypes = res;
+        }
+        return res;
+    }
+
+    /**
+     * Returns a number that identifies the name and the erased parameter types of this method, but neither its
+     * declaring type nor its return type. Two methods have the same selector id if and only if their names and their
+     * parameter types are equal; e.g., {@code Ljava/util/List.add(Ljava/lang/Object;)Z} and
+     * {@code Ljava/util/ArrayList.add(Ljava/lang/Object;)Z} share an id. Ids are only meaningful within the running VM
+     * and only while a method with the selector is reachable; once there is none, the id may be assigned anew.
+     */
+    public int getSelectorId() {
+        return getSelector().id;
+    }
+
+    /**
+     * @return the interned selector of this method; equal selectors are identical as long as one of them is reachable
+     */
+    Selector getSelector() {
+        Selector res = selector;
+        if (res == null) {
+            StringBuilder key = new StringBuilder(getName()).append('(');
+            for (VmTypeName parameterType : getParameterTypesInternal()) {
+                key.append(parameterType.getIdentifier()).append(';');
+            }
+            res = selectors.get(key.toString());
+            if (res == null) {
+                res = NameIndex.intern(selectors, key.toString(), new Selector(nextSelectorId.getAndIncrement()));
+            }
+            selector = res;
+        }
+        return res;
+    }
+
+    private List<String> getParameterTypeIdentifiers() {
+        final List<String> argTypes = new ArrayList<String>();
         final char[] desc = identifier.substring(openingBracket + 1).toCharArray();
         int off = 0;
         while (true) {
@@ -117,31 +198,31 @@ public class VmMethodName implements IMethodName {
             }
             switch (desc[off]) {
             case 'V':
-                argTypes.add(VOID);
+                argTypes.add("V");
                 break;
             case 'Z':
-                argTypes.add(BOOLEAN);
+                argTypes.add("Z");
                 break;
             case 'C':
-                argTypes.add(CHAR);
+                argTypes.add("C");
                 break;
             case 'B':
-                argTypes.add(BYTE);
+                argTypes.add("B");
                 break;
             case 'S':
-                argTypes.add(SHORT);
+                argTypes.add("S");
                 break;
             case 'I':
-                argTypes.add(INT);
+                argTypes.add("I");
                 break;
             case 'F':
-                argTypes.add(FLOAT);
+                argTypes.add("F");
                 break;
             case 'J':
-                argTypes.add(LONG);
+                argTypes.add("J");
                 break;
             case 'D':
-                argTypes.add(DOUBLE);
+                argTypes.add("D");
                 break;
             case 'L': {
                 final int start = off;
@@ -167,7 +248,7 @@ public class VmMethodName implements IMethodName {
                 } while (desc[off] != ';');
                 // off points to the ';' now
                 final String argumentTypeName = new String(desc, start, off - start);
-                argTypes.add(VmTypeName.get(argumentTypeName));
+                argTypes.add(argumentTypeName);
                 break;
             }
             case '[': {
@@ -190,42 +271,44 @@ public class VmMethodName implements IMethodName {
                     }
                     // off points directly on the ';' Thus
                     final String typeName = new String(desc, start, off - start);
-                    argTypes.add(VmTypeName.get(typeName));
+                    argTypes.add(typeName);
                 } else {
                     // if it is not a declared type, off points directly on the
                     // primitive letter
                     final String typeName = new String(desc, start, off + 1 - start);
-                    argTypes.add(VmTypeName.get(typeName));
+                    argTypes.add(typeName);
                 }
                 break;
             }
             }
             off++;
         }
-        return argTypes.toArray(new VmTypeName[argTypes.size()]);
+        return argTypes;
     }
 
     @Override
     public ITypeName getReturnType() {
+        ITypeName res = returnType;
+        if (res == null) {
+            res = VmTypeName.get(getReturnTypeIdentifier());
+            returnType = res;
+        }
+        return res;
+    }
+
+    private String getReturnTypeWithSemicolon() {
         String returnType = StringUtils.substringAfterLast(identifier, ")");
         // strip off throws type from method return
-        returnType = StringUtils.substringBefore(returnType, "|");
-        if (!returnType.endsWith(";")) {
-
-            // be sure that if it does not end with a ';' is MUST be a primitive
-            // or an array of primitives:
-            final ITypeName res = VmTypeName.get(returnType);
-            ensureIsTrue(res.isPrimitiveType() || res.isArrayType() && res.getArrayBaseType().isPrimitiveType());
-            return res;
-        } else {
-            returnType = StringUtils.substring(returnType, 0, -1);
-            return VmTypeName.get(returnType);
-        }
+        return StringUtils.substringBefore(returnType, "|");
+    }
+
+    private String getReturnTypeIdentifier() {
+        String returnType = getReturnTypeWithSemicolon();
+        return returnType.endsWith(";") ? StringUtils.substring(returnType, 0, -1) : returnType;
     }
 
     @Override
     public String getSignature() {
-        final int methodSeparator = identifier.lastIndexOf('.');
         return identifier.substring(methodSeparator + 1);
     }
 
@@ -268,6 +351,23 @@ public class VmMethodName implements IMethodName {
 
     @Override
     public boolean hasParameters() {
-        return getParameterTypes().length > 0;
+        return getParameterTypesInternal().length > 0;
+    }
+
+    private Object readResolve() {
+        // restores the cached offsets and keeps names unique
+        return get(identifier);
+    }
+
+    /**
+     * The name and erased parameter types of a method, interned so that equal selectors are identical.
+     */
+    static final class Selector {
+
+        private final int id;
+
+        private Selector(int id) {
+            this.id = id;
+        }
     }
 }
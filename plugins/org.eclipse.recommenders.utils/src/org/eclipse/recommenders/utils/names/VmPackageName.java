@@ -10,24 +10,22 @@
  */
 package org.eclipse.recommenders.utils.names;
 
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.MapMaker;
 
 public class VmPackageName implements IPackageName {
 
-    private static final Map<String/* name 2 */, VmPackageName> INDEX = new MapMaker().weakValues().makeMap();
+    private static final ConcurrentMap<String/* name 2 */, VmPackageName> INDEX = NameIndex.create();
 
     public static final IPackageName DEFAULT_PACKAGE = get("");
 
-    public static synchronized VmPackageName get(final String vmPackageName) {
+    public static VmPackageName get(final String vmPackageName) {
         VmPackageName res = INDEX.get(vmPackageName);
         if (res == null) {
-            res = new VmPackageName(vmPackageName);
-            INDEX.put(vmPackageName, res);
+            res = NameIndex.intern(INDEX, vmPackageName, new VmPackageName(vmPackageName));
         }
         return res;
     }
@@ -13,17 +13,16 @@ package org.eclipse.recommenders.utils.names;
 import static org.eclipse.recommenders.utils.Checks.*;
 import static org.eclipse.recommenders.utils.Throws.*;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.MapMaker;
 
 public class VmTypeName implements ITypeName {
 
     // These private fields need to be intialized before the public ones below.
-    private static Map<String /* vmTypeName */, VmTypeName> index = new MapMaker().weakValues().makeMap();
+    private static final ConcurrentMap<String /* vmTypeName */, VmTypeName> index = NameIndex.create();
     private static final Pattern GENERICS_PATTERN = Pattern.compile("<[^<>]*>");
 
     public static final VmTypeName OBJECT = VmTypeName.get("Ljava/lang/Object");
@@ -49,17 +48,19 @@ public class VmTypeName implements ITypeName {
     public static final VmTypeName SHORT = get("S");
     public static final VmTypeName VOID = get("V");
 
-    public static synchronized VmTypeName get(String typeName) {
+    public static VmTypeName get(String typeName) {
         typeName = removeGenerics(typeName);
         VmTypeName res = index.get(typeName);
         if (res == null) {
-            res = new VmTypeName(typeName);
-            index.put(typeName, res);
+            res = NameIndex.intern(index, typeName, new VmTypeName(typeName));
         }
         return res;
     }
 
     private static String removeGenerics(String typeName) {
+        if (typeName.indexOf('<') < 0) {
+            return typeName;
+        }
         int oldLength;
 
         do {
@@ -71,13 +72,28 @@ public class VmTypeName implements ITypeName {
         return typeName;
     }
 
-    private String identifier;
+    private final String identifier;
 
     /**
      * @see #get(String)
      */
     @VisibleForTesting
     protected VmTypeName(final String vmTypeName) {
+        checkIdentifier(vmTypeName);
+        identifier = vmTypeName;
+    }
+
+    /**
+     * Checks that {@link #get(String)} would accept the given type name, without creating it.
+     *
+     * @throws IllegalArgumentException
+     *             or {@link IllegalStateException} if the name is malformed
+     */
+    static void checkSyntax(String typeName) {
+        checkIdentifier(removeGenerics(typeName));
+    }
+
+    private static void checkIdentifier(final String vmTypeName) {
         ensureIsNotNull(vmTypeName);
         ensureIsFalse(vmTypeName.length() == 0, "empty size for type name not permitted");
         loop: for (int i = 0; i < vmTypeName.length(); i++) {
@@ -112,7 +128,6 @@ public class VmTypeName implements ITypeName {
             throwIllegalArgumentException("Cannot parse '%s' as vm type name.", vmTypeName);
             break;
         }
-        identifier = vmTypeName;
     }
 
     @Override
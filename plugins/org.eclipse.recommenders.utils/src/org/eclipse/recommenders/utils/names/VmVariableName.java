@@ -12,18 +12,17 @@ package org.eclipse.recommenders.utils.names;
 
 import static org.eclipse.recommenders.utils.Checks.ensureIsNotNull;
 
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.MapMaker;
 
 public class VmVariableName implements IVariableName {
 
     private static final long serialVersionUID = 5067244907255465328L;
 
-    private static Map<String /* vmTypeName */, VmVariableName> index = new MapMaker().weakValues().makeMap();
+    private static final ConcurrentMap<String /* vmTypeName */, VmVariableName> index = NameIndex.create();
 
     /**
      * Format: DeclaringType'.'fieldName;FieldType, i.e., &lt;VmTypeName&gt;.&lt;String&gt;;&lt;VmTypeName&gt;
@@ -31,12 +30,11 @@ public class VmVariableName implements IVariableName {
      * @param variableName
      * @return
      */
-    public static synchronized VmVariableName get(final String variableName) {
+    public static VmVariableName get(final String variableName) {
 
         VmVariableName res = index.get(variableName);
         if (res == null) {
-            res = new VmVariableName(variableName);
-            index.put(variableName, res);
+            res = NameIndex.intern(index, variableName, new VmVariableName(variableName));
         }
         return res;
     }
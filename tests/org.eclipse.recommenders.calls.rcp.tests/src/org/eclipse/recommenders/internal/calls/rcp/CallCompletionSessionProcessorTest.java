@@ -27,12 +27,15 @@ import org.eclipse.recommenders.models.UniqueTypeName;
 import org.eclipse.recommenders.models.rcp.IProjectCoordinateProvider;
 import org.eclipse.recommenders.rcp.SharedImages;
 import org.eclipse.recommenders.utils.Recommendation;
+import org.eclipse.recommenders.utils.Recommendations;
 import org.eclipse.recommenders.utils.Result;
 import org.eclipse.recommenders.utils.names.IMethodName;
 import org.eclipse.recommenders.utils.names.ITypeName;
 import org.eclipse.recommenders.utils.names.VmMethodName;
 import org.eclipse.recommenders.utils.names.VmTypeName;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
@@ -219,7 +222,7 @@ public class CallCompletionSessionProcessorTest {
 
     private void setUp(Class<? extends ASTNode> completionType, UniqueTypeName uniqueTypeName, IType receiverType,
             List<IMethodName> observedCalls, String expectedTypeSignature,
-            List<Recommendation<IMethodName>> recommendations) {
+            final List<Recommendation<IMethodName>> recommendations) {
         LookupEnvironment lookupEnvironment = mock(LookupEnvironment.class);
         context = mock(IRecommendersCompletionContext.class);
         when(context.get(CompletionContextKey.LOOKUP_ENVIRONMENT)).thenReturn(Optional.of(lookupEnvironment));
@@ -241,6 +244,15 @@ public class CallCompletionSessionProcessorTest {
         } else {
             model = mock(ICallModel.class);
             when(model.recommendCalls()).thenReturn(recommendations);
+            when(model.recommendCalls(anyInt(), anyDouble())).thenAnswer(
+                    new Answer<List<Recommendation<IMethodName>>>() {
+
+                        @Override
+                        public List<Recommendation<IMethodName>> answer(InvocationOnMock invocation) {
+                            Object[] args = invocation.getArguments();
+                            return Recommendations.top(recommendations, (Integer) args[0], (Double) args[1]);
+                        }
+                    });
         }
 
         if (uniqueTypeName != null) {
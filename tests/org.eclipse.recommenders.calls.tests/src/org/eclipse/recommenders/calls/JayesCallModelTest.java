@@ -22,13 +22,21 @@ import static org.eclipse.recommenders.utils.Constants.N_STATE_TRUE;
 import static org.eclipse.recommenders.utils.names.VmMethodName.NULL;
 import static org.eclipse.recommenders.utils.names.VmTypeName.STRING;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.recommenders.jayes.BayesNet;
 import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.io.jbif.JayesBif2Reader;
+import org.eclipse.recommenders.jayes.io.jbif.JayesBifWriter;
 import org.eclipse.recommenders.utils.Recommendation;
 import org.eclipse.recommenders.utils.Recommendations;
 import org.eclipse.recommenders.utils.names.IMethodName;
@@ -36,6 +44,7 @@ import org.eclipse.recommenders.utils.names.VmMethodName;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 public class JayesCallModelTest {
 
@@ -94,6 +103,97 @@ public class JayesCallModelTest {
                 is(STRING_VALUE_OF));
     }
 
+    @Test
+    public void testTopCalls() {
+        BayesNet net = new BayesNet();
+        BayesNode callgroupNode = net.createNode(N_NODEID_CALL_GROUPS);
+        callgroupNode.addOutcomes("group1", "group2", "group3");
+        callgroupNode.setProbabilities(0.2, 0.3, 0.5);
+        Random random = new Random(0);
+        List<IMethodName> calls = Lists.newArrayList();
+        for (int i = 0; i < 50; i++) {
+            IMethodName call = VmMethodName.get("Ljava/lang/String.method" + i + "()V");
+            BayesNode callNode = net.createNode(call.toString());
+            callNode.addOutcomes(N_STATE_TRUE, N_STATE_FALSE);
+            callNode.setParents(Arrays.asList(callgroupNode));
+            double p1 = random.nextDouble(), p2 = random.nextDouble(), p3 = i % 10 == 0 ? 0.5 : random.nextDouble();
+            callNode.setProbabilities(p1, 1 - p1, p2, 1 - p2, p3, 1 - p3);
+            calls.add(call);
+        }
+
+        JayesCallModel model = new JayesCallModel(STRING, net);
+        assertSameRecommendations(Recommendations.top(model.recommendCalls(), 10, 0.3), model.recommendCalls(10, 0.3));
+        assertSameRecommendations(Recommendations.top(model.recommendCalls(), 100, 0.0),
+                model.recommendCalls(100, 0.0));
+        assertThat(model.recommendCalls(0, 0.0).isEmpty(), is(true));
+
+        model.setObservedCalls(ImmutableSet.of(calls.get(3), calls.get(7)));
+        List<Recommendation<IMethodName>> top = model.recommendCalls(5, 0.1);
+        assertSameRecommendations(Recommendations.top(model.recommendCalls(), 5, 0.1), top);
+        assertThat(top.size(), is(5));
+    }
+
+    @Test
+    public void testNaiveBayesNetIsNotCompiled() throws IOException {
+        byte[] jbif = toJbif(createNet(false));
+
+        ByteArrayOutputStream prepared = new ByteArrayOutputStream();
+        JayesCallModel.writePrepared(new ByteArrayInputStream(jbif), prepared);
+
+        assertThat(prepared.toByteArray(), is(jbif));
+        assertThat(JayesCallModel.prepare(ByteBuffer.wrap(prepared.toByteArray())).isCompiled(), is(false));
+        assertThat(JayesCallModel.prepare(new ByteArrayInputStream(jbif), STRING).isCompiled(), is(false));
+    }
+
+    @Test
+    public void testOtherNetIsCompiled() throws IOException {
+        byte[] jbif = toJbif(createNet(true));
+
+        ByteArrayOutputStream prepared = new ByteArrayOutputStream();
+        JayesCallModel.writePrepared(new ByteArrayInputStream(jbif), prepared);
+
+        assertThat(JayesBif2Reader.isCompiledFormat(ByteBuffer.wrap(prepared.toByteArray())), is(true));
+        assertThat(JayesCallModel.prepare(ByteBuffer.wrap(prepared.toByteArray())).isCompiled(), is(true));
+        assertThat(JayesCallModel.prepare(new ByteArrayInputStream(jbif), STRING).isCompiled(), is(true));
+    }
+
+    private static BayesNet createNet(boolean dependentCalls) {
+        BayesNet net = new BayesNet();
+        BayesNode callgroupNode = net.createNode(N_NODEID_CALL_GROUPS);
+        callgroupNode.addOutcomes("group1", "group2");
+        callgroupNode.setProbabilities(0.5, 0.5);
+
+        BayesNode valueOfNode = net.createNode(STRING_VALUE_OF.toString());
+        valueOfNode.addOutcomes(N_STATE_TRUE, N_STATE_FALSE);
+        valueOfNode.setParents(Arrays.asList(callgroupNode));
+        valueOfNode.setProbabilities(0.9, 0.1, 0.1, 0.9);
+
+        BayesNode toStringNode = net.createNode(STRING_TO_STRING.toString());
+        toStringNode.addOutcomes(N_STATE_TRUE, N_STATE_FALSE);
+        if (dependentCalls) {
+            toStringNode.setParents(Arrays.asList(callgroupNode, valueOfNode));
+            toStringNode.setProbabilities(0.1, 0.9, 0.2, 0.8, 0.9, 0.1, 0.8, 0.2);
+        } else {
+            toStringNode.setParents(Arrays.asList(callgroupNode));
+            toStringNode.setProbabilities(0.1, 0.9, 0.9, 0.1);
+        }
+        return net;
+    }
+
+    private static byte[] toJbif(BayesNet net) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JayesBifWriter(out).write(net);
+        return out.toByteArray();
+    }
+
+    private static void assertSameRecommendations(List<Recommendation<IMethodName>> expected,
+            List<Recommendation<IMethodName>> actual) {
+        assertThat(Recommendations.getProposals(actual), is(Recommendations.getProposals(expected)));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getRelevance(), actual.get(i).getRelevance(), 1e-9);
+        }
+    }
+
     private List<Recommendation<String>> getTopPatterns(JayesCallModel model) {
         return Recommendations.top(model.recommendPatterns(), 2);
     }
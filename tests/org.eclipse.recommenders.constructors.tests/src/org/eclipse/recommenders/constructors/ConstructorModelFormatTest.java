@@ -0,0 +1,93 @@
+package org.eclipse.recommenders.constructors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.recommenders.utils.names.VmTypeName.STRING;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.recommenders.utils.gson.GsonUtil;
+import org.eclipse.recommenders.utils.names.IMethodName;
+import org.eclipse.recommenders.utils.names.VmMethodName;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class ConstructorModelFormatTest {
+
+    private static final IMethodName STRING_INIT = VmMethodName.get("Ljava/lang/String.<init>()V");
+    private static final IMethodName STRING_INIT_STRING = VmMethodName
+            .get("Ljava/lang/String.<init>(Ljava/lang/String;)V");
+    private static final IMethodName STRING_INIT_BYTES = VmMethodName.get("Ljava/lang/String.<init>([B)V");
+
+    private static final ConstructorModel MODEL = new ConstructorModel(STRING, ImmutableMap.of(STRING_INIT, 3,
+            STRING_INIT_STRING, 5));
+
+    @Test
+    public void testReadJson() throws IOException {
+        ConstructorModel model = ConstructorModelFormat.readJson(toJson(MODEL));
+
+        assertEquals(MODEL, model);
+        assertEquals(STRING, model.getExpectedType());
+        assertEquals(3, model.getConstructorCallCount(STRING_INIT));
+        assertEquals(5, model.getConstructorCallCount(STRING_INIT_STRING));
+        assertEquals(0, model.getConstructorCallCount(STRING_INIT_BYTES));
+        assertEquals(8, model.getConstructorCallTotal());
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        ConstructorModel model = ConstructorModelFormat.read(ByteBuffer.wrap(toBinary(MODEL)));
+
+        assertEquals(MODEL, model);
+        assertEquals(MODEL.hashCode(), model.hashCode());
+        assertEquals(5, model.getConstructorCallCount(STRING_INIT_STRING));
+        assertEquals(8, model.getConstructorCallTotal());
+        assertEquals(ImmutableSet.of(STRING_INIT, STRING_INIT_STRING), model.getEntries());
+    }
+
+    @Test
+    public void testReadDetectsFormat() throws IOException {
+        assertEquals(MODEL, ConstructorModelFormat.read(toJson(MODEL)));
+        assertEquals(MODEL, ConstructorModelFormat.read(new ByteArrayInputStream(toBinary(MODEL))));
+    }
+
+    @Test
+    public void testConvert() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConstructorModelFormat.convert(toJson(MODEL), out);
+
+        assertTrue(ConstructorModelFormat.isBinaryFormat(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(MODEL, ConstructorModelFormat.read(ByteBuffer.wrap(out.toByteArray())));
+    }
+
+    @Test
+    public void testEmptyModel() throws IOException {
+        ConstructorModel empty = new ConstructorModel(STRING, ImmutableMap.<IMethodName, Integer>of());
+
+        ConstructorModel model = ConstructorModelFormat.read(ByteBuffer.wrap(toBinary(empty)));
+
+        assertEquals(empty, model);
+        assertEquals(0, model.getConstructorCallTotal());
+        assertTrue(model.getEntries().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsJsonAsBinary() throws IOException {
+        ConstructorModelFormat.read(ByteBuffer.wrap(GsonUtil.serialize(MODEL).getBytes(UTF_8)));
+    }
+
+    private static ByteArrayInputStream toJson(ConstructorModel model) {
+        return new ByteArrayInputStream(GsonUtil.serialize(model).getBytes(UTF_8));
+    }
+
+    private static byte[] toBinary(ConstructorModel model) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConstructorModelFormat.write(model, out);
+        return out.toByteArray();
+    }
+}
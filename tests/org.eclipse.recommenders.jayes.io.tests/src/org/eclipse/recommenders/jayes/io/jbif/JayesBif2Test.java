@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.recommenders.jayes.io.jbif;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.factor.FactorFactory;
+import org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeBuilder;
+import org.eclipse.recommenders.jayes.util.triangulation.MinDegree;
+import org.junit.Test;
+
+public class JayesBif2Test {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static BayesNet createNet() {
+        BayesNet net = new BayesNet();
+        BayesNode a = net.createNode("A");
+        a.addOutcomes("t", "f");
+        a.setProbabilities(0.4, 0.6);
+        BayesNode b = net.createNode("B");
+        b.addOutcomes("t", "f", "x");
+        b.setParents(Arrays.asList(a));
+        b.setProbabilities(0.4, 0.5, 0.1, 0.7, 0.0, 0.3);
+        BayesNode c = net.createNode("C");
+        c.addOutcomes("t", "f");
+        c.setParents(Arrays.asList(a, b));
+        c.setProbabilities(0.9, 0.1, 0.2, 0.8, 0.5, 0.5, 0.3, 0.7, 0.6, 0.4, 0.0, 1.0);
+        BayesNode d = net.createNode("D");
+        d.addOutcomes("t", "f");
+        d.setParents(Arrays.asList(c));
+        d.setProbabilities(0.25, 0.75, 0.5, 0.5);
+        return net;
+    }
+
+    private static CompiledJunctionTree compile(BayesNet net) {
+        return CompiledJunctionTree.compile(net, JunctionTreeBuilder.forHeuristic(new MinDegree()),
+                FactorFactory.defaultFactory());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        CompiledJunctionTree compiled = compile(createNet());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JayesBif2Writer writer = new JayesBif2Writer(out);
+        writer.write(compiled);
+        writer.close();
+
+        JayesBif2Reader reader = new JayesBif2Reader(new ByteArrayInputStream(out.toByteArray()));
+        CompiledJunctionTree read = reader.read();
+        reader.close();
+
+        assertThat(read.getNetwork().getNodes().size(), is(4));
+        assertThat(read.getEdgeSources(), is(compiled.getEdgeSources()));
+        assertThat(read.getQueryClusters(), is(compiled.getQueryClusters()));
+        assertSameBeliefs(compiled, read);
+    }
+
+    @Test
+    public void testConvert() throws IOException {
+        BayesNet net = createNet();
+        ByteArrayOutputStream jbif = new ByteArrayOutputStream();
+        JayesBifWriter writer = new JayesBifWriter(jbif);
+        writer.write(net);
+        writer.close();
+
+        JayesBif2Converter converter = new JayesBif2Converter(JunctionTreeBuilder.forHeuristic(new MinDegree()),
+                FactorFactory.defaultFactory());
+        ByteArrayOutputStream jbif2 = new ByteArrayOutputStream();
+        converter.convert(new ByteArrayInputStream(jbif.toByteArray()), jbif2);
+
+        assertFalse(JayesBif2Reader.isCompiledFormat(new BufferedInputStream(new ByteArrayInputStream(jbif
+                .toByteArray()))));
+        assertTrue(JayesBif2Reader.isCompiledFormat(new BufferedInputStream(new ByteArrayInputStream(jbif2
+                .toByteArray()))));
+
+        CompiledJunctionTree read = new JayesBif2Reader(new ByteArrayInputStream(jbif2.toByteArray())).read();
+        assertSameBeliefs(compile(net), read);
+    }
+
+    private static void assertSameBeliefs(CompiledJunctionTree expected, CompiledJunctionTree actual) {
+        JunctionTreeAlgorithm expectedInferrer = expected.newInferrer();
+        JunctionTreeAlgorithm actualInferrer = actual.newInferrer();
+        for (int evidence = -1; evidence < expected.getNetwork().getNodes().size(); evidence++) {
+            if (evidence >= 0) {
+                expectedInferrer.addEvidence(expected.getNetwork().getNode(evidence), "t");
+                actualInferrer.addEvidence(actual.getNetwork().getNode(evidence), "t");
+            }
+            for (BayesNode node : expected.getNetwork().getNodes()) {
+                assertArrayEquals(expectedInferrer.getBeliefs(node),
+                        actualInferrer.getBeliefs(actual.getNetwork().getNode(node.getId())), TOLERANCE);
+            }
+        }
+    }
+}
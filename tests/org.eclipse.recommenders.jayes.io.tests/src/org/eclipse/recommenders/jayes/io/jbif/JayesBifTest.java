@@ -11,17 +11,28 @@
 package org.eclipse.recommenders.jayes.io.jbif;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThat;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class JayesBifTest {
 
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
     @Test
     public void testReadDefaultNode() throws IOException {
         // create simple network
@@ -61,4 +72,33 @@ public class JayesBifTest {
 
     }
 
+    @Test
+    public void testReadMappedFile() throws IOException {
+        BayesNet netBefore = new BayesNet();
+        BayesNode a = netBefore.createNode("A");
+        a.addOutcomes("t", "f");
+        a.setProbabilities(0.4, 0.6);
+        BayesNode b = netBefore.createNode("B");
+        b.addOutcomes("t", "f");
+        b.setParents(Arrays.asList(a));
+        b.setProbabilities(0.4, 0.6, 0.7, 0.3);
+
+        File file = tmp.newFile("net.jbif");
+        JayesBifWriter writer = new JayesBifWriter(new FileOutputStream(file));
+        writer.write(netBefore);
+        writer.close();
+
+        JayesBifReader reader = JayesBifReader.map(file);
+        BayesNet net = reader.read();
+        reader.close();
+
+        assertThat(net.getNode("A").getProbabilities(), is(new double[] { 0.4, 0.6 }));
+        assertThat(net.getNode("B").getParents().get(0), is(net.getNode("A")));
+        assertThat(net.getNode("B").getProbabilities(), is(new double[] { 0.4, 0.6, 0.7, 0.3 }));
+
+        JunctionTreeAlgorithm inferrer = new JunctionTreeAlgorithm();
+        inferrer.setNetwork(net);
+        inferrer.addEvidence(net.getNode("B"), "t");
+        assertArrayEquals(new double[] { 0.16 / 0.58, 0.42 / 0.58 }, inferrer.getBeliefs(net.getNode("A")), 1e-9);
+    }
 }
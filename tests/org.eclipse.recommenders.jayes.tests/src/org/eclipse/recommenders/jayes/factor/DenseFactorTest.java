@@ -114,6 +114,39 @@ public class DenseFactorTest {
         assertArrayEquals(f.marginalizeAllBut(-1), f2.getValues().toDoubleArray(), TOLERANCE);
     }
 
+    @Test
+    public void testPreparedSumWithIndexMap() {
+        AbstractFactor f = create2x2x2Factor();
+        f.setValues(new DoubleArrayWrapper(distribution2x2x2()));
+        f.select(0, 1);
+
+        AbstractFactor f2 = new DenseFactor();
+        f2.setDimensionIDs(1);
+        f2.setDimensions(2);
+
+        f.sumPrepared(f2.getValues(), IndexMap.encode(f.prepareMultiplication(f2)));
+
+        assertArrayEquals(f.marginalizeAllBut(1), f2.getValues().toDoubleArray(), TOLERANCE);
+    }
+
+    @Test
+    public void testPreparedMultiplicationWithIndexMap() {
+        AbstractFactor f = create2x2x2Factor();
+        f.setValues(new DoubleArrayWrapper(distribution2x2x2()));
+        AbstractFactor compare = create2x2x2Factor();
+        compare.setValues(new DoubleArrayWrapper(distribution2x2x2()));
+
+        AbstractFactor f2 = new DenseFactor();
+        f2.setDimensionIDs(2, 0);
+        f2.setDimensions(2, 2);
+        f2.setValues(new DoubleArrayWrapper(1, 2, 3, 4));
+
+        compare.multiplyPrepared(f2.getValues(), compare.prepareMultiplication(f2));
+        f.multiplyPrepared(f2.getValues(), IndexMap.encode(f.prepareMultiplication(f2)));
+
+        assertArrayEquals(compare.getValues().toDoubleArray(), f.getValues().toDoubleArray(), TOLERANCE);
+    }
+
     @Test
     public void testCopy() {
         AbstractFactor f = create2x2x2Factor();
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.factor;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class IndexMapTest {
+
+    @Test
+    public void testEncodeDecode() {
+        int[] positions = { 0, 1, 2, 3, 0, 0, 0, 7, 5, 3, 1 };
+        IndexMap map = IndexMap.encodeRuns(positions);
+
+        assertThat(map.length(), is(positions.length));
+        assertThat(map.getRunCount(), is(3));
+        assertArrayEquals(positions, map.toPositions());
+        for (int i = 0; i < positions.length; i++) {
+            assertThat(map.get(i), is(positions[i]));
+        }
+    }
+
+    @Test
+    public void testRowsAreRunEncoded() {
+        int[] positions = new int[1000];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i % 100;
+        }
+        IndexMap map = IndexMap.encode(positions);
+
+        assertTrue(map.isRunEncoded());
+        assertThat(map.getRunCount(), is(10));
+        assertArrayEquals(positions, map.toPositions());
+    }
+
+    @Test
+    public void testShortRunsAreStoredExplicitly() {
+        int[] narrow = { 3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8, 9, 7, 9, 3 };
+        int[] wide = new int[narrow.length];
+        for (int i = 0; i < narrow.length; i++) {
+            wide[i] = narrow[i] * 10000;
+        }
+
+        for (int[] positions : new int[][] { narrow, wide }) {
+            IndexMap map = IndexMap.encode(positions);
+            assertFalse(map.isRunEncoded());
+            assertArrayEquals(positions, map.toPositions());
+            for (int i = 0; i < positions.length; i++) {
+                assertThat(map.get(i), is(positions[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        IndexMap map = IndexMap.encode(new int[0]);
+
+        assertThat(map.length(), is(0));
+        assertThat(map.getRunCount(), is(0));
+        assertArrayEquals(new int[0], map.toPositions());
+    }
+}
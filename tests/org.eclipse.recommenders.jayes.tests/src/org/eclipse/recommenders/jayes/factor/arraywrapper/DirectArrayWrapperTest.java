@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.factor.arraywrapper;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import org.junit.Test;
+
+public class DirectArrayWrapperTest {
+
+    private static final double TOLERANCE = 0.00001;
+
+    @Test
+    public void testDoubleOperations() {
+        IArrayWrapper direct = new DirectDoubleArrayWrapper(1.0, 2.0, 3.0);
+        direct.mulAssign(0, 4.0);
+        direct.addAssign(1, 0.5);
+        direct.mulAssign(2, new DoubleArrayWrapper(2.0), 0);
+
+        assertArrayEquals(new double[] { 4.0, 2.5, 6.0 }, direct.toDoubleArray(), TOLERANCE);
+        assertArrayEquals(new double[] { 4.0, 2.5, 6.0 }, direct.clone().toDoubleArray(), TOLERANCE);
+    }
+
+    @Test
+    public void testFloatOperations() {
+        IArrayWrapper direct = new DirectFloatArrayWrapper(1.0f, 2.0f, 3.0f);
+        direct.mulAssign(0, 4.0f);
+        direct.addAssign(1, 0.5f);
+        direct.mulAssign(2, new FloatArrayWrapper(2.0f), 0);
+
+        assertArrayEquals(new float[] { 4.0f, 2.5f, 6.0f }, direct.toFloatArray(), (float) TOLERANCE);
+    }
+
+    @Test
+    public void testArrayCopyBetweenHeapAndDirect() {
+        IArrayWrapper direct = new DirectDoubleArrayWrapper(0, 0, 0, 0);
+        direct.arrayCopy(new DoubleArrayWrapper(1, 2, 3, 4), 1, 2, 2);
+        assertArrayEquals(new double[] { 0, 0, 2, 3 }, direct.toDoubleArray(), TOLERANCE);
+
+        IArrayWrapper heap = new DoubleArrayWrapper(0, 0, 0, 0);
+        heap.arrayCopy(direct, 2, 0, 2);
+        assertArrayEquals(new double[] { 2, 3, 0, 0 }, heap.toDoubleArray(), TOLERANCE);
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testReadOnlyBuffer() {
+        ByteBuffer bytes = ByteBuffer.allocateDirect(16);
+        bytes.asDoubleBuffer().put(new double[] { 1, 2 });
+        IArrayWrapper direct = new DirectDoubleArrayWrapper(bytes.asReadOnlyBuffer().asDoubleBuffer());
+
+        assertEquals(2.0, direct.getDouble(1), TOLERANCE);
+        direct.set(0, 3.0);
+    }
+}
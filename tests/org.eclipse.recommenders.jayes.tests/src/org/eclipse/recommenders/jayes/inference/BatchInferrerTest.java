@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.inference;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.factor.FactorFactory;
+import org.eclipse.recommenders.jayes.inference.jtree.CompiledJunctionTree;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeBuilder;
+import org.eclipse.recommenders.jayes.util.triangulation.MinFillIn;
+import org.eclipse.recommenders.testing.jayes.NetExamples;
+import org.junit.Test;
+
+public class BatchInferrerTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void testBatchMatchesSingleQueries() {
+        BayesNet net = NetExamples.testNet1();
+        List<Map<BayesNode, String>> evidence = createBatch(net);
+        List<BayesNode> queries = net.getNodes();
+
+        BatchInferrer sut = new BatchInferrer(compile(net));
+        assertBatchMatchesSingleQueries(net, evidence, queries, sut.getBeliefs(evidence, queries));
+    }
+
+    @Test
+    public void testParallelBatchMatchesSingleQueries() {
+        BayesNet net = NetExamples.testNet1();
+        List<Map<BayesNode, String>> evidence = new ArrayList<Map<BayesNode, String>>();
+        for (int i = 0; i < 20; i++) {
+            evidence.addAll(createBatch(net));
+        }
+        List<BayesNode> queries = net.getNodes();
+
+        BatchInferrer sut = new BatchInferrer(compile(net));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            sut.setForkJoinPool(pool);
+            assertBatchMatchesSingleQueries(net, evidence, queries, sut.getBeliefs(evidence, queries));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static CompiledJunctionTree compile(BayesNet net) {
+        return CompiledJunctionTree.compile(net, JunctionTreeBuilder.forHeuristic(new MinFillIn()),
+                FactorFactory.defaultFactory());
+    }
+
+    private static List<Map<BayesNode, String>> createBatch(BayesNet net) {
+        BayesNode a = net.getNode("a");
+        BayesNode b = net.getNode("b");
+        BayesNode c = net.getNode("c");
+
+        List<Map<BayesNode, String>> batch = new ArrayList<Map<BayesNode, String>>();
+        batch.add(evidence(a, "false", b, "lu", c, "true"));
+        batch.add(new HashMap<BayesNode, String>());
+        batch.add(evidence(a, "false"));
+        batch.add(evidence(c, "true"));
+        batch.add(evidence(a, "false", b, "lu"));
+        batch.add(evidence(a, "true", c, "false"));
+        return batch;
+    }
+
+    private static Map<BayesNode, String> evidence(Object... nodesAndOutcomes) {
+        Map<BayesNode, String> evidence = new HashMap<BayesNode, String>();
+        for (int i = 0; i < nodesAndOutcomes.length; i += 2) {
+            evidence.put((BayesNode) nodesAndOutcomes[i], (String) nodesAndOutcomes[i + 1]);
+        }
+        return evidence;
+    }
+
+    private static void assertBatchMatchesSingleQueries(BayesNet net, List<Map<BayesNode, String>> evidence,
+            List<BayesNode> queries, double[][][] beliefs) {
+        assertEquals(evidence.size(), beliefs.length);
+        for (int i = 0; i < evidence.size(); i++) {
+            JunctionTreeAlgorithm compare = new JunctionTreeAlgorithm();
+            compare.setNetwork(net);
+            compare.setEvidence(evidence.get(i));
+            for (int q = 0; q < queries.size(); q++) {
+                assertArrayEquals(compare.getBeliefs(queries.get(q)), beliefs[i][q], TOLERANCE);
+            }
+        }
+    }
+}
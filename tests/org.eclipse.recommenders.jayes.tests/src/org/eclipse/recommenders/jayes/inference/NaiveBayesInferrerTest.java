@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.jayes.inference;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.inference.jtree.JunctionTreeAlgorithm;
+import org.eclipse.recommenders.testing.jayes.NetExamples;
+import org.junit.Test;
+
+public class NaiveBayesInferrerTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void testDetectsNaiveBayesNetworks() {
+        assertTrue(NaiveBayesInferrer.isNaiveBayes(createNaiveBayesNet(new Random(0), 3, 4)));
+        assertFalse(NaiveBayesInferrer.isNaiveBayes(NetExamples.testNet1()));
+        assertFalse(NaiveBayesInferrer.isNaiveBayes(NetExamples.unconnectedNet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOtherNetworks() {
+        new NaiveBayesInferrer().setNetwork(NetExamples.testNet1());
+    }
+
+    @Test
+    public void testMatchesJunctionTreeAlgorithm() {
+        Random random = new Random(1234);
+        for (int i = 0; i < 20; i++) {
+            BayesNet net = createNaiveBayesNet(random, 2 + random.nextInt(6), 1 + random.nextInt(10));
+            NaiveBayesInferrer sut = new NaiveBayesInferrer();
+            sut.setNetwork(net);
+            JunctionTreeAlgorithm compare = new JunctionTreeAlgorithm();
+            compare.setNetwork(net);
+
+            for (int j = 0; j < 10; j++) {
+                Map<BayesNode, String> evidence = createEvidence(random, net);
+                sut.setEvidence(evidence);
+                compare.setEvidence(new HashMap<BayesNode, String>(evidence));
+                for (BayesNode node : net.getNodes()) {
+                    assertArrayEquals(compare.getBeliefs(node), sut.getBeliefs(node), TOLERANCE);
+                }
+                assertOutcomeBeliefs(compare, sut, net, random);
+            }
+        }
+    }
+
+    @Test
+    public void testManyObservedChildren() {
+        BayesNet net = createNaiveBayesNet(new Random(42), 3, 500);
+        NaiveBayesInferrer sut = new NaiveBayesInferrer();
+        sut.setNetwork(net);
+        for (BayesNode node : net.getNodes().subList(1, 400)) {
+            sut.addEvidence(node, node.getOutcomeName(0));
+        }
+        double[] posterior = sut.getBeliefs(net.getNode("root"));
+
+        assertEquals(1.0, posterior[0] + posterior[1] + posterior[2], TOLERANCE);
+        assertFalse(Double.isNaN(posterior[0]));
+    }
+
+    @Test
+    public void testObservedRoot() {
+        BayesNet net = createNaiveBayesNet(new Random(7), 3, 2);
+        BayesNode root = net.getNode("root");
+        BayesNode child = net.getNode("c0");
+        NaiveBayesInferrer sut = new NaiveBayesInferrer();
+        sut.setNetwork(net);
+        sut.addEvidence(root, "r1");
+
+        assertArrayEquals(new double[] { 0, 1, 0 }, sut.getBeliefs(root), TOLERANCE);
+        double[] expected = Arrays.copyOfRange(child.getProbabilities(), child.getOutcomeCount(),
+                2 * child.getOutcomeCount());
+        assertArrayEquals(expected, sut.getBeliefs(child), TOLERANCE);
+    }
+
+    private static void assertOutcomeBeliefs(IBayesInferrer expected, NaiveBayesInferrer sut, BayesNet net,
+            Random random) {
+        BayesNode[] nodes = net.getNodes().toArray(new BayesNode[0]);
+        int[] outcomes = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            outcomes[i] = random.nextInt(nodes[i].getOutcomeCount());
+        }
+        double[] actual = sut.getBeliefs(nodes, outcomes);
+        for (int i = 0; i < nodes.length; i++) {
+            assertEquals(expected.getBeliefs(nodes[i])[outcomes[i]], actual[i], TOLERANCE);
+        }
+    }
+
+    private static BayesNet createNaiveBayesNet(Random random, int rootOutcomes, int children) {
+        BayesNet net = new BayesNet();
+        BayesNode root = net.createNode("root");
+        for (int i = 0; i < rootOutcomes; i++) {
+            root.addOutcome("r" + i);
+        }
+        root.setProbabilities(randomDistributions(random, 1, rootOutcomes));
+        for (int c = 0; c < children; c++) {
+            BayesNode child = net.createNode("c" + c);
+            int outcomes = 2 + random.nextInt(3);
+            for (int i = 0; i < outcomes; i++) {
+                child.addOutcome("o" + i);
+            }
+            child.setParents(Arrays.asList(root));
+            child.setProbabilities(randomDistributions(random, rootOutcomes, outcomes));
+        }
+        return net;
+    }
+
+    private static double[] randomDistributions(Random random, int count, int outcomes) {
+        double[] probabilities = new double[count * outcomes];
+        for (int i = 0; i < count; i++) {
+            double sum = 0;
+            for (int j = 0; j < outcomes; j++) {
+                probabilities[i * outcomes + j] = 0.05 + random.nextDouble();
+                sum += probabilities[i * outcomes + j];
+            }
+            for (int j = 0; j < outcomes; j++) {
+                probabilities[i * outcomes + j] /= sum;
+            }
+        }
+        return probabilities;
+    }
+
+    private static Map<BayesNode, String> createEvidence(Random random, BayesNet net) {
+        Map<BayesNode, String> evidence = new HashMap<BayesNode, String>();
+        for (BayesNode node : net.getNodes()) {
+            if (random.nextInt(3) == 0) {
+                evidence.put(node, node.getOutcomeName(random.nextInt(node.getOutcomeCount())));
+            }
+        }
+        return evidence;
+    }
+}
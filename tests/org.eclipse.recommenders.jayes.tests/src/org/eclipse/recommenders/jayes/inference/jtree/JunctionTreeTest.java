@@ -21,6 +21,7 @@ import org.eclipse.recommenders.jayes.factor.AbstractFactor;
 import org.eclipse.recommenders.jayes.factor.FactorFactory;
 import org.eclipse.recommenders.jayes.inference.IBayesInferrer;
 import org.eclipse.recommenders.jayes.lbp.LoopyBeliefPropagation;
+import org.eclipse.recommenders.jayes.util.triangulation.MinFillIn;
 import org.eclipse.recommenders.testing.jayes.NetExamples;
 import org.junit.Test;
 
@@ -71,6 +72,28 @@ public class JunctionTreeTest {
         }
     }
 
+    @Test
+    public void testDirectMemory() {
+        BayesNet net = NetExamples.testNet1();
+        BayesNode a = net.getNode("a");
+        BayesNode b = net.getNode("b");
+
+        JunctionTreeAlgorithm inferer = new JunctionTreeAlgorithm();
+        inferer.getFactory().setUseDirectMemory(true);
+        inferer.setNetwork(net);
+        inferer.addEvidence(a, "false");
+        inferer.addEvidence(b, "lu");
+
+        IBayesInferrer compare = new LoopyBeliefPropagation();
+        compare.setNetwork(net);
+        compare.addEvidence(a, "false");
+        compare.addEvidence(b, "lu");
+
+        for (BayesNode n : net.getNodes()) {
+            assertArrayEquals(compare.getBeliefs(n), inferer.getBeliefs(n), TOLERANCE);
+        }
+    }
+
     @Test
     public void testMixedScale() {
         BayesNet net = NetExamples.testNet1();
@@ -118,6 +141,100 @@ public class JunctionTreeTest {
         assertEquals(0.22, inferer.getBeliefs(b)[0], TOLERANCE);
     }
 
+    @Test
+    public void testSameObservedNodesWithDifferentOutcomes() {
+        BayesNet net = NetExamples.testNet1();
+        BayesNode a = net.getNode("a");
+        BayesNode b = net.getNode("b");
+
+        JunctionTreeAlgorithm inferer = new JunctionTreeAlgorithm();
+        inferer.setNetwork(net);
+
+        for (String outcomeOfA : a.getOutcomes()) {
+            for (String outcomeOfB : b.getOutcomes()) {
+                inferer.addEvidence(a, outcomeOfA);
+                inferer.addEvidence(b, outcomeOfB);
+
+                IBayesInferrer compare = new LoopyBeliefPropagation();
+                compare.setNetwork(net);
+                compare.addEvidence(a, outcomeOfA);
+                compare.addEvidence(b, outcomeOfB);
+
+                for (BayesNode n : net.getNodes()) {
+                    assertArrayEquals(compare.getBeliefs(n), inferer.getBeliefs(n), TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        BayesNet net = NetExamples.testNet1();
+        BayesNode a = net.getNode("a");
+        BayesNode b = net.getNode("b");
+        BayesNode c = net.getNode("c");
+
+        JunctionTreeAlgorithm inferer = new JunctionTreeAlgorithm();
+        inferer.setUseIncrementalUpdates(true);
+        inferer.setNetwork(net);
+
+        IBayesInferrer compare = new LoopyBeliefPropagation();
+        compare.setNetwork(net);
+
+        inferer.addEvidence(a, "false");
+        compare.addEvidence(a, "false");
+        for (BayesNode n : net.getNodes()) {
+            assertArrayEquals(compare.getBeliefs(n), inferer.getBeliefs(n), TOLERANCE);
+        }
+
+        inferer.addEvidence(b, "lu");
+        compare.addEvidence(b, "lu");
+        for (BayesNode n : net.getNodes()) {
+            assertArrayEquals(compare.getBeliefs(n), inferer.getBeliefs(n), TOLERANCE);
+        }
+
+        inferer.removeEvidence(a);
+        inferer.addEvidence(c, "true");
+        compare.getEvidence().remove(a);
+        compare.addEvidence(c, "true");
+        for (BayesNode n : net.getNodes()) {
+            assertArrayEquals(compare.getBeliefs(n), inferer.getBeliefs(n), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testInferrersSharingCompiledJunctionTree() {
+        BayesNet net = NetExamples.testNet1();
+        BayesNode a = net.getNode("a");
+        BayesNode c = net.getNode("c");
+
+        CompiledJunctionTree compiled = CompiledJunctionTree.compile(net,
+                JunctionTreeBuilder.forHeuristic(new MinFillIn()), FactorFactory.defaultFactory());
+        JunctionTreeAlgorithm first = compiled.newInferrer();
+        JunctionTreeAlgorithm second = compiled.newInferrer();
+
+        IBayesInferrer compareFirst = new LoopyBeliefPropagation();
+        compareFirst.setNetwork(net);
+        IBayesInferrer compareSecond = new LoopyBeliefPropagation();
+        compareSecond.setNetwork(net);
+
+        first.addEvidence(a, "false");
+        compareFirst.addEvidence(a, "false");
+        second.addEvidence(c, "true");
+        compareSecond.addEvidence(c, "true");
+        for (BayesNode n : net.getNodes()) {
+            assertArrayEquals(compareFirst.getBeliefs(n), first.getBeliefs(n), TOLERANCE);
+            assertArrayEquals(compareSecond.getBeliefs(n), second.getBeliefs(n), TOLERANCE);
+        }
+
+        JunctionTreeAlgorithm third = compiled.newInferrer();
+        IBayesInferrer compareThird = new LoopyBeliefPropagation();
+        compareThird.setNetwork(net);
+        for (BayesNode n : net.getNodes()) {
+            assertArrayEquals(compareThird.getBeliefs(n), third.getBeliefs(n), TOLERANCE);
+        }
+    }
+
     @Test
     public void testUnconnected() {
         BayesNet net = NetExamples.unconnectedNet();
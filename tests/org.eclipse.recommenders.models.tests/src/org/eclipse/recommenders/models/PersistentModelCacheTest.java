@@ -0,0 +1,106 @@
+package org.eclipse.recommenders.models;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+public class PersistentModelCacheTest {
+
+    private static final String ENTRY = "java/lang/String.jbif";
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private File archive;
+    private PersistentModelCache sut;
+
+    @Before
+    public void setUp() throws IOException {
+        archive = tmp.newFile("models.zip");
+        Files.write("archive", archive, UTF_8);
+        sut = new PersistentModelCache(archive);
+    }
+
+    @Test
+    public void testMissingEntry() throws IOException {
+        assertFalse(sut.get(ENTRY).isPresent());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        sut.put(ENTRY, "model".getBytes(UTF_8));
+
+        assertEquals("model", read(sut.get(ENTRY).get()));
+        assertEquals(1, cacheFiles().length);
+        assertTrue(cacheFiles()[0].getName().startsWith("String.jbif@"));
+    }
+
+    @Test
+    public void testReadByAnotherInstance() throws IOException {
+        sut.put(ENTRY, "model".getBytes(UTF_8));
+
+        assertEquals("model", read(new PersistentModelCache(archive).get(ENTRY).get()));
+    }
+
+    @Test
+    public void testReplaceEntry() throws IOException {
+        sut.put(ENTRY, "model".getBytes(UTF_8));
+        sut.put(ENTRY, "other model".getBytes(UTF_8));
+
+        assertEquals("other model", read(sut.get(ENTRY).get()));
+    }
+
+    @Test
+    public void testInvalidatedWhenArchiveChanges() throws IOException {
+        sut.put(ENTRY, "model".getBytes(UTF_8));
+        Files.write("changed archive", archive, UTF_8);
+
+        assertFalse(sut.get(ENTRY).isPresent());
+    }
+
+    @Test
+    public void testOutdatedEntryIsDeletedWhenReplaced() throws IOException {
+        sut.put(ENTRY, "model".getBytes(UTF_8));
+        File outdated = cacheFiles()[0];
+        Files.write("changed archive", archive, UTF_8);
+        sut.put(ENTRY, "other model".getBytes(UTF_8));
+
+        assertEquals("other model", read(sut.get(ENTRY).get()));
+        assertFalse(outdated.exists());
+        assertEquals(1, cacheFiles().length);
+    }
+
+    @Test
+    public void testInvalidate() throws IOException {
+        sut.put(ENTRY, "model".getBytes(UTF_8));
+        sut.invalidate(ENTRY);
+
+        assertFalse(sut.get(ENTRY).isPresent());
+        assertEquals(0, cacheFiles().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testEntryOutsideCacheDirectory() throws IOException {
+        sut.put("../models.zip", "model".getBytes(UTF_8));
+    }
+
+    private File[] cacheFiles() {
+        return new File(archive.getPath() + ".cache", "java/lang").listFiles();
+    }
+
+    private static String read(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
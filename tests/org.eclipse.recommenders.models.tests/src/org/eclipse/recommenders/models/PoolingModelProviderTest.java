@@ -2,7 +2,9 @@ package org.eclipse.recommenders.models;
 
 import static com.google.common.base.Optional.of;
 import static org.eclipse.recommenders.models.ModelCoordinate.UNKNOWN;
+import static org.eclipse.recommenders.utils.Constants.DOT_JSON;
 import static org.eclipse.recommenders.utils.names.VmTypeName.OBJECT;
+import static org.eclipse.recommenders.utils.names.VmTypeName.STRING;
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
@@ -10,21 +12,32 @@ import static org.mockito.Mockito.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipFile;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.recommenders.coordinates.ProjectCoordinate;
+import org.eclipse.recommenders.models.PoolingModelProvider.ExhaustedAction;
 import org.eclipse.recommenders.utils.Zips;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
 
 public class PoolingModelProviderTest {
 
     private static File zip;
     UniqueTypeName someName = new UniqueTypeName(ProjectCoordinate.UNKNOWN, OBJECT);
+    UniqueTypeName otherName = new UniqueTypeName(ProjectCoordinate.UNKNOWN, STRING);
 
     @BeforeClass
     public static void beforeClass() throws IOException {
@@ -32,7 +45,7 @@ public class PoolingModelProviderTest {
         zip.deleteOnExit();
     }
 
-    PoolingModelProvider<UniqueTypeName, String> sut = create();
+    PoolingModelProviderStub sut = create();
 
     @Test
     public void testAcquireRelease() throws Exception {
@@ -67,7 +80,187 @@ public class PoolingModelProviderTest {
 
     }
 
-    private PoolingModelProvider<UniqueTypeName, String> create() {
+    @Test
+    public void testCapacityIsWeightBased() {
+        sut.weight = 10;
+        String model1 = sut.acquireModel(someName).orNull();
+        assertNotNull(sut.acquireModel(someName).orNull());
+        assertNotNull(sut.acquireModel(someName).orNull());
+        assertFalse("pool did not get exhausted", sut.acquireModel(someName).isPresent());
+
+        sut.releaseModel(model1);
+        assertSame(model1, sut.acquireModel(someName).orNull());
+        assertEquals(30, sut.getPoolStatistics().getWeight());
+        assertEquals(1, sut.getPoolStatistics().getExhaustedCount());
+        assertEquals(0, sut.getPoolStatistics().getRemainingWeight());
+    }
+
+    @Test
+    public void testStatisticsReportRemainingWeight() {
+        sut.weight = 10;
+        sut.acquireModel(someName).get();
+
+        ModelPoolStatistics statistics = sut.getPoolStatistics();
+        assertEquals(30, statistics.getMaximumWeight());
+        assertEquals(20, statistics.getRemainingWeight());
+    }
+
+    @Test
+    public void testIdleModelsAreEvictedForOtherKeys() {
+        sut.weight = 10;
+        String model1 = sut.acquireModel(someName).get();
+        String model2 = sut.acquireModel(someName).get();
+        String model3 = sut.acquireModel(someName).get();
+        sut.releaseModel(model1);
+        sut.releaseModel(model2);
+        sut.releaseModel(model3);
+
+        assertTrue(sut.acquireModel(otherName).isPresent());
+        ModelPoolStatistics statistics = sut.getPoolStatistics();
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(2, statistics.getIdleCount());
+        assertEquals(30, statistics.getWeight());
+        // the least recently released model was evicted
+        assertSame(model3, sut.acquireModel(someName).orNull());
+        assertSame(model2, sut.acquireModel(someName).orNull());
+    }
+
+    @Test
+    public void testBlockingWaitsForRelease() throws Exception {
+        sut.exhaustedAction = ExhaustedAction.BLOCK;
+        final String model = sut.acquireModel(someName).get();
+        for (int i = 1; i < 8; i++) {
+            sut.acquireModel(someName).get();
+        }
+        Thread releaser = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                sut.releaseModel(model);
+            }
+        };
+        releaser.start();
+
+        assertSame(model, sut.acquireModel(someName).orNull());
+        releaser.join();
+    }
+
+    @Test
+    public void testGrowingPoolCreatesModelsBeyondLimit() {
+        sut.exhaustedAction = ExhaustedAction.GROW;
+        for (int i = 0; i < 10; i++) {
+            assertTrue(sut.acquireModel(someName).isPresent());
+        }
+        assertEquals(10, sut.getPoolStatistics().getBorrowedCount());
+    }
+
+    @Test
+    public void testStatistics() {
+        String model1 = sut.acquireModel(someName).get();
+        sut.releaseModel(model1);
+        sut.acquireModel(someName).get();
+
+        ModelPoolStatistics statistics = sut.getPoolStatistics();
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getBorrowedCount());
+        assertEquals(0, statistics.getIdleCount());
+        assertEquals(0.5, statistics.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void testFailedLoadGivesReservationBack() {
+        sut.loadFailure = new OutOfMemoryError();
+        try {
+            sut.acquireModel(someName);
+            fail();
+        } catch (OutOfMemoryError e) {
+            // expected
+        }
+        sut.loadFailure = null;
+
+        assertEquals(0, sut.getPoolStatistics().getBorrowedCount());
+        assertEquals(0, sut.getPoolStatistics().getWeight());
+    }
+
+    @Test
+    public void testCollectedModelsAreReclaimed() throws Exception {
+        sut.weight = 10;
+        for (int i = 0; i < 3; i++) {
+            // never released
+            sut.acquireModel(someName).get();
+        }
+        assertFalse("pool did not get exhausted", sut.acquireModel(someName).isPresent());
+
+        Optional<String> model = Optional.absent();
+        for (int i = 0; i < 50 && !model.isPresent(); i++) {
+            System.gc();
+            Thread.sleep(10);
+            model = sut.acquireModel(someName);
+        }
+
+        assertTrue("weight of collected models was not reclaimed", model.isPresent());
+        assertEquals(1, sut.getPoolStatistics().getBorrowedCount());
+        assertEquals(10, sut.getPoolStatistics().getWeight());
+    }
+
+    @Test
+    public void testCachedFormIsWrittenOnceAndRead() throws Exception {
+        CountingModelFormat format = new CountingModelFormat();
+        PoolingModelProviderStub cachingSut = create(format);
+        try {
+            // the first model is not released, so the second is loaded again
+            assertEquals("cached", cachingSut.acquireModel(someName).get());
+            assertEquals("cached", cachingSut.acquireModel(someName).get());
+
+            assertEquals(1, format.writeCount.get());
+            assertEquals(2, format.readCount.get());
+        } finally {
+            cachingSut.close();
+            FileUtils.deleteDirectory(new File(zip.getPath() + ".cache"));
+        }
+    }
+
+    @Test
+    public void testConcurrentAcquireRelease() throws Exception {
+        final Set<String> borrowed = Sets.newSetFromMap(new MapMaker().weakKeys().<String, Boolean>makeMap());
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 1000; i++) {
+                            String model = sut.acquireModel(i % 2 == 0 ? someName : otherName).orNull();
+                            if (model == null || !borrowed.add(model)) {
+                                failures.incrementAndGet();
+                                continue;
+                            }
+                            borrowed.remove(model);
+                            sut.releaseModel(model);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        done.await();
+
+        assertEquals(0, failures.get());
+        assertEquals(0, sut.getPoolStatistics().getBorrowedCount());
+    }
+
+    private PoolingModelProviderStub create() {
+        return create(null);
+    }
+
+    private PoolingModelProviderStub create(ICachedModelFormat<UniqueTypeName, String> cachedFormat) {
         IModelRepository repository = mock(IModelRepository.class);
         when(repository.getLocation(any(ModelCoordinate.class), anyBoolean())).thenReturn(of(zip));
 
@@ -75,17 +268,26 @@ public class PoolingModelProviderTest {
         when(models.suggest(any(ProjectCoordinate.class), anyString())).thenReturn(of(UNKNOWN));
 
         return new PoolingModelProviderStub(repository, models, "calls",
-                Collections.<String, IInputStreamTransformer>emptyMap());
+                Collections.<String, IInputStreamTransformer>emptyMap(), cachedFormat);
     }
 
     private static final class PoolingModelProviderStub extends PoolingModelProvider<UniqueTypeName, String> {
+
+        private volatile long weight = 1;
+        private volatile ExhaustedAction exhaustedAction = ExhaustedAction.FAIL;
+        private volatile Error loadFailure;
+
         private PoolingModelProviderStub(IModelRepository repository, IModelArchiveCoordinateAdvisor index,
-                String modelType, Map<String, IInputStreamTransformer> transformers) {
-            super(repository, index, modelType, transformers);
+                String modelType, Map<String, IInputStreamTransformer> transformers,
+                ICachedModelFormat<UniqueTypeName, String> cachedFormat) {
+            super(repository, index, modelType, transformers, cachedFormat);
         }
 
         @Override
         protected String loadModel(InputStream in, UniqueTypeName key) throws IOException {
+            if (loadFailure != null) {
+                throw loadFailure;
+            }
             // return a "simple" model
             return new String("");
         }
@@ -97,7 +299,37 @@ public class PoolingModelProviderTest {
 
         @Override
         protected String getBasePath(UniqueTypeName key) {
-            return "";
+            return Zips.path(key.getName(), DOT_JSON);
+        }
+
+        @Override
+        protected long weigh(String model) {
+            return weight;
+        }
+
+        @Override
+        protected ExhaustedAction getExhaustedAction() {
+            return exhaustedAction;
+        }
+    }
+
+    private static final class CountingModelFormat implements ICachedModelFormat<UniqueTypeName, String> {
+
+        private final AtomicInteger writeCount = new AtomicInteger();
+        private final AtomicInteger readCount = new AtomicInteger();
+
+        @Override
+        public void write(InputStream in, UniqueTypeName key, OutputStream out) throws IOException {
+            writeCount.incrementAndGet();
+            out.write("cached".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, UniqueTypeName key) throws IOException {
+            readCount.incrementAndGet();
+            byte[] content = new byte[buffer.remaining()];
+            buffer.duplicate().get(content);
+            return new String(content, StandardCharsets.UTF_8);
         }
     }
 }
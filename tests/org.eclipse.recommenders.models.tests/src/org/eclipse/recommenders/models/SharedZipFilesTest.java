@@ -0,0 +1,150 @@
+package org.eclipse.recommenders.models;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.recommenders.models.SharedZipFiles.Handle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SharedZipFilesTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSameArchiveIsShared() throws IOException {
+        SharedZipFiles sut = new SharedZipFiles(10, 60000);
+        File archive = createArchive("a.zip", "entry");
+
+        Handle first = sut.acquire(archive);
+        Handle second = sut.acquire(archive);
+
+        assertSame(first.getZipFile(), second.getZipFile());
+        assertEquals(1, sut.getOpenCount());
+    }
+
+    @Test
+    public void testArchiveAcquiredConcurrentlyIsShared() throws Exception {
+        final SharedZipFiles sut = new SharedZipFiles(10, 60000);
+        final File archive = createArchive("a.zip", "entry");
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<Handle>> handles = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                handles.add(executor.submit(new Callable<Handle>() {
+
+                    @Override
+                    public Handle call() throws Exception {
+                        start.await();
+                        return sut.acquire(archive);
+                    }
+                }));
+            }
+            start.countDown();
+
+            ZipFile zip = handles.get(0).get().getZipFile();
+            for (Future<Handle> handle : handles) {
+                assertSame(zip, handle.get().getZipFile());
+            }
+            assertNotNull(zip.getEntry("entry"));
+            assertEquals(1, sut.getOpenCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReleasedArchiveIsReused() throws IOException {
+        SharedZipFiles sut = new SharedZipFiles(10, 60000);
+        File archive = createArchive("a.zip", "entry");
+
+        Handle first = sut.acquire(archive);
+        ZipFile zip = first.getZipFile();
+        first.close();
+        Handle second = sut.acquire(archive);
+
+        assertSame(zip, second.getZipFile());
+        assertNotNull(second.getZipFile().getEntry("entry"));
+    }
+
+    @Test
+    public void testClosingHandleTwiceReleasesOnce() throws IOException {
+        SharedZipFiles sut = new SharedZipFiles(0, 60000);
+        File archive = createArchive("a.zip", "entry");
+
+        Handle first = sut.acquire(archive);
+        Handle second = sut.acquire(archive);
+        first.close();
+        first.close();
+
+        assertEquals(1, sut.getOpenCount());
+        assertNotNull(second.getZipFile().getEntry("entry"));
+    }
+
+    @Test
+    public void testIdleArchivesAreClosed() throws IOException {
+        SharedZipFiles sut = new SharedZipFiles(1, 60000);
+
+        sut.acquire(createArchive("a.zip", "entry")).close();
+        sut.acquire(createArchive("b.zip", "entry")).close();
+        Handle open = sut.acquire(createArchive("c.zip", "entry"));
+
+        assertEquals(2, sut.getOpenCount());
+        assertNotNull(open.getZipFile().getEntry("entry"));
+    }
+
+    @Test
+    public void testExpiredArchivesAreClosed() throws IOException {
+        SharedZipFiles sut = new SharedZipFiles(10, 0);
+
+        sut.acquire(createArchive("a.zip", "entry")).close();
+        Handle open = sut.acquire(createArchive("b.zip", "entry"));
+
+        assertEquals(1, sut.getOpenCount());
+        assertNotNull(open.getZipFile().getEntry("entry"));
+    }
+
+    @Test
+    public void testChangedArchiveIsReopened() throws IOException {
+        SharedZipFiles sut = new SharedZipFiles(10, 60000);
+        File archive = createArchive("a.zip", "entry");
+        Handle first = sut.acquire(archive);
+
+        createArchive("a.zip", "other entry");
+        Handle second = sut.acquire(archive);
+
+        assertNotSame(first.getZipFile(), second.getZipFile());
+        assertNotNull(second.getZipFile().getEntry("other entry"));
+        assertEquals(1, sut.getOpenCount());
+    }
+
+    private File createArchive(String name, String entry) throws IOException {
+        File archive = new File(tmp.getRoot(), name);
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            out.putNextEntry(new ZipEntry(entry));
+            out.write(new byte[] { 1, 2, 3 });
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        return archive;
+    }
+}
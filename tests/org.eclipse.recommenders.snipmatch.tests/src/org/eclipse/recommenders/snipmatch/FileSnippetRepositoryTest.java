@@ -18,7 +18,7 @@ import static org.eclipse.recommenders.snipmatch.Location.*;
 import static org.eclipse.recommenders.testing.RecommendationMatchers.recommendation;
 import static org.eclipse.recommenders.utils.Constants.DOT_JSON;
 import static org.hamcrest.Matchers.*;
-import static org.junit.Assert.assertThat;
+import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.recommenders.coordinates.ProjectCoordinate;
 import org.eclipse.recommenders.utils.Recommendation;
 import org.eclipse.recommenders.utils.gson.GsonUtil;
@@ -622,6 +623,101 @@ public class FileSnippetRepositoryTest {
         sut.close();
     }
 
+    @Test
+    public void testReopenReindexesAddedChangedAndRemovedSnippets() throws Exception {
+        File removedFile = storeSnippet(createSnippet(A_UUID, "removed"));
+        File changedFile = storeSnippet(createSnippet(ANOTHER_UUID, "original"));
+        sut.open();
+        sut.close();
+
+        removedFile.delete();
+        ISnippet changedSnippet = createSnippet(ANOTHER_UUID, "changedname");
+        storeSnippet(changedSnippet);
+        changedFile.setLastModified(changedFile.lastModified() + 2000);
+        ISnippet addedSnippet = createSnippet(THIRD_UUID, "added");
+        storeSnippet(addedSnippet);
+        sut.open();
+
+        List<Recommendation<ISnippet>> blanketSearch = sut.search(new SearchContext(""));
+
+        assertThat(blanketSearch.size(), is(2));
+        assertThat(getOnlyElement(sut.search(new SearchContext("changedname"))).getProposal(),
+                is(equalTo(changedSnippet)));
+        assertThat(getOnlyElement(sut.search(new SearchContext("added"))).getProposal(), is(equalTo(addedSnippet)));
+        assertThat(sut.search(new SearchContext("original")).isEmpty(), is(true));
+        assertThat(sut.hasSnippet(A_UUID), is(false));
+
+        sut.close();
+    }
+
+    @Test
+    public void testImportedSnippetIsIndexedOnceAfterReopen() throws Exception {
+        storeSnippet(createSnippet(A_UUID, "first"));
+        sut.open();
+        ISnippet importedSnippet = createSnippet(ANOTHER_UUID, "imported");
+        sut.importSnippet(importedSnippet);
+        sut.close();
+
+        sut.open();
+        List<Recommendation<ISnippet>> blanketSearch = sut.search(new SearchContext(""));
+
+        assertThat(blanketSearch.size(), is(2));
+        assertThat(getOnlyElement(sut.search(new SearchContext("imported"))).getProposal(),
+                is(equalTo(importedSnippet)));
+
+        sut.close();
+    }
+
+    @Test
+    public void testSearchResultsAreCreatedFromIndex() throws Exception {
+        Snippet snippet = new Snippet(A_UUID, "name", "description", ImmutableList.of("extra"),
+                ImmutableList.of("tag"), "code", Location.JAVA, ImmutableList.of("restriction"),
+                Collections.singleton(new ProjectCoordinate("org.example", "example", "1.0.0")));
+        File snippetFile = storeSnippet(snippet);
+        sut.open();
+
+        snippetFile.delete();
+        List<Recommendation<ISnippet>> result = sut.search(new SearchContext("name"));
+
+        assertThat(getOnlyElement(result).getProposal(), is(equalTo((ISnippet) snippet)));
+
+        sut.close();
+    }
+
+    @Test
+    public void testCloseAndDeleteAfterFailedOpen() throws Exception {
+        // a corrupt commit makes opening the index fail
+        File indexDir = tmp.newFolder("index");
+        FileUtils.writeByteArrayToFile(new File(indexDir, "segments_1"), new byte[] { 1, 2, 3 });
+
+        try {
+            sut.open();
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+        sut.close();
+
+        assertThat(sut.isOpen(), is(false));
+        assertThat(sut.delete(), is(true));
+        assertThat(snippetsDir.exists(), is(false));
+    }
+
+    @Test
+    public void testSnippetWithoutCodeIsFound() throws Exception {
+        File snippetFile = new File(snippetsDir, A_UUID + DOT_JSON);
+        FileUtils.writeStringToFile(snippetFile, "{\"uuid\": \"" + A_UUID
+                + "\", \"name\": \"name\", \"description\": \"\", \"code\": null, \"location\": \"FILE\"}");
+        sut.open();
+
+        List<Recommendation<ISnippet>> result = sut.search(new SearchContext("name"));
+
+        assertThat(getOnlyElement(result).getProposal().getUuid(), is(equalTo(A_UUID)));
+        assertThat(getOnlyElement(result).getProposal().getCode(), is(nullValue()));
+
+        sut.close();
+    }
+
     private Snippet createSnippet(UUID uuid, String name) {
         return createSnippetWithLocation(uuid, name, Location.FILE);
     }
@@ -0,0 +1,168 @@
+package org.eclipse.recommenders.snipmatch;
+
+import static java.util.concurrent.TimeUnit.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.recommenders.coordinates.ProjectCoordinate;
+import org.eclipse.recommenders.snipmatch.MultiRepositorySearch.Match;
+import org.eclipse.recommenders.utils.Recommendation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.collect.ImmutableList;
+
+public class MultiRepositorySearchTest {
+
+    private static final ISearchContext CONTEXT = new SearchContext("for");
+
+    private static final Snippet FOREACH = createSnippet("foreach");
+    private static final Snippet FORMAT = createSnippet("format");
+    private static final Snippet FOR_LOOP = createSnippet("for");
+    private static final Snippet FOR_TEST = createSnippet("fortest");
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private ExecutorService executor;
+    private MultiRepositorySearch sut;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        sut = new MultiRepositorySearch(executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResultsAreMergedByRelevanceThenPriority() {
+        ISnippetRepository first = mockRepository(recommendation(FOREACH, 0.8), recommendation(FORMAT, 0.4));
+        ISnippetRepository second = mockRepository(recommendation(FOR_LOOP, 0.5), recommendation(FOR_TEST, 0.4));
+
+        List<Match> result = sut.search(ImmutableList.of(first, second), CONTEXT, 10, 10, SECONDS);
+
+        assertThat(snippets(result), contains((ISnippet) FOREACH, FOR_LOOP, FOR_TEST, FORMAT));
+        assertThat(result.get(1).getRepository(), is(second));
+        assertThat(result.get(1).getRepositoryPriority(), is(1));
+        assertThat(result.get(3).getRecommendation().getRelevance(), is(closeTo(0.5, 0.001)));
+    }
+
+    @Test
+    public void testResultsAreBounded() {
+        ISnippetRepository first = mockRepository(recommendation(FOREACH, 1.0), recommendation(FORMAT, 0.5));
+        ISnippetRepository second = mockRepository(recommendation(FOR_LOOP, 1.0), recommendation(FOR_TEST, 0.9));
+
+        List<Match> result = sut.search(ImmutableList.of(first, second), CONTEXT, 3, 10, SECONDS);
+
+        assertThat(snippets(result), contains((ISnippet) FOREACH, FOR_LOOP, FOR_TEST));
+    }
+
+    @Test
+    public void testSlowRepositoryIsLeftOut() {
+        CountDownLatch latch = new CountDownLatch(1);
+        ISnippetRepository slow = mockBlockingRepository(latch, recommendation(FOREACH, 1.0));
+        ISnippetRepository fast = mockRepository(recommendation(FOR_LOOP, 1.0));
+
+        try {
+            List<Match> result = sut.search(ImmutableList.of(slow, fast), CONTEXT, 10, 100, MILLISECONDS);
+            assertThat(snippets(result), contains((ISnippet) FOR_LOOP));
+
+            result = sut.search(ImmutableList.of(slow, fast), new SearchContext("fore"), 10, 100, MILLISECONDS);
+            assertThat(snippets(result), contains((ISnippet) FOR_LOOP));
+            verify(slow, times(1)).search(any(ISearchContext.class));
+            verify(fast, times(2)).search(any(ISearchContext.class));
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testFailingRepositoryIsLeftOut() {
+        ISnippetRepository failing = mock(ISnippetRepository.class);
+        when(failing.search(any(ISearchContext.class))).thenThrow(new IllegalStateException());
+        ISnippetRepository working = mockRepository(recommendation(FOR_LOOP, 1.0));
+
+        List<Match> result = sut.search(ImmutableList.of(failing, working), CONTEXT, 10, 10, SECONDS);
+
+        assertThat(snippets(result), contains((ISnippet) FOR_LOOP));
+    }
+
+    @Test
+    public void testResetFindsSnippetsAddedSinceTheLastSearch() throws Exception {
+        FileSnippetRepository repository = new FileSnippetRepository("id", tmp.getRoot());
+        repository.open();
+
+        try {
+            repository.importSnippet(FOREACH);
+            List<ISnippetRepository> repositories = ImmutableList.<ISnippetRepository>of(repository);
+            assertThat(snippets(sut.search(repositories, CONTEXT, 10, 10, SECONDS)), contains((ISnippet) FOREACH));
+
+            repository.importSnippet(FOR_LOOP);
+            sut.reset();
+            List<Match> result = sut.search(repositories, CONTEXT, 10, 10, SECONDS);
+
+            assertThat(snippets(result), containsInAnyOrder((ISnippet) FOREACH, FOR_LOOP));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @SafeVarargs
+    private static ISnippetRepository mockRepository(Recommendation<ISnippet>... recommendations) {
+        ISnippetRepository repository = mock(ISnippetRepository.class);
+        when(repository.search(any(ISearchContext.class))).thenReturn(ImmutableList.copyOf(recommendations));
+        return repository;
+    }
+
+    @SafeVarargs
+    private static ISnippetRepository mockBlockingRepository(final CountDownLatch latch,
+            final Recommendation<ISnippet>... recommendations) {
+        ISnippetRepository repository = mock(ISnippetRepository.class);
+        when(repository.search(any(ISearchContext.class))).thenAnswer(new Answer<List<Recommendation<ISnippet>>>() {
+
+            @Override
+            public List<Recommendation<ISnippet>> answer(InvocationOnMock invocation) throws Throwable {
+                latch.await();
+                return ImmutableList.copyOf(recommendations);
+            }
+        });
+        return repository;
+    }
+
+    private static Recommendation<ISnippet> recommendation(ISnippet snippet, double relevance) {
+        return Recommendation.newRecommendation(snippet, relevance);
+    }
+
+    private static Snippet createSnippet(String name) {
+        return new Snippet(UUID.randomUUID(), name, "", Collections.<String>emptyList(),
+                Collections.<String>emptyList(), "code", Location.FILE, Collections.<String>emptyList(),
+                Collections.<ProjectCoordinate>emptySet());
+    }
+
+    private static List<ISnippet> snippets(List<Match> matches) {
+        List<ISnippet> snippets = new ArrayList<>();
+        for (Match match : matches) {
+            snippets.add(match.getRecommendation().getProposal());
+        }
+        return snippets;
+    }
+}
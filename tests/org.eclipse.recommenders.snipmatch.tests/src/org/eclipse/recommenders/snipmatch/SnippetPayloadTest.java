@@ -0,0 +1,63 @@
+package org.eclipse.recommenders.snipmatch;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.eclipse.recommenders.coordinates.ProjectCoordinate;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class SnippetPayloadTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Snippet snippet = new Snippet(randomUUID(), "name", "description ‘quoted’",
+                ImmutableList.of("extra", "terms"), ImmutableList.of("tag"), "for (;;) {\n}", Location.JAVA_STATEMENTS,
+                ImmutableList.of("*.java"), ImmutableSet.of(new ProjectCoordinate("org.example", "first", "1.0.0"),
+                        new ProjectCoordinate("org.example", "second", "2.0.0")));
+
+        Snippet copy = SnippetPayload.decode(SnippetPayload.encode(snippet));
+
+        assertThat(copy, is(equalTo(snippet)));
+    }
+
+    @Test
+    public void testRoundTripWithoutFilenameRestrictions() throws IOException {
+        Snippet snippet = new Snippet(randomUUID(), "", "", Collections.<String>emptyList(),
+                Collections.<String>emptyList(), "", Location.FILE, null, Collections.<ProjectCoordinate>emptySet());
+
+        Snippet copy = SnippetPayload.decode(SnippetPayload.encode(snippet));
+
+        assertThat(copy, is(equalTo(snippet)));
+        assertThat(copy.getFilenameRestrictions(), is(nullValue()));
+    }
+
+    @Test
+    public void testRoundTripWithNullFields() throws IOException {
+        Snippet snippet = new Snippet(randomUUID(), "", "", Collections.<String>emptyList(),
+                Collections.<String>emptyList(), "", Location.FILE, null, Collections.<ProjectCoordinate>emptySet());
+        snippet.setName(null);
+        snippet.setDescription(null);
+        snippet.setCode(null);
+        snippet.setLocation(null);
+
+        Snippet copy = SnippetPayload.decode(SnippetPayload.encode(snippet));
+
+        assertThat(copy, is(equalTo(snippet)));
+        assertThat(copy.getName(), is(nullValue()));
+        assertThat(copy.getDescription(), is(nullValue()));
+        assertThat(copy.getCode(), is(nullValue()));
+        assertThat(copy.getLocation(), is(nullValue()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownVersion() throws IOException {
+        SnippetPayload.decode(new byte[] { 0 });
+    }
+}
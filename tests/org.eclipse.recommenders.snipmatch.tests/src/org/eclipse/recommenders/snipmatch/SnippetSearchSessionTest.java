@@ -0,0 +1,214 @@
+package org.eclipse.recommenders.snipmatch;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import static org.eclipse.recommenders.utils.Constants.DOT_JSON;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.recommenders.coordinates.ProjectCoordinate;
+import org.eclipse.recommenders.utils.Recommendation;
+import org.eclipse.recommenders.utils.gson.GsonUtil;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.collect.ImmutableList;
+
+public class SnippetSearchSessionTest {
+
+    private static final Snippet FOREACH = createSnippet("foreach", "Iterate over an array", "loop");
+    private static final Snippet FORMAT = createSnippet("format", "Format a string", "text");
+    private static final Snippet FOR_LOOP = createSnippet("for", "Counting loop", "loop");
+
+    private static final List<Recommendation<ISnippet>> SCORED_CANDIDATES = ImmutableList.of(
+            Recommendation.<ISnippet, ISnippet>newRecommendation(FOR_LOOP, 0.6),
+            Recommendation.<ISnippet, ISnippet>newRecommendation(FOREACH, 0.3),
+            Recommendation.<ISnippet, ISnippet>newRecommendation(FORMAT, 0.15));
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private ISnippetRepository repository;
+    private SnippetSearchSession sut;
+
+    @Before
+    public void setUp() {
+        repository = mock(ISnippetRepository.class, withSettings().extraInterfaces(ICandidateSearch.class));
+        when(repository.search(any(ISearchContext.class))).thenReturn(ImmutableList.of(
+                Recommendation.<ISnippet, ISnippet>newRecommendation(FOREACH, 1.0),
+                Recommendation.<ISnippet, ISnippet>newRecommendation(FORMAT, 0.5),
+                Recommendation.<ISnippet, ISnippet>newRecommendation(FOR_LOOP, 0.8)));
+        when(((ICandidateSearch) repository).searchCandidates(any(ISearchContext.class), anyCollectionOf(UUID.class)))
+                .thenAnswer(new Answer<List<Recommendation<ISnippet>>>() {
+
+                    @Override
+                    public List<Recommendation<ISnippet>> answer(InvocationOnMock invocation) throws Throwable {
+                        Collection<?> candidates = (Collection<?>) invocation.getArguments()[1];
+                        List<Recommendation<ISnippet>> results = new ArrayList<>();
+                        for (Recommendation<ISnippet> recommendation : SCORED_CANDIDATES) {
+                            if (candidates.contains(recommendation.getProposal().getUuid())) {
+                                results.add(recommendation);
+                            }
+                        }
+                        return results;
+                    }
+                });
+        sut = new SnippetSearchSession(repository);
+    }
+
+    @Test
+    public void testExtendingLastTermNarrowsInMemory() {
+        sut.search(new SearchContext("fo"));
+        List<Recommendation<ISnippet>> result = sut.search(new SearchContext("Fore"));
+
+        verify(repository, times(1)).search(any(ISearchContext.class));
+        assertThat(proposals(result), contains((ISnippet) FOREACH));
+    }
+
+    @Test
+    public void testAddingTermNarrowsInMemory() {
+        sut.search(new SearchContext("fo"));
+        List<Recommendation<ISnippet>> result = sut.search(new SearchContext("fo cou"));
+
+        verify(repository, times(1)).search(any(ISearchContext.class));
+        assertThat(proposals(result), contains((ISnippet) FOR_LOOP));
+        assertThat(result.get(0).getRelevance(), is(closeTo(1.0, 0.001)));
+    }
+
+    @Test
+    public void testNarrowedResultsAreScoredByRepository() {
+        sut.search(new SearchContext("fo"));
+        List<Recommendation<ISnippet>> result = sut.search(new SearchContext("for"));
+
+        verify(repository, times(1)).search(any(ISearchContext.class));
+        assertThat(proposals(result), contains((ISnippet) FOR_LOOP, FOREACH, FORMAT));
+        assertThat(result.get(0).getRelevance(), is(closeTo(1.0, 0.001)));
+        assertThat(result.get(1).getRelevance(), is(closeTo(0.5, 0.001)));
+    }
+
+    @Test
+    public void testNoCandidatesLeftSkipsRepository() {
+        sut.search(new SearchContext("fo"));
+        List<Recommendation<ISnippet>> result = sut.search(new SearchContext("fox"));
+
+        assertThat(result.isEmpty(), is(true));
+        verify((ICandidateSearch) repository, never()).searchCandidates(any(ISearchContext.class),
+                anyCollectionOf(UUID.class));
+    }
+
+    @Test
+    public void testRepositoryWithoutCandidateSearchIsAlwaysSearched() {
+        ISnippetRepository plainRepository = mock(ISnippetRepository.class);
+        SnippetSearchSession session = new SnippetSearchSession(plainRepository);
+
+        session.search(new SearchContext("fo"));
+        session.search(new SearchContext("for"));
+
+        verify(plainRepository, times(2)).search(any(ISearchContext.class));
+    }
+
+    @Test
+    public void testNarrowedResultsEqualFreshSearch() throws Exception {
+        File snippetsDir = tmp.newFolder("snippets");
+        storeSnippet(snippetsDir, createSnippet("foreach", "Iterate over an array", "loop"));
+        storeSnippet(snippetsDir, createSnippet("for loop", "Iterate over a range of integers", "loop"));
+        storeSnippet(snippetsDir, createSnippet("format", "Format a string for output", "text"));
+        storeSnippet(snippetsDir, createSnippet("formatter", "Create a formatter for an array of arguments", "text"));
+        FileSnippetRepository fileRepository = new FileSnippetRepository("id", tmp.getRoot());
+        fileRepository.open();
+        SnippetSearchSession session = new SnippetSearchSession(fileRepository);
+
+        try {
+            for (String searchText : ImmutableList.of("f", "fo", "for", "for a", "for ar", "for arr")) {
+                ISearchContext context = new SearchContext(searchText);
+                List<Recommendation<ISnippet>> narrowed = session.search(context);
+                List<Recommendation<ISnippet>> fresh = new SnippetSearchSession(fileRepository).search(context);
+
+                assertThat(searchText, proposals(narrowed), is(equalTo(proposals(fresh))));
+                assertThat(searchText, relevances(narrowed), is(equalTo(relevances(fresh))));
+            }
+        } finally {
+            fileRepository.close();
+        }
+    }
+
+    @Test
+    public void testTagsMustMatchExactly() {
+        sut.search(new SearchContext("te"));
+        List<Recommendation<ISnippet>> result = sut.search(new SearchContext("text"));
+
+        assertThat(proposals(result), contains((ISnippet) FORMAT));
+        assertThat(sut.search(new SearchContext("texts")).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testShortenedQueryFallsBackToRepository() {
+        sut.search(new SearchContext("for"));
+        sut.search(new SearchContext("fo"));
+
+        verify(repository, times(2)).search(any(ISearchContext.class));
+    }
+
+    @Test
+    public void testQuerySyntaxFallsBackToRepository() {
+        sut.search(new SearchContext("fo"));
+        sut.search(new SearchContext("fo tag:loop"));
+
+        verify(repository, times(2)).search(any(ISearchContext.class));
+    }
+
+    @Test
+    public void testChangedContextFallsBackToRepository() {
+        sut.search(new SearchContext("fo", Location.FILE, "Test.java", Collections.<ProjectCoordinate>emptySet()));
+        sut.search(new SearchContext("for", Location.JAVA, "Test.java", Collections.<ProjectCoordinate>emptySet()));
+
+        verify(repository, times(2)).search(any(ISearchContext.class));
+    }
+
+    @Test
+    public void testResetFallsBackToRepository() {
+        sut.search(new SearchContext("fo"));
+        sut.reset();
+        sut.search(new SearchContext("for"));
+
+        verify(repository, times(2)).search(any(ISearchContext.class));
+    }
+
+    private static Snippet createSnippet(String name, String description, String tag) {
+        return new Snippet(UUID.randomUUID(), name, description, Collections.<String>emptyList(),
+                ImmutableList.of(tag), "code", Location.FILE, Collections.<String>emptyList(),
+                Collections.<ProjectCoordinate>emptySet());
+    }
+
+    private static void storeSnippet(File snippetsDir, ISnippet snippet) throws Exception {
+        GsonUtil.serialize(snippet, new File(snippetsDir, snippet.getUuid() + DOT_JSON));
+    }
+
+    private static List<Double> relevances(List<Recommendation<ISnippet>> recommendations) {
+        List<Double> relevances = new ArrayList<>();
+        for (Recommendation<ISnippet> recommendation : recommendations) {
+            relevances.add(recommendation.getRelevance());
+        }
+        return relevances;
+    }
+
+    private static List<ISnippet> proposals(List<Recommendation<ISnippet>> recommendations) {
+        List<ISnippet> proposals = new ArrayList<>();
+        for (Recommendation<ISnippet> recommendation : recommendations) {
+            proposals.add(recommendation.getProposal());
+        }
+        return proposals;
+    }
+}
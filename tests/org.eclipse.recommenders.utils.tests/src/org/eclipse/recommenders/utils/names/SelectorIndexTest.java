@@ -0,0 +1,53 @@
+package org.eclipse.recommenders.utils.names;
+
+import static org.eclipse.recommenders.utils.names.VmMethodName.get;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SelectorIndexTest {
+
+    @Test
+    public void testLookupIgnoresDeclaringAndReturnType() {
+        SelectorIndex<String> sut = SelectorIndex.create();
+        sut.put(get("Ljava/util/List.add(Ljava/lang/Object;)Z"), "add");
+
+        assertEquals("add", sut.get(get("Ljava/util/ArrayList.add(Ljava/lang/Object;)V")));
+        assertTrue(sut.contains(get("Ljava/util/ArrayList.add(Ljava/lang/Object;)V")));
+    }
+
+    @Test
+    public void testLookupRespectsNameAndParameters() {
+        SelectorIndex<String> sut = SelectorIndex.create();
+        sut.put(get("Lorg/example/Example.method([Ljava/lang/Object;)V"), "method");
+
+        assertNull(sut.get(get("Lorg/example/Example.method(Ljava/lang/Object;)V")));
+        assertNull(sut.get(get("Lorg/example/Example.method([[Ljava/lang/Object;)V")));
+        assertNull(sut.get(get("Lorg/example/Example.other([Ljava/lang/Object;)V")));
+        assertNull(sut.get(null));
+        assertFalse(sut.contains(null));
+    }
+
+    @Test
+    public void testLookupRespectsNumberTypesAndOrderOfParameters() {
+        SelectorIndex<String> sut = SelectorIndex.create();
+        sut.put(get("Lorg/example/Example.method(IJ)V"), "method");
+
+        assertNull(sut.get(get("Lorg/example/Example.method()V")));
+        assertNull(sut.get(get("Lorg/example/Example.method(I)V")));
+        assertNull(sut.get(get("Lorg/example/Example.method(II)V")));
+        assertNull(sut.get(get("Lorg/example/Example.method(JI)V")));
+        assertEquals("method", sut.get(get("Lorg/example/Other.method(IJ)I")));
+    }
+
+    @Test
+    public void testFirstValueWins() {
+        SelectorIndex<String> sut = SelectorIndex.create();
+
+        assertTrue(sut.put(get("Lorg/example/Example.method(IJ)V"), "first"));
+        assertFalse(sut.put(get("Lorg/example/Other.method(IJ)I"), "second"));
+
+        assertEquals("first", sut.get(get("Lorg/example/Example.method(IJ)V")));
+        assertEquals(1, sut.size());
+    }
+}
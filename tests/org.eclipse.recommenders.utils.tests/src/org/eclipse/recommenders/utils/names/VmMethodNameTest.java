@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     agent - initial API and implementation
+ */
+package org.eclipse.recommenders.utils.names;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class VmMethodNameTest {
+
+    @Test
+    public void testParameterAndReturnTypes() {
+        IMethodName method = VmMethodName.get("Ljava/lang/String.indexOf([CIJLjava/lang/String;)[[I");
+
+        assertArrayEquals(new ITypeName[] { VmTypeName.get("[C"), VmTypeName.INT, VmTypeName.LONG,
+                VmTypeName.STRING }, method.getParameterTypes());
+        assertEquals(VmTypeName.get("[[I"), method.getReturnType());
+        assertEquals(VmTypeName.STRING, method.getDeclaringType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeclaredReturnTypeWithoutSemicolon() {
+        VmMethodName.get("Ljava/lang/String.valueOf()Ljava/lang/Object");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParameterType() {
+        VmMethodName.get("Ljava/lang/String.valueOf(Ljava/lang/Obj ect;)V");
+    }
+
+    @Test
+    public void testSelectorIdIgnoresDeclaringAndReturnType() {
+        VmMethodName method = VmMethodName.get("Ljava/util/List.add(Ljava/lang/Object;)Z");
+
+        assertEquals(method.getSelectorId(), VmMethodName.get("Ljava/util/ArrayList.add(Ljava/lang/Object;)V")
+                .getSelectorId());
+        assertFalse(method.getSelectorId() == VmMethodName.get("Ljava/util/List.add(Ljava/lang/String;)Z")
+                .getSelectorId());
+        assertFalse(method.getSelectorId() == VmMethodName.get("Ljava/util/List.put(Ljava/lang/Object;)Z")
+                .getSelectorId());
+        assertFalse(method.getSelectorId() == VmMethodName.get("Ljava/util/List.add(Ljava/lang/Object;I)Z")
+                .getSelectorId());
+    }
+
+    @Test
+    public void testParameterTypesAreCopied() {
+        IMethodName method = VmMethodName.get("Ljava/lang/String.valueOf(I)Ljava/lang/String;");
+
+        method.getParameterTypes()[0] = VmTypeName.LONG;
+
+        assertEquals(VmTypeName.INT, method.getParameterTypes()[0]);
+    }
+
+    @Test
+    public void testDeserializedNameIsInterned() throws Exception {
+        IMethodName method = VmMethodName.get("Ljava/lang/String.valueOf(I)Ljava/lang/String;");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(method);
+        out.close();
+
+        Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertSame(method, copy);
+        assertEquals("valueOf", ((IMethodName) copy).getName());
+    }
+
+    @Test
+    public void testConcurrentGetReturnsSameInstance() throws Exception {
+        final String identifier = "Lconcurrent/Type.method(Lconcurrent/Parameter;)V";
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IMethodName>> futures = new ArrayList<Future<IMethodName>>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(new Callable<IMethodName>() {
+
+                    @Override
+                    public IMethodName call() {
+                        return VmMethodName.get(identifier);
+                    }
+                }));
+            }
+            IMethodName expected = futures.get(0).get();
+            for (Future<IMethodName> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}